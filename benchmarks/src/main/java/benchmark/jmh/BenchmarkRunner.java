@@ -0,0 +1,48 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск замеров JMH. Принимает обычные аргументы JMH (фильтр замеров, -p, -f, -wi, -i и т.д.),
+ * если формат и файл результатов не заданы, результаты пишутся в json-файл
+ * {@link #DEFAULT_RESULT_PATH}, чтобы их можно было сравнивать между версиями.
+ * Запускать нужно из корня проекта: пути к ресурсам отсчитываются от него
+ */
+public class BenchmarkRunner {
+    /**
+     * файл результатов по умолчанию
+     */
+    public static final String DEFAULT_RESULT_PATH = "benchmarks/target/jmh-result.json";
+
+    /**
+     * Главный метод
+     *
+     * @param args аргументы JMH
+     * @throws CommandLineOptionException если аргументы не удалось разобрать
+     * @throws RunnerException            если замеры завершились с ошибкой
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder optionsBuilder = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue())
+            optionsBuilder.resultFormat(ResultFormatType.JSON);
+        if (!commandLineOptions.getResult().hasValue())
+            optionsBuilder.result(DEFAULT_RESULT_PATH);
+        new Runner(optionsBuilder.build()).run();
+    }
+
+    /**
+     * Конструктор для запрета наследования
+     */
+    private BenchmarkRunner() {
+        // Подавление создания конструктора по умолчанию
+        // для достижения неинстанцируемости
+        throw new AssertionError("constructor is disabled");
+    }
+}
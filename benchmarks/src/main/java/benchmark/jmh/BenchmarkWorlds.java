@@ -0,0 +1,125 @@
+package benchmark.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.istack.NotNull;
+import jMath.aoklyunin.github.com.vector.Vector2d;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+import world.WorldFactory;
+import world.base.World;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static constants.Constants.RESOURCE_PATH;
+
+/**
+ * Подготовка миров для замеров: мир без OpenGL (с простым фоновым рисовальщиком)
+ * с заданным кол-вом существ и заданной длиной истории.
+ * Пути к ресурсам отсчитываются от корня проекта, поэтому замеры нужно запускать из него
+ */
+final class BenchmarkWorlds {
+    /**
+     * путь к описанию мира, по которому строятся миры замеров
+     */
+    static final String WORLD_PATH = RESOURCE_PATH + "worlds3D/foodSimpleOffscreenWorld3D.json";
+    /**
+     * ширина виртуального окна
+     */
+    private static final int CLIENT_WIDTH = 1920;
+    /**
+     * высота виртуального окна
+     */
+    private static final int CLIENT_HEIGHT = 1040;
+    /**
+     * размер области, в которой расставляются существа
+     */
+    private static final double PLACE_RANGE = 36;
+
+    /**
+     * Загрузить мир с заданным кол-вом существ и инициализировать его: существа расставляются
+     * по сетке, описание каждого берётся из первой инструкции размещения исходного мира
+     *
+     * @param creatureCnt кол-во существ
+     * @return мир
+     */
+    @NotNull
+    static World loadWorld(int creatureCnt) {
+        if (creatureCnt < 1)
+            throw new IllegalArgumentException("creature count must be positive: " + creatureCnt);
+        // шрифты подписей мира создаются через AWT, окно при этом не нужно
+        System.setProperty("java.awt.headless", "true");
+        File worldFile = null;
+        try {
+            ObjectMapper objectMapper = new ObjectMapper();
+            ObjectNode worldNode = (ObjectNode) objectMapper.readTree(new File(WORLD_PATH));
+            JsonNode sample = worldNode.get("creatureInWorldPlaceInstructions").get(0);
+            ArrayNode instructions = worldNode.putArray("creatureInWorldPlaceInstructions");
+            int side = (int) Math.ceil(Math.sqrt(creatureCnt));
+            double step = PLACE_RANGE / side;
+            for (int i = 0; i < creatureCnt; i++) {
+                ObjectNode instruction = sample.deepCopy();
+                instruction.put("id", i);
+                ObjectNode position = instruction.putObject("position");
+                position.put("x", -PLACE_RANGE / 2 + step * (i % side + 0.5));
+                position.put("y", -PLACE_RANGE / 2 + step * (i / side + 0.5));
+                position.put("z", 0.0);
+                instructions.add(instruction);
+            }
+            worldFile = File.createTempFile("benchmarkWorld" + creatureCnt + "_", ".json");
+            objectMapper.writeValue(worldFile, worldNode);
+
+            World world = WorldFactory.loadWorld(
+                    worldFile.getPath(), CLIENT_WIDTH, CLIENT_HEIGHT,
+                    new Vector3d(0, 0, 0), new Vector2d(0.5, 0.5)
+            );
+            world.getRealTimeWorld().init();
+            return world;
+        } catch (IOException e) {
+            throw new AssertionError("can not prepare benchmark world from " + WORLD_PATH + "\n" + e);
+        } finally {
+            if (worldFile != null) {
+                WorldFactory.removeWorldControllerParams(worldFile.getPath());
+                deleteQuietly(worldFile);
+            }
+        }
+    }
+
+    /**
+     * Выполнить такты мира, пока история не достигнет заданной длины
+     *
+     * @param world       мир
+     * @param historySize длина истории
+     */
+    static void fillStory(@NotNull World world, int historySize) {
+        if (historySize > 0 && !world.getWorldParams().getStoryWorldParams().isRecordStory())
+            throw new IllegalArgumentException("story is not recorded by world " + world.getPath());
+        while (world.getStoryWorld().getWorldStory().getSize() < historySize)
+            world.getStoryWorld().tick();
+    }
+
+    /**
+     * Удалить файл, если он есть
+     *
+     * @param file файл
+     */
+    static void deleteQuietly(@NotNull File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException ignored) {
+            // временный файл удалит система
+        }
+    }
+
+    /**
+     * Конструктор для запрета наследования
+     */
+    private BenchmarkWorlds() {
+        // Подавление создания конструктора по умолчанию
+        // для достижения неинстанцируемости
+        throw new AssertionError("constructor is disabled");
+    }
+}
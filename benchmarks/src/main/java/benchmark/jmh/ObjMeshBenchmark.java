@@ -0,0 +1,76 @@
+package benchmark.jmh;
+
+import graphics.MeshCache;
+import graphics.ObjMesh;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры загрузки геометрии модели из obj-файла вместе с рассчётом нормалей через кэш геометрии:
+ * после каждого замера геометрия отпускается и выгружается из кэша, поэтому каждый раз
+ * obj-файл разбирается заново, и отдельно замер захвата уже загруженной геометрии
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjMeshBenchmark {
+    /**
+     * путь к модели относительно папки моделей
+     */
+    @Param({"cube.obj", "food/simpleFood.obj", "creatures/quadric_creature.obj", "teapot.obj"})
+    public String modelPath;
+
+    /**
+     * масштаб модели
+     */
+    private Vector3d scale;
+
+    /**
+     * Задать масштаб модели
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        scale = new Vector3d(1, 1, 1);
+    }
+
+    /**
+     * Загрузка геометрии из файла
+     *
+     * @return геометрия
+     */
+    @Benchmark
+    public ObjMesh load() {
+        ObjMesh mesh = MeshCache.acquire(modelPath, scale);
+        MeshCache.release(mesh);
+        MeshCache.evictUnused();
+        return mesh;
+    }
+
+    /**
+     * Захват геометрии, которая уже есть в кэше
+     *
+     * @return геометрия
+     */
+    @Benchmark
+    public ObjMesh acquireCached() {
+        ObjMesh mesh = MeshCache.acquire(modelPath, scale);
+        MeshCache.release(mesh);
+        return mesh;
+    }
+}
@@ -0,0 +1,155 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import world.worldStory.actualList.ChunkedActualList;
+import world.worldStory.actualList.LinkedActualList;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры списков истории мира {@link LinkedActualList} и {@link ChunkedActualList}:
+ * заполнение, случайный доступ (как при прокрутке истории) и обрезка по выбранному положению
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StoryListBenchmark {
+    /**
+     * Кол-во заранее выбранных случайных номеров
+     */
+    private static final int RANDOM_INDEX_CNT = 1 << 12;
+
+    /**
+     * тип списка
+     */
+    @Param({"LINKED", "CHUNKED"})
+    public String listType;
+    /**
+     * размер истории
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int historySize;
+
+    /**
+     * заполненный список
+     */
+    private List<Integer> list;
+    /**
+     * случайные номера элементов
+     */
+    private int[] randomIndexes;
+    /**
+     * положение в массиве случайных номеров
+     */
+    private int randomPos;
+
+    /**
+     * Заполнить список и выбрать случайные номера
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = fill();
+        Random random = new Random(42);
+        randomIndexes = new int[RANDOM_INDEX_CNT];
+        for (int i = 0; i < RANDOM_INDEX_CNT; i++)
+            randomIndexes[i] = random.nextInt(historySize);
+    }
+
+    /**
+     * Заполнение пустого списка
+     *
+     * @return заполненный список
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Integer> add() {
+        return fill();
+    }
+
+    /**
+     * Получение элемента по случайному номеру
+     *
+     * @return элемент
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Integer get() {
+        randomPos = (randomPos + 1) & (RANDOM_INDEX_CNT - 1);
+        return list.get(randomIndexes[randomPos]);
+    }
+
+    /**
+     * Состояние замера обрезки: обрезка разрушает список, поэтому перед каждым вызовом
+     * список заполняется заново
+     */
+    @State(Scope.Thread)
+    public static class TruncState {
+        /**
+         * список, выбранное положение которого стоит в середине
+         */
+        private List<Integer> list;
+
+        /**
+         * Заполнить список и выбрать середину
+         *
+         * @param benchmark замер списков
+         */
+        @Setup(Level.Invocation)
+        public void setUp(StoryListBenchmark benchmark) {
+            list = benchmark.fill();
+            if (list instanceof LinkedActualList)
+                ((LinkedActualList<Integer>) list).setActualPos(benchmark.historySize / 2);
+            else
+                ((ChunkedActualList<Integer>) list).setActualPos(benchmark.historySize / 2);
+        }
+    }
+
+    /**
+     * Обрезка истории по выбранному положению
+     *
+     * @param truncState список с выбранным положением в середине
+     * @return изменился ли список
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 20, batchSize = 1)
+    public boolean truncByActualPos(TruncState truncState) {
+        if (truncState.list instanceof LinkedActualList)
+            return ((LinkedActualList<Integer>) truncState.list).truncByActualPos();
+        return ((ChunkedActualList<Integer>) truncState.list).truncByActualPos();
+    }
+
+    /**
+     * Создать список заданного типа и заполнить его
+     *
+     * @return заполненный список
+     */
+    private List<Integer> fill() {
+        List<Integer> newList = switch (listType) {
+            case "LINKED" -> new LinkedActualList<>();
+            case "CHUNKED" -> new ChunkedActualList<>();
+            default -> throw new IllegalArgumentException("unresolved list type " + listType);
+        };
+        for (int i = 0; i < historySize; i++)
+            newList.add(i);
+        return newList;
+    }
+}
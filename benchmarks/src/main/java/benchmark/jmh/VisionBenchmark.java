@@ -0,0 +1,117 @@
+package benchmark.jmh;
+
+import creature.base.Creature;
+import creature.creature3D.Creature3D;
+import field.field3D.Food3DField;
+import jMath.aoklyunin.github.com.Transform3d;
+import jMath.aoklyunin.github.com.coordinateSystem.CoordinateSystem3d;
+import offscreen.renderer.OffscreenRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import world.base.World;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры зрения существ: рассчёт буфера зрения одного существа простым фоновым рисовальщиком
+ * ({@link offscreen.renderer.SimpleOffscreenRenderer#calculateVision}) и заполнение сеток
+ * сенсоров всех существ полем еды
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VisionBenchmark {
+    /**
+     * кол-во существ
+     */
+    @Param({"1", "10", "100"})
+    public int creatureCnt;
+
+    /**
+     * мир
+     */
+    private World world;
+    /**
+     * поле еды
+     */
+    private Food3DField food3DField;
+    /**
+     * фоновый рисовальщик поля еды
+     */
+    private OffscreenRenderer offscreenRenderer;
+    /**
+     * существа
+     */
+    private List<Creature> creatures;
+    /**
+     * существо, для которого считается буфер зрения
+     */
+    private Creature3D creature3D;
+    /**
+     * трансформации объектов поля
+     */
+    private List<Transform3d> objectTransforms;
+    /**
+     * СК мира
+     */
+    private CoordinateSystem3d worldCS;
+
+    /**
+     * Загрузить мир
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        world = BenchmarkWorlds.loadWorld(creatureCnt);
+        food3DField = world.getRealTimeWorld().getResourceField().getFood3DField();
+        offscreenRenderer = food3DField.getOffscreenRenderer();
+        creatures = world.getStoryWorld().getWorldStory().getCreatures();
+        creature3D = (Creature3D) creatures.get(0);
+        objectTransforms = offscreenRenderer.getObjectTransforms();
+        worldCS = world.getWorldParams().getRealTimeWorldParams().getWorldCS();
+    }
+
+    /**
+     * Закрыть мир
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    /**
+     * Рассчёт буфера зрения одного существа
+     *
+     * @return буфер зрения
+     */
+    @Benchmark
+    public short[] calculateVision() {
+        offscreenRenderer.calculateVision(
+                creature3D.getVisionGridSize(), creature3D.getCamera(), objectTransforms,
+                creature3D.getSensorGridValues(), creature3D.getSensorGridStride()
+        );
+        return creature3D.getSensorGridValues();
+    }
+
+    /**
+     * Заполнение сеток сенсоров всех существ по текущему положению их камер
+     */
+    @Benchmark
+    public void setSensorValues() {
+        food3DField.setSensorValues(creatures, worldCS);
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import world.base.World;
+import world.worldStory.WorldStory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры сохранения истории мира в json и её загрузки из json
+ * при разном кол-ве существ и длине истории
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WorldStoryJsonBenchmark {
+    /**
+     * кол-во существ
+     */
+    @Param({"1", "10", "100"})
+    public int creatureCnt;
+    /**
+     * длина истории
+     */
+    @Param({"100", "1000"})
+    public int historySize;
+
+    /**
+     * мир, история которого сохраняется
+     */
+    private World world;
+    /**
+     * файл, в который сохраняется история
+     */
+    private File saveFile;
+    /**
+     * файл, из которого загружается история
+     */
+    private File loadFile;
+
+    /**
+     * Загрузить мир, заполнить историю и подготовить файлы
+     *
+     * @throws IOException если не удалось создать временные файлы
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        world = BenchmarkWorlds.loadWorld(creatureCnt);
+        BenchmarkWorlds.fillStory(world, historySize);
+        saveFile = File.createTempFile("benchmarkStorySave", ".json");
+        loadFile = File.createTempFile("benchmarkStoryLoad", ".json");
+        WorldStory.saveStory(world.getStoryWorld().getWorldStory(), loadFile.getPath(), world.getPath());
+    }
+
+    /**
+     * Закрыть мир и удалить файлы
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.close();
+        BenchmarkWorlds.deleteQuietly(saveFile);
+        BenchmarkWorlds.deleteQuietly(loadFile);
+    }
+
+    /**
+     * Сохранение истории в json
+     */
+    @Benchmark
+    public void save() {
+        WorldStory.saveStory(world.getStoryWorld().getWorldStory(), saveFile.getPath(), world.getPath());
+    }
+
+    /**
+     * Загрузка истории из json
+     *
+     * @return история мира
+     */
+    @Benchmark
+    public WorldStory load() {
+        WorldStory worldStory = WorldStory.loadStory(loadFile.getPath());
+        worldStory.close();
+        return worldStory;
+    }
+}
@@ -0,0 +1,91 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import world.base.World;
+import world.world3D.states.RealTime3DWorldState;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры такта мира {@link world.base.StoryWorld#tick()} и снимка его состояния
+ * {@link world.world3D.RealTime3DWorld#getState()} при разном кол-ве существ и длине истории
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorldTickBenchmark {
+    /**
+     * кол-во существ
+     */
+    @Param({"1", "10", "100"})
+    public int creatureCnt;
+    /**
+     * длина истории перед замером
+     */
+    @Param({"1", "1000", "10000"})
+    public int historySize;
+
+    /**
+     * мир
+     */
+    private World world;
+
+    /**
+     * Загрузить мир и заполнить историю
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        world = BenchmarkWorlds.loadWorld(creatureCnt);
+        BenchmarkWorlds.fillStory(world, historySize);
+    }
+
+    /**
+     * Вернуть историю к длине перед замером, а мир - к последнему её состоянию,
+     * чтобы история не росла от итерации к итерации
+     */
+    @Setup(Level.Iteration)
+    public void trimStory() {
+        world.getStoryWorld().truncStory(historySize);
+    }
+
+    /**
+     * Закрыть мир
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    /**
+     * Такт мира: такт ресурсного поля, зрение и обработка существ, снимок состояния и запись в историю
+     */
+    @Benchmark
+    public void tick() {
+        world.getStoryWorld().tick();
+    }
+
+    /**
+     * Снимок текущего состояния мира
+     *
+     * @return состояние мира
+     */
+    @Benchmark
+    public RealTime3DWorldState getState() {
+        return world.getRealTime3DWorld().getState();
+    }
+}
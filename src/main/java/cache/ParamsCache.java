@@ -0,0 +1,221 @@
+package cache;
+
+import com.sun.istack.NotNull;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Потокобезопасный кэш параметров, загруженных из json-файлов, с ограниченным размером.
+ * Кэш хранит образцы параметров и при каждом обращении отдаёт их копию, поэтому вызывающие
+ * могут менять полученные параметры, не затрагивая друг друга. Запись считается устаревшей,
+ * если время изменения файла отличается от времени изменения при загрузке.
+ * Когда кол-во записей превышает ёмкость, удаляется запись, к которой дольше всего не обращались
+ *
+ * @param <T> тип параметров
+ */
+public class ParamsCache<T> {
+    /**
+     * ёмкость кэша по умолчанию
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Запись кэша
+     *
+     * @param <T> тип параметров
+     */
+    private static class Entry<T> {
+        /**
+         * образец параметров
+         */
+        @NotNull
+        private final T params;
+        /**
+         * время изменения файла при загрузке
+         */
+        private final long lastModified;
+
+        /**
+         * Конструктор записи кэша
+         *
+         * @param params       образец параметров
+         * @param lastModified время изменения файла при загрузке
+         */
+        private Entry(@NotNull T params, long lastModified) {
+            this.params = params;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * записи кэша по пути к файлу в порядке обращения
+     */
+    @NotNull
+    private final LinkedHashMap<String, Entry<T>> entries;
+    /**
+     * загрузка параметров из файла
+     */
+    @NotNull
+    private final Function<String, T> loader;
+    /**
+     * копирование параметров
+     */
+    @NotNull
+    private final UnaryOperator<T> copier;
+    /**
+     * кол-во попаданий
+     */
+    @NotNull
+    private final AtomicLong hitCnt;
+    /**
+     * кол-во промахов
+     */
+    @NotNull
+    private final AtomicLong missCnt;
+    /**
+     * кол-во вытесненных записей
+     */
+    @NotNull
+    private final AtomicLong evictionCnt;
+
+    /**
+     * Конструктор кэша параметров
+     *
+     * @param capacity ёмкость кэша
+     * @param loader   загрузка параметров из файла
+     * @param copier   копирование параметров
+     */
+    public ParamsCache(int capacity, @NotNull Function<String, T> loader, @NotNull UnaryOperator<T> copier) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("cache capacity must be positive: " + capacity);
+        this.loader = Objects.requireNonNull(loader);
+        this.copier = Objects.requireNonNull(copier);
+        this.hitCnt = new AtomicLong();
+        this.missCnt = new AtomicLong();
+        this.evictionCnt = new AtomicLong();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                if (size() <= capacity)
+                    return false;
+                evictionCnt.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Конструктор кэша параметров с ёмкостью по умолчанию
+     *
+     * @param loader загрузка параметров из файла
+     * @param copier копирование параметров
+     */
+    public ParamsCache(@NotNull Function<String, T> loader, @NotNull UnaryOperator<T> copier) {
+        this(DEFAULT_CAPACITY, loader, copier);
+    }
+
+    /**
+     * Получить копию параметров из файла: если файл ещё не загружался или изменился
+     * после загрузки, он загружается заново
+     *
+     * @param path путь к файлу параметров
+     * @return копия параметров
+     */
+    @NotNull
+    public T get(@NotNull String path) {
+        Objects.requireNonNull(path);
+        long lastModified = new File(path).lastModified();
+        Entry<T> entry;
+        synchronized (entries) {
+            entry = entries.get(path);
+        }
+        if (entry != null && entry.lastModified == lastModified) {
+            hitCnt.incrementAndGet();
+        } else {
+            missCnt.incrementAndGet();
+            // файл разбирается вне блокировки, чтобы загрузка одного файла не задерживала остальных
+            entry = new Entry<>(loader.apply(path), lastModified);
+            synchronized (entries) {
+                entries.put(path, entry);
+            }
+        }
+        return copier.apply(entry.params);
+    }
+
+    /**
+     * Удалить запись из кэша
+     *
+     * @param path путь к файлу параметров
+     */
+    public void invalidate(@NotNull String path) {
+        synchronized (entries) {
+            entries.remove(Objects.requireNonNull(path));
+        }
+    }
+
+    /**
+     * Очистить кэш
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Получить кол-во записей в кэше
+     *
+     * @return кол-во записей в кэше
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Получить кол-во попаданий
+     *
+     * @return кол-во попаданий
+     */
+    public long getHitCnt() {
+        return hitCnt.get();
+    }
+
+    /**
+     * Получить кол-во промахов
+     *
+     * @return кол-во промахов
+     */
+    public long getMissCnt() {
+        return missCnt.get();
+    }
+
+    /**
+     * Получить кол-во вытесненных записей
+     *
+     * @return кол-во вытесненных записей
+     */
+    public long getEvictionCnt() {
+        return evictionCnt.get();
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "ParamsCache{size, hitCnt, missCnt, evictionCnt}"
+     */
+    @Override
+    public String toString() {
+        return "ParamsCache{" + size() +
+                ", " + hitCnt +
+                ", " + missCnt +
+                ", " + evictionCnt + '}';
+    }
+}
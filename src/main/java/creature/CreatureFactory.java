@@ -1,5 +1,6 @@
 package creature;
 
+import cache.ParamsCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.istack.NotNull;
 import creature.base.Creature;
@@ -10,6 +11,7 @@ import creature.creature3D.Creature3D;
 import creature.creature3D.Creature3DParams;
 import creature.creature3D.Creature3DState;
 import graphics.Camera;
+import graphics.CameraStore;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import world.params.CreatureInWorldParams;
@@ -19,7 +21,6 @@ import java.io.IOException;
 import java.util.*;
 
 import static constants.Constants.RESOURCE_PATH;
-import static java.util.stream.Collectors.toList;
 
 /**
  * Фабрика существ
@@ -32,15 +33,17 @@ public class CreatureFactory {
             .getLogger(CreatureFactory.class);
 
     /**
-     * словарь загруженных параметров мира
+     * кэш загруженных параметров существ
      */
-    private static final Map<String, CreatureParams> pathDict = new HashMap<>();
+    private static final ParamsCache<CreatureParams> paramsCache = new ParamsCache<>(
+            CreatureFactory::readParams, CreatureFactory::clone
+    );
 
     /**
      * Очистить словарь путей
      */
     public static void clearPathDict() {
-        pathDict.clear();
+        paramsCache.clear();
     }
 
     /**
@@ -49,7 +52,17 @@ public class CreatureFactory {
      * @param path путь
      */
     public static void removeWorldControllerParams(String path) {
-        pathDict.remove(path);
+        paramsCache.invalidate(path);
+    }
+
+    /**
+     * Получить кэш загруженных параметров (для счётчиков попаданий и промахов)
+     *
+     * @return кэш загруженных параметров
+     */
+    @NotNull
+    public static ParamsCache<CreatureParams> getParamsCache() {
+        return paramsCache;
     }
 
     /**
@@ -59,15 +72,19 @@ public class CreatureFactory {
      * @return параметры существа
      */
     public static CreatureParams fromFile(@NotNull String path) {
-        CreatureParams creatureParams = pathDict.get(Objects.requireNonNull(path));
-        if (creatureParams != null)
-            return clone(creatureParams);
+        return paramsCache.get(Objects.requireNonNull(path));
+    }
 
+    /**
+     * Разобрать параметры из json-файла
+     *
+     * @param path путь к файлу
+     * @return параметры
+     */
+    private static CreatureParams readParams(@NotNull String path) {
         ObjectMapper objectMapper = new ObjectMapper();
         try {
-            CreatureParams loadedCreatureParams = objectMapper.readValue(new File(path), CreatureParams.class);
-            pathDict.put(path, loadedCreatureParams);
-            return loadedCreatureParams;
+            return objectMapper.readValue(new File(path), CreatureParams.class);
         } catch (IOException e) {
             throw new IllegalArgumentException("can not load creature params from " + path + ": " + e);
         }
@@ -220,15 +237,19 @@ public class CreatureFactory {
     }
 
     /**
-     * Получить состояния существ по существам
+     * Получить состояния существ по существам: камеры всех существ копируются
+     * в одно хранилище камер, на которое ссылаются состояния
      *
      * @param creatures список существ
      * @return список состояний существ
      */
     public static List<CreatureState> getCreatureStates(@NotNull List<Creature> creatures) {
-        return creatures.stream()
-                .map(Creature::getState)
-                .collect(toList());
+        CameraStore cameraStore = new CameraStore(creatures.size());
+        cameraStore.gather(creatures);
+        List<CreatureState> creatureStates = new ArrayList<>(creatures.size());
+        for (int i = 0; i < creatures.size(); i++)
+            creatureStates.add(creatures.get(i).getState(cameraStore, i));
+        return creatureStates;
     }
 
     /**
@@ -5,6 +5,7 @@ import com.sun.istack.NotNull;
 import creature.CreatureFactory;
 import creature.creature3D.Creature3D;
 import graphics.Camera;
+import graphics.CameraStore;
 import graphics.ObjModel3D;
 import world.params.CreatureInWorldParams;
 import java.util.Objects;
@@ -95,7 +96,7 @@ public class Creature {
      * @param creatureState состояние существа
      */
     public void setState(@NotNull CreatureState creatureState) {
-        this.camera = new Camera(creatureState.getCamera());
+        creatureState.getCamera(camera);
     }
 
     /**
@@ -108,6 +109,18 @@ public class Creature {
         return new CreatureState(this);
     }
 
+    /**
+     * Получить состояние существа, камера которого уже записана в хранилище камер снимка мира
+     *
+     * @param cameraStore хранилище камер снимка мира
+     * @param cameraIndex номер камеры существа в хранилище
+     * @return состояние существа
+     */
+    @NotNull
+    public CreatureState getState(@NotNull CameraStore cameraStore, int cameraIndex) {
+        return new CreatureState(cameraStore, cameraIndex, id);
+    }
+
 
 
     /**
@@ -0,0 +1,100 @@
+package creature.base;
+
+import com.sun.istack.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Индекс позиций в списке по id существа: плотный массив, в ячейке id которого хранится
+ * позиция первого элемента списка с этим id. Id существ - небольшие неотрицательные числа,
+ * поэтому поиск по индексу сводится к одному обращению к массиву.
+ * Отрицательные id в индекс не попадают, их нужно искать перебором
+ */
+public class CreatureIdIndex {
+    /**
+     * значение ячейки, для id которой в списке нет элемента
+     */
+    public static final int NO_SLOT = -1;
+
+    /**
+     * позиции элементов по id
+     */
+    @NotNull
+    private int[] slots;
+
+    /**
+     * Конструктор индекса позиций по id существа
+     */
+    public CreatureIdIndex() {
+        this.slots = new int[0];
+    }
+
+    /**
+     * Конструктор индекса позиций по id существа
+     *
+     * @param creatureIdIndex индекс позиций по id существа
+     */
+    public CreatureIdIndex(@NotNull CreatureIdIndex creatureIdIndex) {
+        this.slots = creatureIdIndex.slots.clone();
+    }
+
+    /**
+     * Получить позицию элемента с заданным id
+     *
+     * @param id id существа
+     * @return позиция элемента или NO_SLOT, если элемента с таким id в индексе нет
+     */
+    public int get(int id) {
+        return id >= 0 && id < slots.length ? slots[id] : NO_SLOT;
+    }
+
+    /**
+     * Запомнить позицию элемента, если для этого id позиция ещё не задана
+     *
+     * @param id   id существа
+     * @param slot позиция элемента
+     */
+    public void putIfAbsent(int id, int slot) {
+        if (id < 0)
+            return;
+        if (id >= slots.length) {
+            int oldLength = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(slots, oldLength, slots.length, NO_SLOT);
+        }
+        if (slots[id] == NO_SLOT)
+            slots[id] = slot;
+    }
+
+    /**
+     * Перестроить индекс по списку
+     *
+     * @param list список
+     * @param idOf получение id существа по элементу списка
+     * @param <T>  тип элементов списка
+     */
+    public <T> void rebuild(@NotNull List<T> list, @NotNull ToIntFunction<T> idOf) {
+        clear();
+        for (int i = 0; i < list.size(); i++)
+            putIfAbsent(idOf.applyAsInt(list.get(i)), i);
+    }
+
+    /**
+     * Очистить индекс, ёмкость при этом сохраняется
+     */
+    public void clear() {
+        Arrays.fill(slots, NO_SLOT);
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "CreatureIdIndex{capacity}"
+     */
+    @Override
+    public String toString() {
+        return "CreatureIdIndex{" + slots.length + '}';
+    }
+}
@@ -0,0 +1,127 @@
+package creature.base;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Список существ с индексом по id: поиск существа по id выполняется за O(1).
+ * Добавление в конец и замена существа с тем же id поддерживают индекс сразу,
+ * остальные изменения помечают индекс устаревшим, и он перестраивается при следующем поиске
+ */
+public class CreatureList extends AbstractList<Creature> {
+    /**
+     * существа
+     */
+    @NotNull
+    private final ArrayList<Creature> creatures;
+    /**
+     * индекс позиций существ по id
+     */
+    @NotNull
+    private final CreatureIdIndex idIndex;
+    /**
+     * флаг, что индекс нужно перестроить
+     */
+    private boolean indexDirty;
+
+    /**
+     * Конструктор списка существ
+     */
+    public CreatureList() {
+        this.creatures = new ArrayList<>();
+        this.idIndex = new CreatureIdIndex();
+        this.indexDirty = false;
+    }
+
+    /**
+     * Конструктор списка существ (сами существа не копируются)
+     *
+     * @param creatures существа
+     */
+    public CreatureList(@NotNull Collection<? extends Creature> creatures) {
+        this.creatures = new ArrayList<>(Objects.requireNonNull(creatures));
+        this.idIndex = new CreatureIdIndex();
+        this.indexDirty = true;
+    }
+
+    /**
+     * Получить существо по id
+     *
+     * @param id id существа
+     * @return существо или null, если существа с таким id в списке нет
+     */
+    @Nullable
+    public Creature getById(int id) {
+        if (id < 0) {
+            for (Creature creature : creatures)
+                if (creature.getId() == id)
+                    return creature;
+            return null;
+        }
+        if (indexDirty) {
+            idIndex.rebuild(creatures, Creature::getId);
+            indexDirty = false;
+        }
+        int slot = idIndex.get(id);
+        return slot == CreatureIdIndex.NO_SLOT ? null : creatures.get(slot);
+    }
+
+    @Override
+    public Creature get(int index) {
+        return creatures.get(index);
+    }
+
+    @Override
+    public int size() {
+        return creatures.size();
+    }
+
+    @Override
+    public Creature set(int index, @NotNull Creature element) {
+        Creature previous = creatures.set(index, Objects.requireNonNull(element));
+        if (previous.getId() != element.getId())
+            indexDirty = true;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, @NotNull Creature element) {
+        creatures.add(index, Objects.requireNonNull(element));
+        modCount++;
+        if (index == creatures.size() - 1 && !indexDirty)
+            idIndex.putIfAbsent(element.getId(), index);
+        else
+            indexDirty = true;
+    }
+
+    @Override
+    public Creature remove(int index) {
+        Creature removed = creatures.remove(index);
+        modCount++;
+        indexDirty = true;
+        return removed;
+    }
+
+    @Override
+    public boolean removeIf(@NotNull Predicate<? super Creature> filter) {
+        if (!creatures.removeIf(filter))
+            return false;
+        modCount++;
+        indexDirty = true;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        creatures.clear();
+        modCount++;
+        idIndex.clear();
+        indexDirty = false;
+    }
+}
@@ -1,13 +1,16 @@
 package creature.base;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.sun.istack.NotNull;
 import graphics.Camera;
-import java.util.Objects;
+import graphics.CameraStore;
 
 /**
- * Класс состояния существа
+ * Класс состояния существа. Состояние не изменяется после создания и может разделяться
+ * несколькими состояниями мира. Камера хранится не отдельным объектом, а номером в хранилище камер,
+ * общем для всех существ одного снимка мира (хранилище снимка после создания не изменяется)
  */
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@class")
 public class CreatureState {
@@ -21,10 +24,33 @@ public class CreatureState {
      */
     private int creatureID;
     /**
-     * состояние камеры существа
+     * хранилище камер снимка мира
      */
+    @JsonIgnore
     @NotNull
-    private Camera camera;
+    private CameraStore cameraStore;
+    /**
+     * номер камеры существа в хранилище камер
+     */
+    @JsonIgnore
+    private int cameraIndex;
+
+    /**
+     * Конструктор класса состояния существа (хранилище не копируется и не должно изменяться)
+     *
+     * @param cameraStore хранилище камер снимка мира
+     * @param cameraIndex номер камеры существа в хранилище
+     * @param creatureID  id существа
+     */
+    protected CreatureState(@NotNull CameraStore cameraStore, int cameraIndex, int creatureID) {
+        if (cameraIndex < 0 || cameraIndex >= cameraStore.size())
+            throw new IllegalArgumentException(
+                    "camera index " + cameraIndex + " is out of camera store " + cameraStore
+            );
+        this.creatureID = creatureID;
+        this.cameraStore = cameraStore;
+        this.cameraIndex = cameraIndex;
+    }
 
     /**
      * Конструктор класса состояния существа
@@ -34,7 +60,7 @@ public class CreatureState {
      */
     protected CreatureState(@NotNull Camera camera, int creatureID) {
         this.creatureID = creatureID;
-        this.camera = new Camera(camera);
+        setCamera(camera);
     }
 
     /**
@@ -52,7 +78,7 @@ public class CreatureState {
      * @param creatureState существо, состояние которого нужно получить
      */
     public CreatureState(@NotNull CreatureState creatureState) {
-        this(creatureState.camera, creatureState.creatureID);
+        this(creatureState.cameraStore, creatureState.cameraIndex, creatureState.creatureID);
         this.id = creatureState.id;
     }
 
@@ -86,13 +112,36 @@ public class CreatureState {
 
 
     /**
-     * Получить камеру
+     * Получить копию камеры
      *
      * @return камера
      */
     @NotNull
     public Camera getCamera() {
-        return camera;
+        return cameraStore.get(cameraIndex, new Camera());
+    }
+
+    /**
+     * Записать камеру в заданную камеру без создания новой
+     *
+     * @param target камера, в которую будут записаны значения
+     * @return камера, в которую записаны значения
+     */
+    @NotNull
+    public Camera getCamera(@NotNull Camera target) {
+        return cameraStore.get(cameraIndex, target);
+    }
+
+    /**
+     * Задать камеру: для неё создаётся отдельное хранилище из одной камеры
+     * (используется при чтении состояния из файла)
+     *
+     * @param camera камера
+     */
+    @JsonProperty("camera")
+    private void setCamera(@NotNull Camera camera) {
+        this.cameraStore = new CameraStore(1);
+        this.cameraIndex = cameraStore.add(camera);
     }
 
     /**
@@ -112,7 +161,7 @@ public class CreatureState {
      * @return строковое представление объекта
      */
     protected String getString() {
-        return camera + ", " +
+        return getCamera() + ", " +
                 creatureID + ", ";
     }
 
@@ -125,14 +174,14 @@ public class CreatureState {
 
         if (id != that.id) return false;
         if (creatureID != that.creatureID) return false;
-        return Objects.equals(camera, that.camera);
+        return cameraStore.cameraEquals(cameraIndex, that.cameraStore, that.cameraIndex);
     }
 
     @Override
     public int hashCode() {
         int result= id;
         result = 31 * result + creatureID;
-        result = 31 * result + (camera != null ? camera.hashCode() : 0);
+        result = 31 * result + cameraStore.cameraHashCode(cameraIndex);
         return result;
     }
 }
@@ -4,8 +4,10 @@ import com.sun.istack.NotNull;
 import creature.base.Creature;
 import creature.base.CreatureState;
 import graphics.Camera;
+import graphics.CameraStore;
 import graphics.ObjModel3D;
 import jMath.aoklyunin.github.com.vector.Vector2i;
+import offscreen.renderer.VisionSensor;
 
 import java.util.Arrays;
 import java.util.Objects;
@@ -14,13 +16,13 @@ import java.util.Objects;
 /**
  * Класс 3D существа
  */
-public class Creature3D extends Creature {
+public class Creature3D extends Creature implements VisionSensor {
 
     /**
-     * матрица значений сенсоров существа
+     * матрица значений сенсоров существа, значение (x, y) хранится в ячейке x * sensorGridSize.y + y
      */
     @NotNull
-    private final short[][] sensorGridValues;
+    private final short[] sensorGridValues;
 
     /**
      * Конструктор существа
@@ -40,7 +42,7 @@ public class Creature3D extends Creature {
                 id, Objects.requireNonNull(creatureModel)
         );
 
-        sensorGridValues = new short[creatureParams.getSensorGridSize().x][creatureParams.getSensorGridSize().y];
+        sensorGridValues = new short[creatureParams.getSensorGridSize().x * creatureParams.getSensorGridSize().y];
     }
 
     /**
@@ -50,26 +52,41 @@ public class Creature3D extends Creature {
      */
     public Creature3D(@NotNull Creature3D creature) {
         super(Objects.requireNonNull(creature));
-        sensorGridValues = new short[getCreatureParams().getCreature3DParams().getSensorGridSize().x]
-                [getCreatureParams().getCreature3DParams().getSensorGridSize().y];
+        sensorGridValues = new short[getCreatureParams().getCreature3DParams().getSensorGridSize().x *
+                getCreatureParams().getCreature3DParams().getSensorGridSize().y];
     }
 
     /**
-     * Задать зрение камеры
+     * Получить размер решётки зрения
      *
-     * @param cameraVision буферзрения
+     * @return размер решётки зрения
      */
-    public void setCameraVision(@NotNull short[][][] cameraVision) {
-        Vector2i visionGridSize = getCreatureParams().getCreature3DParams().getVisionGridSize();
-        for (int i = 0; i < visionGridSize.x; i++) {
-            for (int j = 0; j < visionGridSize.y; j++) {
-                sensorGridValues[i][j] = (short) Math.max(Math.max(
-                        cameraVision[i][j][0],
-                        cameraVision[i][j][1]),
-                        cameraVision[i][j][2]
-                );
-            }
-        }
+    @NotNull
+    @Override
+    public Vector2i getVisionGridSize() {
+        return getCreatureParams().getCreature3DParams().getVisionGridSize();
+    }
+
+    /**
+     * Получить матрицу значений сенсоров существа, в которую рисовальщик записывает зрение камеры
+     * (значение (x, y) хранится в ячейке x * getSensorGridStride() + y)
+     *
+     * @return матрица значений сенсоров существа
+     */
+    @NotNull
+    @Override
+    public short[] getSensorGridValues() {
+        return sensorGridValues;
+    }
+
+    /**
+     * Получить шаг матрицы значений сенсоров по оси X
+     *
+     * @return шаг матрицы значений сенсоров по оси X
+     */
+    @Override
+    public int getSensorGridStride() {
+        return getCreatureParams().getCreature3DParams().getSensorGridSize().y;
     }
 
     /**
@@ -82,6 +99,19 @@ public class Creature3D extends Creature {
         return new Creature3DState(this);
     }
 
+    /**
+     * Получить состояние существа, камера которого уже записана в хранилище камер снимка мира
+     *
+     * @param cameraStore хранилище камер снимка мира
+     * @param cameraIndex номер камеры существа в хранилище
+     * @return состояние существа
+     */
+    @NotNull
+    @Override
+    public CreatureState getState(@NotNull CameraStore cameraStore, int cameraIndex) {
+        return new Creature3DState(cameraStore, cameraIndex, getId());
+    }
+
     /**
      * Получить значение матрицы зрения
      *
@@ -90,7 +120,7 @@ public class Creature3D extends Creature {
      * @return значение матрицы зрения
      */
     public int getSensorGridValue(int x, int y) {
-        return sensorGridValues[x][y];
+        return sensorGridValues[x * getSensorGridStride() + y];
     }
 
     /**
@@ -124,13 +154,13 @@ public class Creature3D extends Creature {
 
         Creature3D that = (Creature3D) o;
 
-        return Arrays.deepEquals(sensorGridValues, that.sensorGridValues);
+        return Arrays.equals(sensorGridValues, that.sensorGridValues);
     }
 
     @Override
     public int hashCode() {
         int result = super.hashCode();
-        result = 31 * result + Arrays.deepHashCode(sensorGridValues);
+        result = 31 * result + Arrays.hashCode(sensorGridValues);
         return result;
     }
 }
@@ -3,6 +3,7 @@ package creature.creature3D;
 import com.sun.istack.NotNull;
 import creature.base.CreatureState;
 import graphics.Camera;
+import graphics.CameraStore;
 
 import java.util.Objects;
 
@@ -24,6 +25,17 @@ public class Creature3DState extends CreatureState {
         );
     }
 
+    /**
+     * Конструктор класса состояния 3D существа
+     *
+     * @param cameraStore хранилище камер снимка мира
+     * @param cameraIndex номер камеры существа в хранилище
+     * @param creatureID  id существа
+     */
+    public Creature3DState(@NotNull CameraStore cameraStore, int cameraIndex, int creatureID) {
+        super(Objects.requireNonNull(cameraStore), cameraIndex, creatureID);
+    }
+
     /**
      * Конструктор состояния трёхмерного существа
      *
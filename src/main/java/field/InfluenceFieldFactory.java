@@ -1,5 +1,6 @@
 package field;
 
+import cache.ParamsCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.istack.NotNull;
 import field.base.InfluenceField;
@@ -11,8 +12,6 @@ import jMath.aoklyunin.github.com.vector.Vector3d;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
 import static constants.Constants.RESOURCE_PATH;
@@ -22,15 +21,17 @@ import static constants.Constants.RESOURCE_PATH;
  */
 public class InfluenceFieldFactory {
     /**
-     * словарь загруженных параметров мира
+     * кэш загруженных параметров полей воздействия
      */
-    private static final Map<String, InfluenceFieldParams> pathDict = new HashMap<>();
+    private static final ParamsCache<InfluenceFieldParams> paramsCache = new ParamsCache<>(
+            InfluenceFieldFactory::readParams, InfluenceFieldFactory::clone
+    );
 
     /**
      * Очистить словарь путей
      */
     public static void clearPathDict() {
-        pathDict.clear();
+        paramsCache.clear();
     }
 
     /**
@@ -39,7 +40,17 @@ public class InfluenceFieldFactory {
      * @param path путь
      */
     public static void removeWorldControllerParams(String path) {
-        pathDict.remove(path);
+        paramsCache.invalidate(path);
+    }
+
+    /**
+     * Получить кэш загруженных параметров (для счётчиков попаданий и промахов)
+     *
+     * @return кэш загруженных параметров
+     */
+    @NotNull
+    public static ParamsCache<InfluenceFieldParams> getParamsCache() {
+        return paramsCache;
     }
 
     /**
@@ -49,15 +60,19 @@ public class InfluenceFieldFactory {
      * @return параметры поля воздействия
      */
     public static InfluenceFieldParams fromFile(@NotNull String path) {
-        InfluenceFieldParams influenceFieldParams = pathDict.get(Objects.requireNonNull(path));
-        if (influenceFieldParams != null)
-            return clone(influenceFieldParams);
+        return paramsCache.get(Objects.requireNonNull(path));
+    }
+
+    /**
+     * Разобрать параметры из json-файла
+     *
+     * @param path путь к файлу
+     * @return параметры
+     */
+    private static InfluenceFieldParams readParams(@NotNull String path) {
         try {
             ObjectMapper objectMapper = new ObjectMapper();
-            InfluenceFieldParams loadedInfluenceFieldParams =
-                    objectMapper.readValue(new File(path), InfluenceFieldParams.class);
-            pathDict.put(path, loadedInfluenceFieldParams);
-            return loadedInfluenceFieldParams;
+            return objectMapper.readValue(new File(path), InfluenceFieldParams.class);
         } catch (IOException e) {
             throw new IllegalArgumentException("can not load influence field params form " + path + "\n" + e);
         }
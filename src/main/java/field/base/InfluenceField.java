@@ -92,6 +92,12 @@ public abstract class InfluenceField {
      */
     public abstract void clear();
 
+    /**
+     * Отпустить ресурсы поля, вызывается при выгрузке мира (после этого поле нельзя использовать)
+     */
+    public void release() {
+    }
+
     /**
      * Рисовать лог поля
      *
@@ -162,7 +162,7 @@ public class Food3DField extends Objects3DField {
     @Override
     public void renderLog(GL2 gl2, @NotNull InfluenceFieldState influenceFieldState) {
         foodMovingRangeProgressBar.renderScroller(
-                gl2, (long) (influenceFieldState.getFood3DFieldState().getFoodMovingCS().getSize().y / foodMovingRangeStep.y)
+                gl2, (long) (influenceFieldState.getFood3DFieldState().getFoodMovingCS().getSizeY() / foodMovingRangeStep.y)
         );
         foodMovingSpeedProgressBar.renderScroller(
                 gl2, (long) (influenceFieldState.getFood3DFieldState().getFoodMovingSpeed() / foodMovingSpeedStep)
@@ -187,7 +187,7 @@ public class Food3DField extends Objects3DField {
      */
     @Override
     public void tick() {
-        Vector3d foodPos = getOffscreenRenderer().getObjectTransforms().get(0).getPosition();
+        Vector3d foodPos = getOffscreenRenderer().getObjectPosition(0, new Vector3d());
         if (left) {
             foodPos.y += foodMovingSpeed;
         } else {
@@ -201,7 +201,7 @@ public class Food3DField extends Objects3DField {
             foodPos.y = foodMovingCS.getMin().y;
             left = true;
         }
-        getOffscreenRenderer().getObjectTransforms().get(0).setPosition(foodPos);
+        getOffscreenRenderer().setObjectPosition(0, foodPos);
     }
 
 
@@ -216,7 +216,9 @@ public class Food3DField extends Objects3DField {
         left = influenceFieldState.getFood3DFieldState().isLeft();
         foodMovingSpeed = influenceFieldState.getFood3DFieldState().getFoodMovingSpeed();
         CoordinateSystem3DState state = influenceFieldState.getFood3DFieldState().getFoodMovingCS();
-        foodMovingCS = new CoordinateSystem3d(state.getMin(), state.getMax());
+        // при воспроизведении истории границы почти всегда те же, поэтому СК пересоздаётся только при их изменении
+        if (!state.isEqualTo(foodMovingCS))
+            foodMovingCS = new CoordinateSystem3d(state.getMin(), state.getMax());
     }
 
     /**
@@ -257,6 +259,26 @@ public class Food3DField extends Objects3DField {
         return foodMovingSpeed;
     }
 
+    /**
+     * Задать скорость движения еды
+     *
+     * @param foodMovingSpeed скорость движения еды
+     */
+    public void setFoodMovingSpeed(double foodMovingSpeed) {
+        foodMovingSpeedProgressBar.setCursorPos((long) (foodMovingSpeed / foodMovingSpeedStep));
+        this.foodMovingSpeed = foodMovingSpeed;
+    }
+
+    /**
+     * Задать размер СК перемещения еды
+     *
+     * @param foodMovingRange размер СК перемещения еды
+     */
+    public void setFoodMovingRange(@NotNull Vector3d foodMovingRange) {
+        foodMovingRangeProgressBar.setCursorPos((long) (foodMovingRange.y / foodMovingRangeStep.y));
+        foodMovingCS.setNewSize(Objects.requireNonNull(foodMovingRange));
+    }
+
 
     @Override
     public boolean equals(Object o) {
@@ -15,7 +15,9 @@ import jMath.aoklyunin.github.com.vector.Vector2i;
 import jMath.aoklyunin.github.com.vector.Vector3d;
 import offscreen.OffscreenRendererFactory;
 import offscreen.renderer.OffscreenRenderer;
+import offscreen.renderer.VisionSensor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -29,6 +31,12 @@ public abstract class Objects3DField extends InfluenceField {
     @NotNull
     @JsonIgnore
     private final OffscreenRenderer offscreenRenderer;
+    /**
+     * Список приёмников зрения, переиспользуемый при пакетном рассчёте зрения
+     */
+    @NotNull
+    @JsonIgnore
+    private final List<VisionSensor> visionSensors;
 
     /**
      * Конструктор базового класса всех полей  3D объектов
@@ -45,6 +53,7 @@ public abstract class Objects3DField extends InfluenceField {
                 Objects.requireNonNull(backGroundColor)
         );
         offscreenRenderer = OffscreenRendererFactory.of(object3DFieldParams.getOffscreenRendererParams());
+        visionSensors = new ArrayList<>();
     }
 
     /**
@@ -55,6 +64,7 @@ public abstract class Objects3DField extends InfluenceField {
     public Objects3DField(@NotNull Objects3DField influenceField) {
         super(Objects.requireNonNull(influenceField));
         offscreenRenderer = OffscreenRendererFactory.clone(influenceField.offscreenRenderer);
+        visionSensors = new ArrayList<>();
 
     }
 
@@ -81,7 +91,9 @@ public abstract class Objects3DField extends InfluenceField {
      */
     @Override
     public void setSensorValues(@NotNull List<Creature> creatures, CoordinateSystem3d worldCS) {
-        setSensorValues(Objects.requireNonNull(creatures), Objects.requireNonNull(worldCS), getState());
+        Objects.requireNonNull(worldCS);
+        // текущие трансформации объектов берутся прямо из рисовальщика, без снимка состояния поля
+        setSensorValues(Objects.requireNonNull(creatures), offscreenRenderer.getObjectTransforms());
     }
 
     /**
@@ -95,12 +107,35 @@ public abstract class Objects3DField extends InfluenceField {
             @NotNull List<Creature> creatures, @NotNull CoordinateSystem3d worldCS,
             @NotNull InfluenceFieldState influenceFieldState
     ) {
+        setSensorValues(
+                Objects.requireNonNull(creatures), influenceFieldState.getObjects3DFieldState().getObjectTransforms()
+        );
+    }
+
+    /**
+     * Задать значения сенсоров существ
+     *
+     * @param creatures        список существ
+     * @param objectTransforms список трансформаций объектов
+     */
+    private void setSensorValues(@NotNull List<Creature> creatures, @NotNull List<Transform3d> objectTransforms) {
+        // при пакетном режиме зрение всех существ рисуется в один атлас и читается за одно обращение,
+        // асинхронное чтение тоже работает только с атласом
+        if (offscreenRenderer.getOffscreenRendererParams().isBatchVision() ||
+                offscreenRenderer.getOffscreenRendererParams().getReadbackLatency() > 0) {
+            visionSensors.clear();
+            for (Creature creature : creatures)
+                visionSensors.add((Creature3D) creature);
+            offscreenRenderer.calculateVisions(visionSensors, objectTransforms);
+            return;
+        }
         for (Creature creature : creatures) {
-            short[][][] cameraVision = offscreenRenderer.calculateVisionBuffer(
+            Creature3D creature3D = (Creature3D) creature;
+            offscreenRenderer.calculateVision(
                     creature.getCreatureParams().getCreature3DParams().getVisionGridSize(),
-                    creature.getCamera(), influenceFieldState.getObjects3DFieldState().getObjectTransforms()
+                    creature.getCamera(), objectTransforms,
+                    creature3D.getSensorGridValues(), creature3D.getSensorGridStride()
             );
-            ((Creature3D) creature).setCameraVision(cameraVision);
         }
     }
 
@@ -122,11 +157,15 @@ public abstract class Objects3DField extends InfluenceField {
      */
     @Override
     public void setState(@NotNull InfluenceFieldState influenceFieldState) {
-        for (int i = 0; i < offscreenRenderer.getObjectCnt(); i++) {
-            offscreenRenderer.getObjectTransforms().set(
-                    i, new Transform3d(influenceFieldState.getObjects3DFieldState().getObjectTransforms().get(i))
-            );
-        }
+        influenceFieldState.getObjects3DFieldState().writeObjectTransforms(offscreenRenderer);
+    }
+
+    /**
+     * Отпустить модели объектов поля, вызывается при выгрузке мира
+     */
+    @Override
+    public void release() {
+        offscreenRenderer.release();
     }
 
     /**
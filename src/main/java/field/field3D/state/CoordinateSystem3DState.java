@@ -125,6 +125,20 @@ public class CoordinateSystem3DState {
         return new Vector3d(minX, minY, minZ);
     }
 
+    /**
+     * Записать минимальную координату в заданный вектор
+     *
+     * @param target вектор, в который будет записана минимальная координата
+     * @return вектор, в который записана минимальная координата
+     */
+    @NotNull
+    public Vector3d getMin(@NotNull Vector3d target) {
+        target.x = minX;
+        target.y = minY;
+        target.z = minZ;
+        return target;
+    }
+
     /**
      * Задать минимум
      *
@@ -157,6 +171,44 @@ public class CoordinateSystem3DState {
         return new Vector3d(maxX, maxY, maxZ);
     }
 
+    /**
+     * Записать максимальную координату в заданный вектор
+     *
+     * @param target вектор, в который будет записана максимальная координата
+     * @return вектор, в который записана максимальная координата
+     */
+    @NotNull
+    public Vector3d getMax(@NotNull Vector3d target) {
+        target.x = maxX;
+        target.y = maxY;
+        target.z = maxZ;
+        return target;
+    }
+
+    /**
+     * Получить размер СК по оси Y
+     *
+     * @return размер СК по оси Y
+     */
+    @JsonIgnore
+    public double getSizeY() {
+        return maxY - minY;
+    }
+
+    /**
+     * Проверить, совпадают ли границы состояния с границами системы координат
+     *
+     * @param coordinateSystem3d 3D система координат
+     * @return совпадают ли границы
+     */
+    public boolean isEqualTo(@NotNull CoordinateSystem3d coordinateSystem3d) {
+        Vector3d min = coordinateSystem3d.getMin();
+        Vector3d max = coordinateSystem3d.getMax();
+        return Double.compare(min.x, minX) == 0 && Double.compare(min.y, minY) == 0 &&
+                Double.compare(min.z, minZ) == 0 && Double.compare(max.x, maxX) == 0 &&
+                Double.compare(max.y, maxY) == 0 && Double.compare(max.z, maxZ) == 0;
+    }
+
     /**
      * Получить размер СК
      *
@@ -4,7 +4,6 @@ import com.sun.istack.NotNull;
 import field.field3D.Food3DField;
 import jMath.aoklyunin.github.com.Transform3d;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -25,11 +24,6 @@ public class Food3DFieldState extends Objects3DFieldState {
      * Скорость движения еды
      */
     private double foodMovingSpeed;
-    /**
-     * Список трансформаций объекта
-     */
-    @NotNull
-    private List<Transform3d> objectTransforms;
 
     /**
      * Конструктор класса трёъмерного поля объектов
@@ -59,7 +53,6 @@ public class Food3DFieldState extends Objects3DFieldState {
         this.left = food3DFieldState.left;
         this.foodMovingCS = new CoordinateSystem3DState(food3DFieldState.foodMovingCS);
         this.foodMovingSpeed = food3DFieldState.foodMovingSpeed;
-        this.objectTransforms = new ArrayList<>(food3DFieldState.objectTransforms);
     }
 
     /**
@@ -81,6 +74,21 @@ public class Food3DFieldState extends Objects3DFieldState {
 
     }
 
+    /**
+     * Получить копию состояния без трансформаций объектов
+     *
+     * @return копия состояния без объектов
+     */
+    @NotNull
+    @Override
+    public Food3DFieldState copyWithoutObjectTransforms() {
+        Food3DFieldState food3DFieldState = new Food3DFieldState();
+        food3DFieldState.left = left;
+        food3DFieldState.foodMovingCS = new CoordinateSystem3DState(foodMovingCS);
+        food3DFieldState.foodMovingSpeed = foodMovingSpeed;
+        return food3DFieldState;
+    }
+
     /**
      * Получить  флаг, происходит ли движение влево
      *
@@ -127,40 +135,15 @@ public class Food3DFieldState extends Objects3DFieldState {
         this.foodMovingSpeed = foodMovingSpeed;
     }
 
-    /**
-     * Получить трансформации объектов
-     *
-     * @return трансформации объектов
-     */
-    @NotNull
-    @Override
-    public List<Transform3d> getObjectTransforms() {
-        return objectTransforms;
-    }
-
-    /**
-     * Задать трансформации объектов
-     *
-     * @param objectTransforms трансформации объектов
-     */
-    @Override
-    public void setObjectTransforms(@NotNull List<Transform3d> objectTransforms) {
-        this.objectTransforms = new ArrayList<>();
-        for (Transform3d transform3d : objectTransforms) {
-            Transform3d newTransform3d = new Transform3d(transform3d);
-            this.objectTransforms.add(newTransform3d);
-        }
-    }
-
     /**
      * Строковое представление объекта вида:
-     * "getObjectTransforms().get(0).getPosition(), super.getString()"
+     * "getPositionY(0), super.getString()"
      *
      * @return строковое представление объекта
      */
 
     protected String getString() {
-        return getObjectTransforms().get(0).getPosition() + ", " + super.getString();
+        return (getObjectCnt() > 0 ? getPositionY(0) + "" : "") + ", " + super.getString();
     }
 
     /**
@@ -183,8 +166,7 @@ public class Food3DFieldState extends Objects3DFieldState {
 
         if (left != that.left) return false;
         if (Double.compare(that.foodMovingSpeed, foodMovingSpeed) != 0) return false;
-        if (!Objects.equals(foodMovingCS, that.foodMovingCS)) return false;
-        return objectTransforms.containsAll(that.objectTransforms);
+        return Objects.equals(foodMovingCS, that.foodMovingCS);
     }
 
     @Override
@@ -195,7 +177,6 @@ public class Food3DFieldState extends Objects3DFieldState {
         result = 31 * result + (foodMovingCS != null ? foodMovingCS.hashCode() : 0);
         temp = Double.doubleToLongBits(foodMovingSpeed);
         result = 31 * result + (int) (temp ^ (temp >>> 32));
-        result = 31 * result + (objectTransforms != null ? objectTransforms.hashCode() : 0);
         return result;
     }
 }
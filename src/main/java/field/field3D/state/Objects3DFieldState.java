@@ -1,17 +1,54 @@
 package field.field3D.state;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
 import field.base.InfluenceFieldState;
 import field.field3D.base.Objects3DField;
 import jMath.aoklyunin.github.com.Transform3d;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+import offscreen.renderer.OffscreenRenderer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 /**
- * Класс состояния поля объектов 3D
+ * Класс состояния поля объектов 3D. Трансформации объектов хранятся в виде плоских массивов:
+ * положения, повороты и масштабы всех объектов лежат подряд, i-му объекту соответствуют
+ * элементы с 3i по 3i+2, поэтому копирование состояния сводится к копированию трёх массивов.
+ * Состояние, добавленное в состояние мира, может разделяться несколькими кадрами истории,
+ * поэтому изменять можно только его копию
  */
 public abstract class Objects3DFieldState extends InfluenceFieldState {
+    /**
+     * пустой массив координат
+     */
+    private static final double[] EMPTY = new double[0];
+
+    /**
+     * координаты положений объектов
+     */
+    @NotNull
+    private double[] positions = EMPTY;
+    /**
+     * углы поворота объектов
+     */
+    @NotNull
+    private double[] rotations = EMPTY;
+    /**
+     * масштабы объектов
+     */
+    @NotNull
+    private double[] scales = EMPTY;
+    /**
+     * трансформации объектов, построенные по массивам при первом обращении
+     * (null, если ещё не строились или состояние изменилось)
+     */
+    @Nullable
+    private volatile List<Transform3d> objectTransformsView;
 
     /**
      * Конструктор класса трёъмерного поля объектов
@@ -28,7 +65,7 @@ public abstract class Objects3DFieldState extends InfluenceFieldState {
      * @param objects3DFieldState сосотояние градиентного поля воздействия
      */
     Objects3DFieldState(@NotNull Objects3DFieldState objects3DFieldState) {
-        setObjectTransforms(objects3DFieldState.getObjectTransforms());
+        copyObjectTransforms(objects3DFieldState);
     }
 
     /**
@@ -37,7 +74,13 @@ public abstract class Objects3DFieldState extends InfluenceFieldState {
      * @param objects3DField градиентное поле воздействия
      */
     Objects3DFieldState(@NotNull Objects3DField objects3DField) {
-        setObjectTransforms(objects3DField.getOffscreenRenderer().getObjectTransforms());
+        OffscreenRenderer offscreenRenderer = objects3DField.getOffscreenRenderer();
+        int length = offscreenRenderer.getObjectCnt() * 3;
+        positions = new double[length];
+        rotations = new double[length];
+        scales = new double[length];
+        // рисовальщик хранит трансформации в таких же массивах, поэтому снимок - их копирование
+        offscreenRenderer.copyObjectTransforms(positions, rotations, scales);
     }
 
     /**
@@ -48,19 +91,225 @@ public abstract class Objects3DFieldState extends InfluenceFieldState {
     }
 
     /**
-     * Получить трансформации объектов
+     * Получить трансформации объектов: список строится по массивам при первом обращении
+     * и не может быть изменён
      *
      * @return трансформации объектов
      */
     @NotNull
-    public abstract List<Transform3d> getObjectTransforms();
+    public List<Transform3d> getObjectTransforms() {
+        List<Transform3d> view = objectTransformsView;
+        if (view == null) {
+            List<Transform3d> transforms = new ArrayList<>(getObjectCnt());
+            for (int offset = 0; offset < positions.length; offset += 3)
+                transforms.add(new Transform3d(
+                        positions[offset], positions[offset + 1], positions[offset + 2],
+                        rotations[offset], rotations[offset + 1], rotations[offset + 2],
+                        scales[offset], scales[offset + 1], scales[offset + 2]
+                ));
+            view = Collections.unmodifiableList(transforms);
+            objectTransformsView = view;
+        }
+        return view;
+    }
 
     /**
      * Задать трансформации объектов
      *
      * @param objectTransforms трансформации объектов
      */
-    public abstract void setObjectTransforms(@NotNull List<Transform3d> objectTransforms);
+    public void setObjectTransforms(@NotNull List<Transform3d> objectTransforms) {
+        int length = objectTransforms.size() * 3;
+        if (positions.length != length) {
+            positions = new double[length];
+            rotations = new double[length];
+            scales = new double[length];
+        }
+        for (int i = 0; i < objectTransforms.size(); i++) {
+            Transform3d transform3d = objectTransforms.get(i);
+            write(positions, i, transform3d.getPosition());
+            write(rotations, i, transform3d.getRotation());
+            write(scales, i, transform3d.getScale());
+        }
+        objectTransformsView = null;
+    }
+
+    /**
+     * Скопировать трансформации объектов из другого состояния
+     *
+     * @param objects3DFieldState состояние поля объектов
+     */
+    public void copyObjectTransforms(@NotNull Objects3DFieldState objects3DFieldState) {
+        Objects.requireNonNull(objects3DFieldState);
+        positions = objects3DFieldState.positions.clone();
+        rotations = objects3DFieldState.rotations.clone();
+        scales = objects3DFieldState.scales.clone();
+        // построенный список не изменяется, поэтому его можно разделять между копиями
+        objectTransformsView = objects3DFieldState.objectTransformsView;
+    }
+
+    /**
+     * Записать трансформации объектов в рисовальщик поля
+     *
+     * @param offscreenRenderer фоновый рисовальщик поля
+     */
+    public void writeObjectTransforms(@NotNull OffscreenRenderer offscreenRenderer) {
+        offscreenRenderer.setObjectTransforms(positions, rotations, scales);
+    }
+
+    /**
+     * Задать трансформации объектов плоскими массивами (массивы не копируются)
+     *
+     * @param positions координаты положений объектов
+     * @param rotations углы поворота объектов
+     * @param scales    масштабы объектов
+     */
+    void setObjectTransforms(@NotNull double[] positions, @NotNull double[] rotations, @NotNull double[] scales) {
+        if (positions.length % 3 != 0 || rotations.length != positions.length || scales.length != positions.length)
+            throw new IllegalArgumentException("object transform arrays must have equal length divisible by 3");
+        this.positions = positions;
+        this.rotations = rotations;
+        this.scales = scales;
+        objectTransformsView = null;
+    }
+
+    /**
+     * Получить копию состояния без трансформаций объектов: остальные параметры поля копируются
+     *
+     * @return копия состояния без объектов
+     */
+    @NotNull
+    public abstract Objects3DFieldState copyWithoutObjectTransforms();
+
+    /**
+     * Получить координаты положений объектов (массив не копируется)
+     *
+     * @return координаты положений объектов
+     */
+    @NotNull
+    double[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * Получить углы поворота объектов (массив не копируется)
+     *
+     * @return углы поворота объектов
+     */
+    @NotNull
+    double[] getRotations() {
+        return rotations;
+    }
+
+    /**
+     * Получить масштабы объектов (массив не копируется)
+     *
+     * @return масштабы объектов
+     */
+    @NotNull
+    double[] getScales() {
+        return scales;
+    }
+
+    /**
+     * Записать вектор в плоский массив
+     *
+     * @param target массив
+     * @param i      номер объекта
+     * @param vector вектор
+     */
+    private static void write(@NotNull double[] target, int i, @NotNull Vector3d vector) {
+        target[i * 3] = vector.x;
+        target[i * 3 + 1] = vector.y;
+        target[i * 3 + 2] = vector.z;
+    }
+
+    /**
+     * Прочитать вектор из плоского массива
+     *
+     * @param source массив
+     * @param i      номер объекта
+     * @param target вектор, в который будут записаны значения
+     * @return вектор, в который записаны значения
+     */
+    @NotNull
+    private static Vector3d read(@NotNull double[] source, int i, @NotNull Vector3d target) {
+        target.x = source[i * 3];
+        target.y = source[i * 3 + 1];
+        target.z = source[i * 3 + 2];
+        return target;
+    }
+
+    /**
+     * Получить кол-во объектов
+     *
+     * @return кол-во объектов
+     */
+    @JsonIgnore
+    public int getObjectCnt() {
+        return positions.length / 3;
+    }
+
+    /**
+     * Записать положение объекта в заданный вектор
+     *
+     * @param i      номер объекта
+     * @param target вектор, в который будет записано положение
+     * @return вектор, в который записано положение
+     */
+    @NotNull
+    public Vector3d getPosition(int i, @NotNull Vector3d target) {
+        return read(positions, i, target);
+    }
+
+    /**
+     * Записать углы поворота объекта в заданный вектор
+     *
+     * @param i      номер объекта
+     * @param target вектор, в который будут записаны углы поворота
+     * @return вектор, в который записаны углы поворота
+     */
+    @NotNull
+    public Vector3d getRotation(int i, @NotNull Vector3d target) {
+        return read(rotations, i, target);
+    }
+
+    /**
+     * Записать масштаб объекта в заданный вектор
+     *
+     * @param i      номер объекта
+     * @param target вектор, в который будет записан масштаб
+     * @return вектор, в который записан масштаб
+     */
+    @NotNull
+    public Vector3d getScale(int i, @NotNull Vector3d target) {
+        return read(scales, i, target);
+    }
+
+    /**
+     * Получить Y координату положения объекта
+     *
+     * @param i номер объекта
+     * @return Y координата положения объекта
+     */
+    public double getPositionY(int i) {
+        return positions[i * 3 + 1];
+    }
+
+    /**
+     * Задать положение объекта
+     *
+     * @param i номер объекта
+     * @param x X координата положения
+     * @param y Y координата положения
+     * @param z Z координата положения
+     */
+    public void setPosition(int i, double x, double y, double z) {
+        positions[i * 3] = x;
+        positions[i * 3 + 1] = y;
+        positions[i * 3 + 2] = z;
+        objectTransformsView = null;
+    }
 
     /**
      * Строковое представление объекта вида:
@@ -83,13 +332,9 @@ public abstract class Objects3DFieldState extends InfluenceFieldState {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Objects3DFieldState that = (Objects3DFieldState) o;
-        if (getObjectTransforms().size() != that.getObjectTransforms().size())
-            return false;
-        for (int i = 0; i < getObjectTransforms().size(); i++) {
-            if (!getObjectTransforms().get(i).equals(that.getObjectTransforms().get(i)))
-                return false;
-        }
-        return true;
+        if (!Arrays.equals(positions, that.positions)) return false;
+        if (!Arrays.equals(rotations, that.rotations)) return false;
+        return Arrays.equals(scales, that.scales);
     }
 
     /**
@@ -99,6 +344,9 @@ public abstract class Objects3DFieldState extends InfluenceFieldState {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getObjectTransforms());
+        int result = Arrays.hashCode(positions);
+        result = 31 * result + Arrays.hashCode(rotations);
+        result = 31 * result + Arrays.hashCode(scales);
+        return result;
     }
 }
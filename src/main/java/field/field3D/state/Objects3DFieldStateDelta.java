@@ -0,0 +1,170 @@
+package field.field3D.state;
+
+import com.sun.istack.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Изменения состояния поля объектов 3D относительно опорного состояния с тем же кол-вом объектов.
+ * Из плоских массивов трансформаций хранятся только изменившиеся элементы (номер и новое значение),
+ * остальные параметры поля - в копии состояния без трансформаций объектов. Если между кадрами
+ * сдвинулась только Y координата одного объекта, хранится один номер и одно значение
+ */
+public class Objects3DFieldStateDelta {
+    /**
+     * состояние поля без трансформаций объектов
+     */
+    @NotNull
+    private final Objects3DFieldState fieldState;
+    /**
+     * номера изменившихся элементов массива положений
+     */
+    @NotNull
+    private final int[] positionIndices;
+    /**
+     * новые значения изменившихся элементов массива положений
+     */
+    @NotNull
+    private final double[] positionValues;
+    /**
+     * номера изменившихся элементов массива поворотов
+     */
+    @NotNull
+    private final int[] rotationIndices;
+    /**
+     * новые значения изменившихся элементов массива поворотов
+     */
+    @NotNull
+    private final double[] rotationValues;
+    /**
+     * номера изменившихся элементов массива масштабов
+     */
+    @NotNull
+    private final int[] scaleIndices;
+    /**
+     * новые значения изменившихся элементов массива масштабов
+     */
+    @NotNull
+    private final double[] scaleValues;
+
+    /**
+     * Конструктор изменений состояния поля объектов 3D относительно опорного состояния
+     *
+     * @param keyframe   опорное состояние
+     * @param fieldState состояние поля
+     */
+    public Objects3DFieldStateDelta(@NotNull Objects3DFieldState keyframe, @NotNull Objects3DFieldState fieldState) {
+        if (!canDiff(keyframe, fieldState))
+            throw new IllegalArgumentException(
+                    "can not diff field state " + fieldState + " against keyframe " + keyframe
+            );
+        this.fieldState = fieldState.copyWithoutObjectTransforms();
+        this.positionIndices = getChangedIndices(keyframe.getPositions(), fieldState.getPositions());
+        this.positionValues = getValues(fieldState.getPositions(), positionIndices);
+        this.rotationIndices = getChangedIndices(keyframe.getRotations(), fieldState.getRotations());
+        this.rotationValues = getValues(fieldState.getRotations(), rotationIndices);
+        this.scaleIndices = getChangedIndices(keyframe.getScales(), fieldState.getScales());
+        this.scaleValues = getValues(fieldState.getScales(), scaleIndices);
+    }
+
+    /**
+     * Проверка, можно ли хранить состояние поля изменениями относительно опорного состояния
+     *
+     * @param keyframe   опорное состояние
+     * @param fieldState состояние поля
+     * @return можно ли хранить состояние изменениями
+     */
+    public static boolean canDiff(@NotNull Objects3DFieldState keyframe, @NotNull Objects3DFieldState fieldState) {
+        return Objects.requireNonNull(keyframe).getClass() == Objects.requireNonNull(fieldState).getClass() &&
+                keyframe.getObjectCnt() == fieldState.getObjectCnt();
+    }
+
+    /**
+     * Восстановить состояние поля по опорному состоянию
+     *
+     * @param keyframe опорное состояние, относительно которого построены изменения
+     * @return новое состояние поля
+     */
+    @NotNull
+    public Objects3DFieldState apply(@NotNull Objects3DFieldState keyframe) {
+        Objects3DFieldState result = fieldState.copyWithoutObjectTransforms();
+        result.setObjectTransforms(
+                apply(keyframe.getPositions(), positionIndices, positionValues),
+                apply(keyframe.getRotations(), rotationIndices, rotationValues),
+                apply(keyframe.getScales(), scaleIndices, scaleValues)
+        );
+        return result;
+    }
+
+    /**
+     * Получить номера элементов, отличающихся от опорных
+     *
+     * @param keyframe опорный массив
+     * @param values   массив той же длины
+     * @return номера отличающихся элементов
+     */
+    @NotNull
+    private static int[] getChangedIndices(@NotNull double[] keyframe, @NotNull double[] values) {
+        int changedCnt = 0;
+        for (int i = 0; i < values.length; i++)
+            if (Double.doubleToLongBits(keyframe[i]) != Double.doubleToLongBits(values[i]))
+                changedCnt++;
+        int[] indices = new int[changedCnt];
+        int pos = 0;
+        for (int i = 0; i < values.length; i++)
+            if (Double.doubleToLongBits(keyframe[i]) != Double.doubleToLongBits(values[i]))
+                indices[pos++] = i;
+        return indices;
+    }
+
+    /**
+     * Получить значения элементов массива с заданными номерами
+     *
+     * @param values  массив
+     * @param indices номера элементов
+     * @return значения элементов
+     */
+    @NotNull
+    private static double[] getValues(@NotNull double[] values, @NotNull int[] indices) {
+        double[] result = new double[indices.length];
+        for (int i = 0; i < indices.length; i++)
+            result[i] = values[indices[i]];
+        return result;
+    }
+
+    /**
+     * Получить копию опорного массива с записанными изменениями
+     *
+     * @param keyframe опорный массив
+     * @param indices  номера изменившихся элементов
+     * @param values   новые значения изменившихся элементов
+     * @return новый массив
+     */
+    @NotNull
+    private static double[] apply(@NotNull double[] keyframe, @NotNull int[] indices, @NotNull double[] values) {
+        double[] result = keyframe.clone();
+        for (int i = 0; i < indices.length; i++)
+            result[indices[i]] = values[i];
+        return result;
+    }
+
+    /**
+     * Получить кол-во изменившихся элементов массивов трансформаций
+     *
+     * @return кол-во изменившихся элементов
+     */
+    public int getChangedCnt() {
+        return positionIndices.length + rotationIndices.length + scaleIndices.length;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "Objects3DFieldStateDelta{fieldState, changedCnt}"
+     */
+    @Override
+    public String toString() {
+        return "Objects3DFieldStateDelta{" + fieldState +
+                ", " + getChangedCnt() + '}';
+    }
+}
@@ -3,7 +3,6 @@ package graphics;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.jogamp.opengl.glu.GLU;
 import com.sun.istack.NotNull;
-import jMath.aoklyunin.github.com.linearAlgebra.LinearAlgebra;
 import jMath.aoklyunin.github.com.vector.Vector2d;
 import jMath.aoklyunin.github.com.vector.Vector3d;
 import org.joml.Matrix4d;
@@ -70,10 +69,63 @@ public class Camera {
     @JsonIgnore
     private double upZ;
 
-    float fov_y = 90f;
-    Vector2f vp = new Vector2f(640, 480);
-    float near = 0.01f;
-    float far = 100.0f;
+    /**
+     * угол обзора по вертикали в градусах
+     */
+    @JsonIgnore
+    private float fov_y = 90f;
+    /**
+     * размер области рисования
+     */
+    @JsonIgnore
+    private final Vector2f vp = new Vector2f(640, 480);
+    /**
+     * ближняя плоскость отсечения
+     */
+    @JsonIgnore
+    private float near = 0.01f;
+    /**
+     * дальняя плоскость отсечения
+     */
+    @JsonIgnore
+    private float far = 100.0f;
+    /**
+     * номер версии видовой матрицы, увеличивается при каждом изменении положения,
+     * направления или вектора "вверх"
+     */
+    @JsonIgnore
+    private long viewVersion;
+    /**
+     * номер версии матрицы проекции, увеличивается при каждом изменении угла обзора,
+     * области рисования или плоскостей отсечения
+     */
+    @JsonIgnore
+    private long projectionVersion;
+    /**
+     * версия видовой матрицы, по которой рассчитан буфер (-1, если буфер не рассчитывался)
+     */
+    @JsonIgnore
+    private long cachedViewVersion = -1;
+    /**
+     * версия матрицы проекции, по которой рассчитан буфер (-1, если буфер не рассчитывался)
+     */
+    @JsonIgnore
+    private long cachedProjectionVersion = -1;
+    /**
+     * буфер видовой матрицы, создаётся при первом обращении
+     */
+    @JsonIgnore
+    private FloatBuffer viewBuffer;
+    /**
+     * буфер матрицы проекции, создаётся при первом обращении
+     */
+    @JsonIgnore
+    private FloatBuffer projectionBuffer;
+    /**
+     * матрица для расчёта буферов, создаётся при первом обращении
+     */
+    @JsonIgnore
+    private Matrix4f matrix;
 
     /**
      * Конструктор камеры
@@ -139,55 +191,200 @@ public class Camera {
 
     }
 
+    /**
+     * Получить буфер матрицы проекции. Буфер общий для всех вызовов и пересчитывается,
+     * только если после прошлого вызова изменились угол обзора, область рисования
+     * или плоскости отсечения
+     *
+     * @return буфер матрицы проекции
+     */
+    @NotNull
+    @JsonIgnore
     public FloatBuffer getPerspectiveBuffer() {
-        FloatBuffer fb = BufferUtils.createFloatBuffer(16);
-        return getPerspectiveMatrix().get(fb);
+        if (projectionBuffer == null)
+            projectionBuffer = BufferUtils.createFloatBuffer(16);
+        if (cachedProjectionVersion != projectionVersion) {
+            setPerspectiveMatrix(getMatrix()).get(projectionBuffer);
+            cachedProjectionVersion = projectionVersion;
+        }
+        return projectionBuffer;
     }
 
+    /**
+     * Получить матрицу проекции
+     *
+     * @return матрица проекции
+     */
+    @NotNull
+    @JsonIgnore
     public Matrix4f getPerspectiveMatrix() {
-        return new Matrix4f().perspective(
+        return setPerspectiveMatrix(new Matrix4f());
+    }
+
+    /**
+     * Записать матрицу проекции в заданную матрицу
+     *
+     * @param target матрица, в которую будет записана матрица проекции
+     * @return матрица, в которую записана матрица проекции
+     */
+    @NotNull
+    private Matrix4f setPerspectiveMatrix(@NotNull Matrix4f target) {
+        return target.setPerspective(
                 (float) Math.toRadians(fov_y), vp.x / vp.y, near, far
         ).m33(1);
-//        float fn = far + near;
-//        float f_n = far - near;
-//        float r = vp.x / vp.y;
-//        float t = 1.0f / (float)Math.tan(Math.toRadians(fov_y) / 2.0f);
-//
-//        return new Matrix4f(
-//                t / r, 0.0f, 0.0f, 0.0f,
-//                0.0f, t, 0.0f, 0.0f,
-//                0.0f, 0.0f, -fn / f_n, -1.0f,
-//                0.0f, 0.0f, -2.0f * far * near / f_n, 1.0f
-//        );
     }
 
+    /**
+     * Получить буфер видовой матрицы. Буфер общий для всех вызовов и пересчитывается,
+     * только если после прошлого вызова изменились положение, направление или вектор "вверх"
+     *
+     * @return буфер видовой матрицы
+     */
+    @NotNull
+    @JsonIgnore
     public FloatBuffer getLookAtBuffer() {
-      //  System.out.println(getLookAtMatrix());
-        FloatBuffer fb = BufferUtils.createFloatBuffer(16);
-        return getLookAtMatrix().get(fb);
+        if (viewBuffer == null)
+            viewBuffer = BufferUtils.createFloatBuffer(16);
+        if (cachedViewVersion != viewVersion) {
+            setLookAtMatrix(getMatrix()).get(viewBuffer);
+            cachedViewVersion = viewVersion;
+        }
+        return viewBuffer;
     }
 
+    /**
+     * Получить видовую матрицу
+     *
+     * @return видовая матрица
+     */
+    @NotNull
+    @JsonIgnore
     public Matrix4f getLookAtMatrix() {
-       // System.out.println("________________________");
-        //System.out.println(
-//       return new Matrix4f().setLookAt(
-//                (float)posX,(float)posY,(float)posZ,
-//               (float)dirX+(float)posX,(float)dirY+(float)posY,(float)dirZ+(float)posZ,
-//                (float)upX,(float)upY,(float)upZ
-//        );
-        Vector3d mz = getDir().norm();
-        Vector3d my = getUp();
-        Vector3d mx = Vector3d.cross(my, mz).norm();
-        my = Vector3d.cross(mz, mx);
-        return new Matrix4f(
-                (float)mx.x,  (float)my.x,  (float)mz.x, 0.0f,
-                (float)mx.y,  (float)my.y,  (float)mz.y, 0.0f,
-                (float)mx.z,  (float)my.z,  (float)mz.z, 0.0f,
-                (float)Vector3d.dot(mx, getPos()),  (float)Vector3d.dot(my, getPos()),
-                (float)Vector3d.dot(new Vector3d(-mz.x, -mz.y, -mz.z), getPos()), 1.0f
+        return setLookAtMatrix(new Matrix4f());
+    }
+
+    /**
+     * Записать видовую матрицу в заданную матрицу, промежуточные векторы не создаются
+     *
+     * @param target матрица, в которую будет записана видовая матрица
+     * @return матрица, в которую записана видовая матрица
+     */
+    @NotNull
+    private Matrix4f setLookAtMatrix(@NotNull Matrix4f target) {
+        // mz - нормированное направление
+        double dirLen = Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        double mzX = dirX / dirLen;
+        double mzY = dirY / dirLen;
+        double mzZ = dirZ / dirLen;
+        // mx - нормированное векторное произведение вектора "вверх" и mz
+        double mxX = upY * mzZ - upZ * mzY;
+        double mxY = upZ * mzX - upX * mzZ;
+        double mxZ = upX * mzY - upY * mzX;
+        double mxLen = Math.sqrt(mxX * mxX + mxY * mxY + mxZ * mxZ);
+        mxX /= mxLen;
+        mxY /= mxLen;
+        mxZ /= mxLen;
+        // my - векторное произведение mz и mx
+        double myX = mzY * mxZ - mzZ * mxY;
+        double myY = mzZ * mxX - mzX * mxZ;
+        double myZ = mzX * mxY - mzY * mxX;
+        return target.set(
+                (float) mxX, (float) myX, (float) mzX, 0.0f,
+                (float) mxY, (float) myY, (float) mzY, 0.0f,
+                (float) mxZ, (float) myZ, (float) mzZ, 0.0f,
+                (float) (mxX * posX + mxY * posY + mxZ * posZ),
+                (float) (myX * posX + myY * posY + myZ * posZ),
+                (float) (-mzX * posX - mzY * posY - mzZ * posZ), 1.0f
         );
     }
 
+    /**
+     * Получить матрицу для расчёта буферов
+     *
+     * @return матрица для расчёта буферов
+     */
+    @NotNull
+    private Matrix4f getMatrix() {
+        if (matrix == null)
+            matrix = new Matrix4f();
+        return matrix;
+    }
+
+    /**
+     * Отметить, что видовая матрица изменилась
+     */
+    private void invalidateView() {
+        viewVersion++;
+    }
+
+    /**
+     * Отметить, что матрица проекции изменилась
+     */
+    private void invalidateProjection() {
+        projectionVersion++;
+    }
+
+    /**
+     * Задать угол обзора по вертикали
+     *
+     * @param fovY угол обзора по вертикали в градусах
+     */
+    public void setFovY(float fovY) {
+        if (fov_y != fovY) {
+            fov_y = fovY;
+            invalidateProjection();
+        }
+    }
+
+    /**
+     * Задать размер области рисования
+     *
+     * @param width  ширина
+     * @param height высота
+     */
+    public void setViewPort(float width, float height) {
+        if (vp.x != width || vp.y != height) {
+            vp.set(width, height);
+            invalidateProjection();
+        }
+    }
+
+    /**
+     * Задать плоскости отсечения
+     *
+     * @param near ближняя плоскость отсечения
+     * @param far  дальняя плоскость отсечения
+     */
+    public void setClipPlanes(float near, float far) {
+        if (this.near != near || this.far != far) {
+            this.near = near;
+            this.far = far;
+            invalidateProjection();
+        }
+    }
+
+    /**
+     * Получить номер версии видовой матрицы: если он не изменился, видовую матрицу
+     * не нужно заново передавать в шейдер
+     *
+     * @return номер версии видовой матрицы
+     */
+    @JsonIgnore
+    public long getViewVersion() {
+        return viewVersion;
+    }
+
+    /**
+     * Получить номер версии матрицы проекции: если он не изменился, матрицу проекции
+     * не нужно заново передавать в шейдер
+     *
+     * @return номер версии матрицы проекции
+     */
+    @JsonIgnore
+    public long getProjectionVersion() {
+        return projectionVersion;
+    }
+
     /**
      * Получить камеру по умолчанию
      *
@@ -261,6 +458,48 @@ public class Camera {
         return new Vector3d(upX, upY, upZ);
     }
 
+    /**
+     * Записать положение камеры в заданный вектор без создания нового
+     *
+     * @param target вектор, в который будет записано положение
+     * @return вектор, в который записано положение
+     */
+    @NotNull
+    public Vector3d getPos(@NotNull Vector3d target) {
+        target.x = posX;
+        target.y = posY;
+        target.z = posZ;
+        return target;
+    }
+
+    /**
+     * Записать направление камеры в заданный вектор без создания нового
+     *
+     * @param target вектор, в который будет записано направление
+     * @return вектор, в который записано направление
+     */
+    @NotNull
+    public Vector3d getDir(@NotNull Vector3d target) {
+        target.x = dirX;
+        target.y = dirY;
+        target.z = dirZ;
+        return target;
+    }
+
+    /**
+     * Записать вектор "вверх" камеры в заданный вектор без создания нового
+     *
+     * @param target вектор, в который будет записан вектор "вверх"
+     * @return вектор, в который записан вектор "вверх"
+     */
+    @NotNull
+    public Vector3d getUp(@NotNull Vector3d target) {
+        target.x = upX;
+        target.y = upY;
+        target.z = upZ;
+        return target;
+    }
+
     /**
      * Задать вектор положения камеры
      *
@@ -270,6 +509,7 @@ public class Camera {
         posX = pos.x;
         posY = pos.y;
         posZ = pos.z;
+        invalidateView();
     }
 
     /**
@@ -281,6 +521,7 @@ public class Camera {
         dirX = dir.x;
         dirY = dir.y;
         dirZ = dir.z;
+        invalidateView();
     }
 
     /**
@@ -292,6 +533,7 @@ public class Camera {
         upX = up.x;
         upY = up.y;
         upZ = up.z;
+        invalidateView();
     }
 
     /**
@@ -301,16 +543,47 @@ public class Camera {
      * @param rotation вектор поворота
      */
     public void rotate(@NotNull Vector2d rotation) {
-        Vector3d upRot = new Vector3d(0, 0, 1);
-        Vector3d dir = getDir();
-        dir = LinearAlgebra.rotateVectorCC(dir, upRot, rotation.x).norm();
-        Vector3d up = getUp();
-        up = LinearAlgebra.rotateVectorCC(up, upRot, rotation.x).norm();
-        Vector3d rot = Vector3d.cross(dir, up).norm();
-        dir = LinearAlgebra.rotateVectorCC(dir, rot, -rotation.y).norm();
-        up = LinearAlgebra.rotateVectorCC(up, rot, -rotation.y).norm();
-        setDir(dir);
-        setUp(up);
+        rotateDirAndUp(0, 0, 1, rotation.x);
+        // ось второго поворота: нормированное векторное произведение направления и вектора "вверх"
+        double rotX = dirY * upZ - dirZ * upY;
+        double rotY = dirZ * upX - dirX * upZ;
+        double rotZ = dirX * upY - dirY * upX;
+        double len = Math.sqrt(rotX * rotX + rotY * rotY + rotZ * rotZ);
+        rotateDirAndUp(rotX / len, rotY / len, rotZ / len, -rotation.y);
+        invalidateView();
+    }
+
+    /**
+     * Повернуть направление и вектор "вверх" против часовой стрелки вокруг единичной оси
+     * по формуле Родрига (v cos + (k x v) sin + k (k, v) (1 - cos)) и нормировать их,
+     * промежуточные векторы не создаются
+     *
+     * @param kX    X координата оси
+     * @param kY    Y координата оси
+     * @param kZ    Z координата оси
+     * @param angle угол поворота в радианах
+     */
+    private void rotateDirAndUp(double kX, double kY, double kZ, double angle) {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+
+        double dot = (kX * dirX + kY * dirY + kZ * dirZ) * (1 - cos);
+        double x = dirX * cos + (kY * dirZ - kZ * dirY) * sin + kX * dot;
+        double y = dirY * cos + (kZ * dirX - kX * dirZ) * sin + kY * dot;
+        double z = dirZ * cos + (kX * dirY - kY * dirX) * sin + kZ * dot;
+        double len = Math.sqrt(x * x + y * y + z * z);
+        dirX = x / len;
+        dirY = y / len;
+        dirZ = z / len;
+
+        dot = (kX * upX + kY * upY + kZ * upZ) * (1 - cos);
+        x = upX * cos + (kY * upZ - kZ * upY) * sin + kX * dot;
+        y = upY * cos + (kZ * upX - kX * upZ) * sin + kY * dot;
+        z = upZ * cos + (kX * upY - kY * upX) * sin + kZ * dot;
+        len = Math.sqrt(x * x + y * y + z * z);
+        upX = x / len;
+        upY = y / len;
+        upZ = z / len;
     }
 
     /**
@@ -322,6 +595,7 @@ public class Camera {
         posX += dirX * speed;
         posY += dirY * speed;
         posZ += dirZ * speed;
+        invalidateView();
     }
 
     /**
@@ -333,6 +607,7 @@ public class Camera {
         posX -= dirX * speed;
         posY -= dirY * speed;
         posZ -= dirZ * speed;
+        invalidateView();
     }
 
     /**
@@ -341,10 +616,7 @@ public class Camera {
      * @param speed скорость
      */
     public void moveLeft(double speed) {
-        Vector3d rot = Vector3d.cross(getDir(), getUp()).norm();
-        posX -= rot.x * speed;
-        posY -= rot.y * speed;
-        posZ -= rot.z * speed;
+        moveRight(-speed);
     }
 
     /**
@@ -353,10 +625,15 @@ public class Camera {
      * @param speed скорость
      */
     public void moveRight(double speed) {
-        Vector3d rot = Vector3d.cross(getDir(), getUp()).norm();
-        posX += rot.x * speed;
-        posY += rot.y * speed;
-        posZ += rot.z * speed;
+        // вектор вправо: нормированное векторное произведение направления и вектора "вверх"
+        double rotX = dirY * upZ - dirZ * upY;
+        double rotY = dirZ * upX - dirX * upZ;
+        double rotZ = dirX * upY - dirY * upX;
+        double len = Math.sqrt(rotX * rotX + rotY * rotY + rotZ * rotZ);
+        posX += rotX / len * speed;
+        posY += rotY / len * speed;
+        posZ += rotZ / len * speed;
+        invalidateView();
     }
 
     /**
@@ -368,6 +645,7 @@ public class Camera {
         posX -= upX * speed;
         posY -= upY * speed;
         posZ -= upZ * speed;
+        invalidateView();
     }
 
     /**
@@ -379,6 +657,7 @@ public class Camera {
         posX += upX * speed;
         posY += upY * speed;
         posZ += upZ * speed;
+        invalidateView();
     }
 
 
@@ -418,13 +697,59 @@ public class Camera {
         posX += delta.x;
         posY += delta.y;
         posZ += delta.z;
+        invalidateView();
     }
 
     /**
      * Нормализовать вектор направления
      */
     public void normalizeDir() {
-        setDir(getDir().norm());
+        double len = Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        dirX /= len;
+        dirY /= len;
+        dirZ /= len;
+        invalidateView();
+    }
+
+    /**
+     * Записать камеру в плоские массивы хранилища камер
+     *
+     * @param pos    координаты положений
+     * @param dir    координаты направлений
+     * @param up     координаты векторов "вверх"
+     * @param offset смещение первой координаты камеры в массивах
+     */
+    void store(@NotNull double[] pos, @NotNull double[] dir, @NotNull double[] up, int offset) {
+        pos[offset] = posX;
+        pos[offset + 1] = posY;
+        pos[offset + 2] = posZ;
+        dir[offset] = dirX;
+        dir[offset + 1] = dirY;
+        dir[offset + 2] = dirZ;
+        up[offset] = upX;
+        up[offset + 1] = upY;
+        up[offset + 2] = upZ;
+    }
+
+    /**
+     * Прочитать камеру из плоских массивов хранилища камер
+     *
+     * @param pos    координаты положений
+     * @param dir    координаты направлений
+     * @param up     координаты векторов "вверх"
+     * @param offset смещение первой координаты камеры в массивах
+     */
+    void load(@NotNull double[] pos, @NotNull double[] dir, @NotNull double[] up, int offset) {
+        posX = pos[offset];
+        posY = pos[offset + 1];
+        posZ = pos[offset + 2];
+        dirX = dir[offset];
+        dirY = dir[offset + 1];
+        dirZ = dir[offset + 2];
+        upX = up[offset];
+        upY = up[offset + 1];
+        upZ = up[offset + 2];
+        invalidateView();
     }
 
     /**
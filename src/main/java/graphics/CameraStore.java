@@ -0,0 +1,450 @@
+package graphics;
+
+import com.sun.istack.NotNull;
+import creature.base.Creature;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Хранилище камер популяции существ в виде плоских массивов: координаты положений, направлений
+ * и векторов "вверх" всех камер лежат подряд в трёх массивах, i-й камере соответствуют
+ * элементы с 3i по 3i+2. Доступ к камерам и массовые операции над ними не создают объектов,
+ * а копирование хранилища сводится к копированию трёх массивов.
+ * Снимок мира собирает камеры всех существ в одно хранилище, и состояния существ ссылаются
+ * на свои номера в нём вместо того, чтобы хранить по копии камеры
+ */
+public class CameraStore {
+    /**
+     * ёмкость хранилища по умолчанию
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * координаты положений камер
+     */
+    @NotNull
+    private double[] pos;
+    /**
+     * координаты направлений камер
+     */
+    @NotNull
+    private double[] dir;
+    /**
+     * координаты векторов "вверх" камер
+     */
+    @NotNull
+    private double[] up;
+    /**
+     * кол-во камер
+     */
+    private int size;
+
+    /**
+     * Конструктор хранилища камер
+     *
+     * @param capacity начальная ёмкость хранилища
+     */
+    public CameraStore(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("camera store capacity must be non-negative: " + capacity);
+        this.pos = new double[capacity * 3];
+        this.dir = new double[capacity * 3];
+        this.up = new double[capacity * 3];
+        this.size = 0;
+    }
+
+    /**
+     * Конструктор хранилища камер
+     */
+    public CameraStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Конструктор хранилища камер
+     *
+     * @param cameraStore хранилище камер
+     */
+    public CameraStore(@NotNull CameraStore cameraStore) {
+        Objects.requireNonNull(cameraStore);
+        this.pos = Arrays.copyOf(cameraStore.pos, cameraStore.size * 3);
+        this.dir = Arrays.copyOf(cameraStore.dir, cameraStore.size * 3);
+        this.up = Arrays.copyOf(cameraStore.up, cameraStore.size * 3);
+        this.size = cameraStore.size;
+    }
+
+    /**
+     * Увеличить ёмкость хранилища, если это необходимо
+     *
+     * @param capacity требуемая ёмкость
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity * 3 <= pos.length)
+            return;
+        int newLength = Math.max(capacity, pos.length / 3 * 2) * 3;
+        pos = Arrays.copyOf(pos, newLength);
+        dir = Arrays.copyOf(dir, newLength);
+        up = Arrays.copyOf(up, newLength);
+    }
+
+    /**
+     * Проверить номер камеры
+     *
+     * @param i номер камеры
+     */
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+    }
+
+    /**
+     * Добавить камеру в конец хранилища
+     *
+     * @param camera камера
+     * @return номер добавленной камеры
+     */
+    public int add(@NotNull Camera camera) {
+        ensureCapacity(size + 1);
+        Objects.requireNonNull(camera).store(pos, dir, up, size * 3);
+        return size++;
+    }
+
+    /**
+     * Записать камеру в хранилище
+     *
+     * @param i      номер камеры
+     * @param camera камера
+     */
+    public void set(int i, @NotNull Camera camera) {
+        checkIndex(i);
+        Objects.requireNonNull(camera).store(pos, dir, up, i * 3);
+    }
+
+    /**
+     * Прочитать камеру из хранилища в заданную камеру
+     *
+     * @param i      номер камеры
+     * @param target камера, в которую будут записаны значения
+     * @return камера, в которую записаны значения
+     */
+    @NotNull
+    public Camera get(int i, @NotNull Camera target) {
+        checkIndex(i);
+        Objects.requireNonNull(target).load(pos, dir, up, i * 3);
+        return target;
+    }
+
+    /**
+     * Проверка, совпадает ли камера хранилища с камерой другого хранилища
+     *
+     * @param i           номер камеры
+     * @param cameraStore другое хранилище камер
+     * @param j           номер камеры в другом хранилище
+     * @return совпадают ли положения, направления и векторы "вверх" камер
+     */
+    public boolean cameraEquals(int i, @NotNull CameraStore cameraStore, int j) {
+        checkIndex(i);
+        Objects.requireNonNull(cameraStore).checkIndex(j);
+        return Arrays.equals(pos, i * 3, i * 3 + 3, cameraStore.pos, j * 3, j * 3 + 3) &&
+                Arrays.equals(dir, i * 3, i * 3 + 3, cameraStore.dir, j * 3, j * 3 + 3) &&
+                Arrays.equals(up, i * 3, i * 3 + 3, cameraStore.up, j * 3, j * 3 + 3);
+    }
+
+    /**
+     * Получить хэш камеры хранилища
+     *
+     * @param i номер камеры
+     * @return хэш положения, направления и вектора "вверх" камеры
+     */
+    public int cameraHashCode(int i) {
+        checkIndex(i);
+        int result = 0;
+        for (int offset = i * 3; offset < i * 3 + 3; offset++) {
+            long temp = Double.doubleToLongBits(pos[offset]);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+            temp = Double.doubleToLongBits(dir[offset]);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+            temp = Double.doubleToLongBits(up[offset]);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+        }
+        return result;
+    }
+
+    /**
+     * Заполнить хранилище камерами существ, ёмкость при этом сохраняется
+     *
+     * @param creatures список существ
+     */
+    public void gather(@NotNull List<Creature> creatures) {
+        ensureCapacity(creatures.size());
+        size = creatures.size();
+        for (int i = 0; i < size; i++)
+            creatures.get(i).getCamera().store(pos, dir, up, i * 3);
+    }
+
+    /**
+     * Записать камеры хранилища обратно в камеры существ
+     *
+     * @param creatures список существ в том же порядке, что и при заполнении
+     */
+    public void scatter(@NotNull List<Creature> creatures) {
+        if (creatures.size() != size)
+            throw new IllegalArgumentException(
+                    "creature count " + creatures.size() + " does not match camera count " + size
+            );
+        for (int i = 0; i < size; i++)
+            creatures.get(i).getCamera().load(pos, dir, up, i * 3);
+    }
+
+    /**
+     * Записать положение камеры в заданный вектор
+     *
+     * @param i      номер камеры
+     * @param target вектор, в который будет записано положение
+     * @return вектор, в который записано положение
+     */
+    @NotNull
+    public Vector3d getPos(int i, @NotNull Vector3d target) {
+        checkIndex(i);
+        target.x = pos[i * 3];
+        target.y = pos[i * 3 + 1];
+        target.z = pos[i * 3 + 2];
+        return target;
+    }
+
+    /**
+     * Записать направление камеры в заданный вектор
+     *
+     * @param i      номер камеры
+     * @param target вектор, в который будет записано направление
+     * @return вектор, в который записано направление
+     */
+    @NotNull
+    public Vector3d getDir(int i, @NotNull Vector3d target) {
+        checkIndex(i);
+        target.x = dir[i * 3];
+        target.y = dir[i * 3 + 1];
+        target.z = dir[i * 3 + 2];
+        return target;
+    }
+
+    /**
+     * Записать вектор "вверх" камеры в заданный вектор
+     *
+     * @param i      номер камеры
+     * @param target вектор, в который будет записан вектор "вверх"
+     * @return вектор, в который записан вектор "вверх"
+     */
+    @NotNull
+    public Vector3d getUp(int i, @NotNull Vector3d target) {
+        checkIndex(i);
+        target.x = up[i * 3];
+        target.y = up[i * 3 + 1];
+        target.z = up[i * 3 + 2];
+        return target;
+    }
+
+    /**
+     * Задать положение камеры
+     *
+     * @param i номер камеры
+     * @param x X координата положения
+     * @param y Y координата положения
+     * @param z Z координата положения
+     */
+    public void setPos(int i, double x, double y, double z) {
+        checkIndex(i);
+        pos[i * 3] = x;
+        pos[i * 3 + 1] = y;
+        pos[i * 3 + 2] = z;
+    }
+
+    /**
+     * Задать направление камеры
+     *
+     * @param i номер камеры
+     * @param x X координата направления
+     * @param y Y координата направления
+     * @param z Z координата направления
+     */
+    public void setDir(int i, double x, double y, double z) {
+        checkIndex(i);
+        dir[i * 3] = x;
+        dir[i * 3 + 1] = y;
+        dir[i * 3 + 2] = z;
+    }
+
+    /**
+     * Задать вектор "вверх" камеры
+     *
+     * @param i номер камеры
+     * @param x X координата вектора "вверх"
+     * @param y Y координата вектора "вверх"
+     * @param z Z координата вектора "вверх"
+     */
+    public void setUp(int i, double x, double y, double z) {
+        checkIndex(i);
+        up[i * 3] = x;
+        up[i * 3 + 1] = y;
+        up[i * 3 + 2] = z;
+    }
+
+    /**
+     * Переместить все камеры вперёд, каждую со своей скоростью
+     *
+     * @param speeds скорости камер
+     */
+    public void moveForward(@NotNull double[] speeds) {
+        checkSpeeds(speeds);
+        for (int i = 0; i < size; i++) {
+            int offset = i * 3;
+            pos[offset] += dir[offset] * speeds[i];
+            pos[offset + 1] += dir[offset + 1] * speeds[i];
+            pos[offset + 2] += dir[offset + 2] * speeds[i];
+        }
+    }
+
+    /**
+     * Переместить все камеры вверх, каждую со своей скоростью
+     *
+     * @param speeds скорости камер
+     */
+    public void moveUp(@NotNull double[] speeds) {
+        checkSpeeds(speeds);
+        for (int i = 0; i < size; i++) {
+            int offset = i * 3;
+            pos[offset] += up[offset] * speeds[i];
+            pos[offset + 1] += up[offset + 1] * speeds[i];
+            pos[offset + 2] += up[offset + 2] * speeds[i];
+        }
+    }
+
+    /**
+     * Переместить все камеры вправо, каждую со своей скоростью
+     *
+     * @param speeds скорости камер
+     */
+    public void moveRight(@NotNull double[] speeds) {
+        checkSpeeds(speeds);
+        for (int i = 0; i < size; i++) {
+            int offset = i * 3;
+            // вектор вправо: нормированное векторное произведение направления и вектора "вверх"
+            double rotX = dir[offset + 1] * up[offset + 2] - dir[offset + 2] * up[offset + 1];
+            double rotY = dir[offset + 2] * up[offset] - dir[offset] * up[offset + 2];
+            double rotZ = dir[offset] * up[offset + 1] - dir[offset + 1] * up[offset];
+            double k = speeds[i] / Math.sqrt(rotX * rotX + rotY * rotY + rotZ * rotZ);
+            pos[offset] += rotX * k;
+            pos[offset + 1] += rotY * k;
+            pos[offset + 2] += rotZ * k;
+        }
+    }
+
+    /**
+     * Сместить положения всех камер на одно и то же смещение
+     *
+     * @param dx смещение по X
+     * @param dy смещение по Y
+     * @param dz смещение по Z
+     */
+    public void translate(double dx, double dy, double dz) {
+        for (int offset = 0; offset < size * 3; offset += 3) {
+            pos[offset] += dx;
+            pos[offset + 1] += dy;
+            pos[offset + 2] += dz;
+        }
+    }
+
+    /**
+     * Нормализовать векторы направления всех камер
+     */
+    public void normalizeDirs() {
+        for (int offset = 0; offset < size * 3; offset += 3) {
+            double len = Math.sqrt(
+                    dir[offset] * dir[offset] + dir[offset + 1] * dir[offset + 1] + dir[offset + 2] * dir[offset + 2]
+            );
+            dir[offset] /= len;
+            dir[offset + 1] /= len;
+            dir[offset + 2] /= len;
+        }
+    }
+
+    /**
+     * Проверить, что скоростей столько же, сколько камер
+     *
+     * @param speeds скорости камер
+     */
+    private void checkSpeeds(@NotNull double[] speeds) {
+        if (speeds.length < size)
+            throw new IllegalArgumentException("speed count " + speeds.length + " is less than camera count " + size);
+    }
+
+    /**
+     * Скопировать камеры из другого хранилища, ёмкость при этом сохраняется
+     *
+     * @param cameraStore хранилище камер
+     */
+    public void copyFrom(@NotNull CameraStore cameraStore) {
+        ensureCapacity(Objects.requireNonNull(cameraStore).size);
+        System.arraycopy(cameraStore.pos, 0, pos, 0, cameraStore.size * 3);
+        System.arraycopy(cameraStore.dir, 0, dir, 0, cameraStore.size * 3);
+        System.arraycopy(cameraStore.up, 0, up, 0, cameraStore.size * 3);
+        size = cameraStore.size;
+    }
+
+    /**
+     * Удалить все камеры, ёмкость при этом сохраняется
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Получить кол-во камер
+     *
+     * @return кол-во камер
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "CameraStore{size, capacity}"
+     */
+    @Override
+    public String toString() {
+        return "CameraStore{" + size +
+                ", " + pos.length / 3 + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CameraStore that = (CameraStore) o;
+
+        if (size != that.size) return false;
+        if (!Arrays.equals(pos, 0, size * 3, that.pos, 0, size * 3)) return false;
+        if (!Arrays.equals(dir, 0, size * 3, that.dir, 0, size * 3)) return false;
+        return Arrays.equals(up, 0, size * 3, that.up, 0, size * 3);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = size;
+        for (int i = 0; i < size * 3; i++) {
+            long temp = Double.doubleToLongBits(pos[i]);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+            temp = Double.doubleToLongBits(dir[i]);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+            temp = Double.doubleToLongBits(up[i]);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+        }
+        return result;
+    }
+}
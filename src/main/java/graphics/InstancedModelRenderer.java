@@ -0,0 +1,304 @@
+package graphics;
+
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.util.GLBuffers;
+import com.sun.istack.NotNull;
+import jMath.aoklyunin.github.com.Transform3d;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+import org.joml.Matrix4f;
+import shaders.ShaderProgram;
+import shaders.ShaderRegistry;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.jogamp.opengl.GL.*;
+import static constants.Constants.RESOURCE_PATH;
+
+/**
+ * Инстансное рисование набора объектов: объекты с общей моделью рисуются одним вызовом,
+ * матрицы трансформаций объектов загружаются в буфер экземпляров. Кол-во вызовов рисования
+ * равно кол-ву различных моделей и не зависит от кол-ва объектов.
+ * Матрицы вида и проекции берутся из текущего состояния фиксированного конвейера OpenGL.
+ * Контекст OpenGL используется одним потоком за раз, поэтому буферы для рассчёта матриц
+ * хранятся вместе с остальными ресурсами контекста: потоки, рисующие в разных контекстах,
+ * не мешают друг другу
+ */
+public class InstancedModelRenderer {
+    /**
+     * кол-во чисел в матрице трансформации одного объекта
+     */
+    private static final int MATRIX_FLOAT_CNT = 16;
+    /**
+     * вершинный шейдер
+     */
+    private static final File VERTEX_SHADER = new File(RESOURCE_PATH + "shaders/instanced.vs");
+    /**
+     * фрагментный шейдер
+     */
+    private static final File FRAGMENT_SHADER = new File(RESOURCE_PATH + "shaders/instanced.fs");
+
+    /**
+     * Ресурсы инстансного рисования в одном контексте OpenGL
+     */
+    private static class ContextResources {
+        /**
+         * матрицы трансформаций объектов, сгруппированные по моделям
+         */
+        @NotNull
+        private final float[] instanceData;
+        /**
+         * буфер для загрузки матриц трансформаций в видеокарту
+         */
+        @NotNull
+        private final FloatBuffer instanceFloatBuffer;
+        /**
+         * матрица для рассчёта трансформаций
+         */
+        @NotNull
+        private final Matrix4f matrix = new Matrix4f();
+        /**
+         * шейдеры контекста
+         */
+        @NotNull
+        private final ShaderRegistry shaderRegistry = new ShaderRegistry();
+        /**
+         * буфер экземпляров
+         */
+        @NotNull
+        private final int[] instanceBuffer = new int[1];
+        /**
+         * флаг, что контекст поддерживает инстансное рисование и шейдер собран
+         */
+        private boolean supported;
+
+        /**
+         * Конструктор ресурсов контекста
+         *
+         * @param objectCnt кол-во объектов
+         */
+        private ContextResources(int objectCnt) {
+            this.instanceData = new float[objectCnt * MATRIX_FLOAT_CNT];
+            this.instanceFloatBuffer = GLBuffers.newDirectFloatBuffer(instanceData.length);
+        }
+    }
+
+    /**
+     * различные модели объектов
+     */
+    @NotNull
+    private final List<ObjModel3D> models;
+    /**
+     * номера объектов каждой модели
+     */
+    @NotNull
+    private final List<int[]> modelObjectIndexes;
+    /**
+     * кол-во объектов
+     */
+    private final int objectCnt;
+    /**
+     * ресурсы по контекстам OpenGL
+     */
+    @NotNull
+    private final Map<GLContext, ContextResources> contextResources;
+
+    /**
+     * Конструктор инстансного рисования
+     *
+     * @param objects список объектов, объекты с общей моделью должны ссылаться на один и тот же
+     *                экземпляр модели
+     */
+    public InstancedModelRenderer(@NotNull List<ObjModel3D> objects) {
+        Map<ObjModel3D, List<Integer>> groups = new IdentityHashMap<>();
+        List<ObjModel3D> models = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i++) {
+            ObjModel3D model = Objects.requireNonNull(objects.get(i));
+            groups.computeIfAbsent(model, m -> {
+                models.add(m);
+                return new ArrayList<>();
+            }).add(i);
+        }
+        this.models = models;
+        this.modelObjectIndexes = new ArrayList<>();
+        for (ObjModel3D model : models)
+            modelObjectIndexes.add(groups.get(model).stream().mapToInt(Integer::intValue).toArray());
+        this.objectCnt = objects.size();
+        this.contextResources = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Конструктор инстансного рисования: группировка объектов по моделям не меняется
+     * и используется совместно, ресурсы контекстов у копии свои
+     *
+     * @param instancedModelRenderer инстансное рисование
+     */
+    public InstancedModelRenderer(@NotNull InstancedModelRenderer instancedModelRenderer) {
+        this.models = instancedModelRenderer.models;
+        this.modelObjectIndexes = instancedModelRenderer.modelObjectIndexes;
+        this.objectCnt = instancedModelRenderer.objectCnt;
+        this.contextResources = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Нарисовать объекты
+     *
+     * @param gl2              переменная OpenGL
+     * @param objectTransforms список трансформаций объектов
+     * @return false, если контекст не поддерживает инстансное рисование (объекты при этом
+     * не нарисованы и их нужно рисовать по одному)
+     */
+    public boolean render(@NotNull GL2 gl2, @NotNull List<Transform3d> objectTransforms) {
+        ContextResources resources = contextResources.computeIfAbsent(gl2.getContext(), context -> init(gl2));
+        if (!resources.supported)
+            return false;
+        ShaderProgram shaderProgram = resources.shaderRegistry.get(gl2, VERTEX_SHADER, FRAGMENT_SHADER);
+        int positionLocation = shaderProgram.getAttributeLocation("inPosition");
+        int modelLocation = shaderProgram.getAttributeLocation("inModel");
+        int colorLocation = shaderProgram.getUniformLocation("u_color");
+        if (positionLocation < 0 || modelLocation < 0)
+            return false;
+
+        fillInstanceData(resources, objectTransforms);
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, resources.instanceBuffer[0]);
+        resources.instanceFloatBuffer.rewind();
+        resources.instanceFloatBuffer.put(resources.instanceData).rewind();
+        // буфер каждый раз выделяется заново, чтобы не ждать завершения рисования с его прошлым содержимым
+        gl2.glBufferData(
+                GL_ARRAY_BUFFER, (long) resources.instanceData.length * Float.BYTES, resources.instanceFloatBuffer,
+                GL2.GL_STREAM_DRAW
+        );
+
+        gl2.glUseProgram(shaderProgram.getProgramId());
+        // матрица занимает четыре атрибута подряд, по одному на столбец
+        for (int column = 0; column < 4; column++) {
+            gl2.glEnableVertexAttribArray(modelLocation + column);
+            gl2.glVertexAttribDivisor(modelLocation + column, 1);
+        }
+        gl2.glEnableVertexAttribArray(positionLocation);
+
+        int firstInstance = 0;
+        for (int i = 0; i < models.size(); i++) {
+            ObjModel3D model = models.get(i);
+            int instanceCnt = modelObjectIndexes.get(i).length;
+            Vector3d color = model.getObjModel3DParams().getColor();
+            gl2.glUniform3f(colorLocation, (float) color.x, (float) color.y, (float) color.z);
+
+            gl2.glBindBuffer(GL_ARRAY_BUFFER, resources.instanceBuffer[0]);
+            for (int column = 0; column < 4; column++)
+                gl2.glVertexAttribPointer(
+                        modelLocation + column, 4, GL_FLOAT, false, MATRIX_FLOAT_CNT * Float.BYTES,
+                        ((long) firstInstance * MATRIX_FLOAT_CNT + column * 4L) * Float.BYTES
+                );
+
+            int[] buffers = model.getBuffers(gl2);
+            gl2.glBindBuffer(GL_ARRAY_BUFFER, buffers[0]);
+            gl2.glVertexAttribPointer(positionLocation, 3, GL_FLOAT, false, 0, 0L);
+            gl2.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, buffers[2]);
+            gl2.glDrawElementsInstanced(
+                    GL_TRIANGLES, model.getIndices().length, GL_UNSIGNED_INT, 0L, instanceCnt
+            );
+            firstInstance += instanceCnt;
+        }
+
+        gl2.glDisableVertexAttribArray(positionLocation);
+        for (int column = 0; column < 4; column++) {
+            gl2.glVertexAttribDivisor(modelLocation + column, 0);
+            gl2.glDisableVertexAttribArray(modelLocation + column);
+        }
+        gl2.glUseProgram(0);
+        gl2.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        return true;
+    }
+
+    /**
+     * Создать ресурсы инстансного рисования в текущем контексте
+     *
+     * @param gl2 переменная OpenGL
+     * @return ресурсы контекста
+     */
+    @NotNull
+    private ContextResources init(@NotNull GL2 gl2) {
+        ContextResources resources = new ContextResources(objectCnt);
+        if (!gl2.isFunctionAvailable("glGenBuffers") ||
+                !gl2.isFunctionAvailable("glDrawElementsInstanced") ||
+                !gl2.isFunctionAvailable("glVertexAttribDivisor"))
+            return resources;
+        try {
+            resources.shaderRegistry.get(gl2, VERTEX_SHADER, FRAGMENT_SHADER);
+        } catch (IllegalStateException e) {
+            return resources;
+        }
+        gl2.glGenBuffers(1, resources.instanceBuffer, 0);
+        resources.supported = true;
+        return resources;
+    }
+
+    /**
+     * Записать матрицы трансформаций объектов в массив экземпляров, сгруппировав их по моделям;
+     * порядок преобразований совпадает с применением трансформации в OpenGL
+     *
+     * @param resources        ресурсы контекста, в массив экземпляров которых пишутся матрицы
+     * @param objectTransforms список трансформаций объектов
+     */
+    private void fillInstanceData(@NotNull ContextResources resources, @NotNull List<Transform3d> objectTransforms) {
+        Matrix4f matrix = resources.matrix;
+        int offset = 0;
+        for (int[] objectIndexes : modelObjectIndexes) {
+            for (int objectIndex : objectIndexes) {
+                Transform3d transform = objectTransforms.get(objectIndex);
+                Vector3d position = transform.getPosition();
+                Vector3d rotation = transform.getRotation();
+                Vector3d scale = transform.getScale();
+                matrix.translation((float) position.x, (float) position.y, (float) position.z)
+                        .rotateX((float) Math.toRadians(rotation.x))
+                        .rotateY((float) Math.toRadians(rotation.y))
+                        .rotateZ((float) Math.toRadians(rotation.z))
+                        .scale((float) scale.x, (float) scale.y, (float) scale.z)
+                        .get(resources.instanceData, offset);
+                offset += MATRIX_FLOAT_CNT;
+            }
+        }
+    }
+
+    /**
+     * Освободить ресурсы инстансного рисования в текущем контексте OpenGL
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void dispose(@NotNull GL2 gl2) {
+        ContextResources resources = contextResources.remove(gl2.getContext());
+        if (resources == null || !resources.supported)
+            return;
+        resources.shaderRegistry.dispose(gl2);
+        gl2.glDeleteBuffers(1, resources.instanceBuffer, 0);
+    }
+
+    /**
+     * Получить кол-во различных моделей (кол-во вызовов рисования)
+     *
+     * @return кол-во различных моделей
+     */
+    public int getModelCnt() {
+        return models.size();
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "InstancedModelRenderer{modelCnt, objectCnt}"
+     */
+    @Override
+    public String toString() {
+        return "InstancedModelRenderer{" + models.size() +
+                ", " + objectCnt + '}';
+    }
+}
@@ -0,0 +1,149 @@
+package graphics;
+
+import com.sun.istack.NotNull;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static constants.Constants.RESOURCE_PATH;
+
+/**
+ * Общий для процесса кэш геометрии 3D моделей по пути к модели и масштабу.
+ * Каждая модель, построенная по параметрам, захватывает геометрию из кэша, поэтому
+ * obj-файл разбирается один раз, а все существа и поля с одинаковой моделью
+ * разделяют одни и те же массивы вершин, нормалей и индексов.
+ * Геометрия, которую больше никто не использует, остаётся в кэше до вызова {@link #evictUnused()},
+ * чтобы повторная загрузка мира не разбирала файлы заново
+ */
+public class MeshCache {
+    /**
+     * Запись кэша: геометрия и кол-во моделей, которые её используют
+     */
+    private static class Entry {
+        /**
+         * геометрия
+         */
+        @NotNull
+        private final ObjMesh mesh;
+        /**
+         * кол-во моделей, которые используют геометрию
+         */
+        private int refCnt;
+
+        /**
+         * Конструктор записи кэша
+         *
+         * @param mesh геометрия
+         */
+        private Entry(@NotNull ObjMesh mesh) {
+            this.mesh = mesh;
+        }
+    }
+
+    /**
+     * Записи кэша по ключу из пути и масштаба
+     */
+    @NotNull
+    private static final Map<String, Entry> entries = new HashMap<>();
+    /**
+     * Ключи записей по геометрии
+     */
+    @NotNull
+    private static final Map<ObjMesh, String> keys = new IdentityHashMap<>();
+
+    /**
+     * Захватить геометрию модели: если геометрии с таким путём и масштабом нет в кэше,
+     * она загружается из файла
+     *
+     * @param path  путь к модели относительно папки моделей
+     * @param scale масштаб
+     * @return геометрия модели
+     */
+    @NotNull
+    public static synchronized ObjMesh acquire(@NotNull String path, @NotNull Vector3d scale) {
+        String key = path + ":" + scale.x + ":" + scale.y + ":" + scale.z;
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(new ObjMesh(RESOURCE_PATH + "models/" + path, scale));
+            entries.put(key, entry);
+            keys.put(entry.mesh, key);
+        }
+        entry.refCnt++;
+        return entry.mesh;
+    }
+
+    /**
+     * Захватить ещё одну ссылку на уже полученную геометрию
+     *
+     * @param mesh геометрия
+     * @return та же геометрия
+     */
+    @NotNull
+    public static synchronized ObjMesh acquire(@NotNull ObjMesh mesh) {
+        Entry entry = entries.get(keys.get(mesh));
+        if (entry == null || entry.mesh != mesh)
+            throw new IllegalArgumentException("mesh " + mesh + " is not in cache");
+        entry.refCnt++;
+        return mesh;
+    }
+
+    /**
+     * Отпустить ссылку на геометрию
+     *
+     * @param mesh геометрия
+     */
+    public static synchronized void release(@NotNull ObjMesh mesh) {
+        Entry entry = entries.get(keys.get(mesh));
+        if (entry == null || entry.mesh != mesh || entry.refCnt == 0)
+            throw new IllegalArgumentException("mesh " + mesh + " is not acquired");
+        entry.refCnt--;
+    }
+
+    /**
+     * Удалить из кэша геометрию, которую не использует ни одна модель; буферы геометрии
+     * в видеокарте, если они ещё остались, удаляются при следующем обращении к буферам в их контекстах
+     */
+    public static synchronized void evictUnused() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.refCnt == 0) {
+                entry.mesh.releaseAllBuffers();
+                keys.remove(entry.mesh);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Получить кол-во моделей, использующих геометрию
+     *
+     * @param mesh геометрия
+     * @return кол-во моделей, использующих геометрию
+     */
+    public static synchronized int getRefCnt(@NotNull ObjMesh mesh) {
+        Entry entry = entries.get(keys.get(mesh));
+        return entry == null ? 0 : entry.refCnt;
+    }
+
+    /**
+     * Получить кол-во геометрий в кэше
+     *
+     * @return кол-во геометрий в кэше
+     */
+    public static synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Конструктор для запрета наследования
+     */
+    private MeshCache() {
+        // Подавление создания конструктора по умолчанию
+        // для достижения неинстанцируемости
+        throw new AssertionError("constructor is disabled");
+    }
+}
@@ -0,0 +1,414 @@
+package graphics;
+
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.util.GLBuffers;
+import com.sun.istack.NotNull;
+import de.javagl.obj.Obj;
+import de.javagl.obj.ObjData;
+import de.javagl.obj.ObjReader;
+import de.javagl.obj.ObjUtils;
+import jMath.aoklyunin.github.com.coordinateSystem.CoordinateSystem3d;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+import jMath.aoklyunin.github.com.vector.Vector3f;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.jogamp.opengl.GL.*;
+
+/**
+ * Геометрия 3D модели, загруженная из obj-файла с заданным масштабом.
+ * После загрузки не изменяется, поэтому одна геометрия разделяется всеми моделями
+ * с тем же путём и масштабом (см. {@link MeshCache})
+ */
+public class ObjMesh {
+    /**
+     * Буферы геометрии в памяти видеокарты одного контекста OpenGL и кол-во моделей,
+     * которые их используют
+     */
+    private static class ContextBuffers {
+        /**
+         * буфер вершин, буфер нормалей и буфер индексов
+         */
+        @NotNull
+        private final int[] buffers;
+        /**
+         * кол-во моделей, которые используют буферы
+         */
+        private int refCnt;
+
+        /**
+         * Конструктор буферов контекста
+         *
+         * @param buffers буфер вершин, буфер нормалей и буфер индексов
+         */
+        private ContextBuffers(@NotNull int[] buffers) {
+            this.buffers = buffers;
+        }
+    }
+
+    /**
+     * Буферы, которые больше никто не использует, но которые нельзя было удалить сразу,
+     * потому что их контекст OpenGL не был текущим; удаляются при следующем обращении
+     * к буферам геометрии в своём контексте
+     */
+    @NotNull
+    private static final Map<GLContext, List<int[]>> pendingBuffers = new ConcurrentHashMap<>();
+
+    /**
+     * массив индексов полигонов
+     */
+    @NotNull
+    private final int[] indices;
+    /**
+     * массив координат вершин(координаты идут подряд, имеет размерность в три раза бОльшую, чем кол-во вершина)
+     */
+    @NotNull
+    private final float[] vertices;
+    /**
+     * массив текстурных координат(координаты идут подряд, имеет размерность в два раза бОльшую, чем кол-во вершина)
+     */
+    @NotNull
+    private final float[] texCoords;
+    /**
+     * массив нормалей(координаты идут подряд, имеет размерность в три раза бОльшую, чем кол-во вершина)
+     */
+    @NotNull
+    private final float[] normals;
+    /**
+     * координаты центров полигонов
+     */
+    @NotNull
+    private final float[] triangleCenterCoords;
+    /**
+     * отступы размера модели(берутся минимальные и максимальные координаты точек модели)
+     */
+    @NotNull
+    private final CoordinateSystem3d borderOffsets;
+    /**
+     * Буферы геометрии в памяти видеокарты для каждого контекста OpenGL
+     */
+    @NotNull
+    private final Map<GLContext, ContextBuffers> contextBuffers;
+    /**
+     * хэш геометрии (геометрия не изменяется, поэтому хэш считается один раз)
+     */
+    private final int hash;
+
+    /**
+     * Конструктор геометрии 3D модели
+     *
+     * @param path  путь к obj-файлу
+     * @param scale масштаб
+     */
+    ObjMesh(@NotNull String path, @NotNull Vector3d scale) {
+        try (InputStream inputStream = new FileInputStream(new File(path))) {
+            Obj obj3D = ObjUtils.convertToRenderable(ObjReader.read(inputStream));
+            indices = ObjData.getFaceVertexIndicesArray(obj3D);
+            vertices = ObjData.getVerticesArray(obj3D);
+            texCoords = ObjData.getTexCoordsArray(obj3D, 2);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("can not load model from " + path + "\n" + e);
+        }
+        triangleCenterCoords = new float[indices.length];
+        normals = new float[vertices.length];
+        calculateNormals();
+
+        // находим минимальные и максимальные координаты
+        Vector3d maxPos = new Vector3d(vertices[0] * scale.x, vertices[1] * scale.y, vertices[2] * scale.z);
+        Vector3d minPos = new Vector3d(maxPos);
+        for (int i = 0; i < vertices.length / 3; i++) {
+            vertices[i * 3] *= scale.x;
+            vertices[i * 3 + 1] *= scale.y;
+            vertices[i * 3 + 2] *= scale.z;
+            Vector3d vert = new Vector3d(vertices[i * 3], vertices[i * 3 + 1], vertices[i * 3 + 2]);
+            maxPos = Vector3d.max(maxPos, vert);
+            minPos = Vector3d.min(minPos, vert);
+        }
+        borderOffsets = new CoordinateSystem3d(minPos, maxPos);
+        contextBuffers = new HashMap<>();
+        hash = calculateHashCode();
+    }
+
+    /**
+     * Рассчитать нормали
+     */
+    private void calculateNormals() {
+        // рассчитываем координаты центров треугольников модели
+        for (int i = 0; i < indices.length / 3; i++) {
+            triangleCenterCoords[i * 3] = (
+                    vertices[indices[i * 3] * 3] + vertices[indices[i * 3 + 1] * 3] + vertices[indices[i * 3 + 2] * 3]
+            ) / 3;
+            triangleCenterCoords[i * 3 + 1] = (
+                    vertices[indices[i * 3] * 3 + 1] + vertices[indices[i * 3 + 1] * 3 + 1] + vertices[indices[i * 3 + 2] * 3 + 1]
+            ) / 3;
+            triangleCenterCoords[i * 3 + 2] = (
+                    vertices[indices[i * 3] * 3 + 2] + vertices[indices[i * 3 + 2] * 3 + 1] + vertices[indices[i * 3 + 2] * 3 + 2]
+            ) / 3;
+        }
+
+        // рассчитываем нормали
+        for (int i = 0; i < indices.length / 3; i++) {
+            Vector3d A = new Vector3d(
+                    vertices[indices[i * 3] * 3],
+                    vertices[indices[i * 3] * 3 + 1],
+                    vertices[indices[i * 3] * 3 + 2]);
+            Vector3d B = new Vector3d(
+                    vertices[indices[i * 3 + 1] * 3],
+                    vertices[indices[i * 3 + 1] * 3 + 1],
+                    vertices[indices[i * 3 + 1] * 3 + 2]);
+            Vector3d C = new Vector3d(
+                    vertices[indices[i * 3 + 2] * 3],
+                    vertices[indices[i * 3 + 2] * 3 + 1],
+                    vertices[indices[i * 3 + 2] * 3 + 2]);
+            Vector3d localNormal =
+                    Vector3d.cross(Vector3d.subtract(B, A), Vector3d.subtract(C, A));
+
+            normals[indices[i * 3] * 3] += localNormal.x;
+            normals[indices[i * 3] * 3 + 1] += localNormal.y;
+            normals[indices[i * 3] * 3 + 2] += localNormal.z;
+
+            normals[indices[i * 3 + 1] * 3] += localNormal.x;
+            normals[indices[i * 3 + 1] * 3 + 1] += localNormal.y;
+            normals[indices[i * 3 + 1] * 3 + 2] += localNormal.z;
+
+            normals[indices[i * 3 + 2] * 3] += localNormal.x;
+            normals[indices[i * 3 + 2] * 3 + 1] += localNormal.y;
+            normals[indices[i * 3 + 2] * 3 + 2] += localNormal.z;
+        }
+
+        for (int i = 0; i < normals.length / 3; i++) {
+            Vector3f tmpVec = new Vector3f(
+                    normals[i * 3], normals[i * 3 + 1], normals[i * 3 + 2]
+            );
+            Vector3f normVec = tmpVec.norm();
+            normals[i * 3] = normVec.x;
+            normals[i * 3 + 1] = normVec.y;
+            normals[i * 3 + 2] = normVec.z;
+        }
+    }
+
+    /**
+     * Захватить буферы геометрии в текущем контексте OpenGL, при первом захвате в контексте
+     * геометрия загружается в видеокарту. Каждая модель захватывает буферы в контексте
+     * один раз и отпускает их через {@link #releaseBuffers(GL2)} или {@link #releaseBuffers(GLContext)}
+     *
+     * @param gl2 переменная OpenGL
+     * @return буфер вершин, буфер нормалей и буфер индексов
+     */
+    @NotNull
+    synchronized int[] acquireBuffers(@NotNull GL2 gl2) {
+        deletePendingBuffers(gl2);
+        ContextBuffers entry = contextBuffers.computeIfAbsent(
+                gl2.getContext(), context -> new ContextBuffers(upload(gl2))
+        );
+        entry.refCnt++;
+        return entry.buffers;
+    }
+
+    /**
+     * Отпустить буферы геометрии в текущем контексте OpenGL: если их больше никто
+     * не использует, они удаляются из видеокарты
+     *
+     * @param gl2 переменная OpenGL
+     */
+    synchronized void releaseBuffers(@NotNull GL2 gl2) {
+        int[] buffers = release(gl2.getContext());
+        if (buffers != null)
+            gl2.glDeleteBuffers(3, buffers, 0);
+        deletePendingBuffers(gl2);
+    }
+
+    /**
+     * Отпустить буферы геометрии в контексте OpenGL, который сейчас не текущий: если их больше
+     * никто не использует, они удаляются при следующем обращении к буферам в этом контексте
+     *
+     * @param context контекст OpenGL
+     */
+    synchronized void releaseBuffers(@NotNull GLContext context) {
+        int[] buffers = release(context);
+        if (buffers != null)
+            deleteLater(context, buffers);
+    }
+
+    /**
+     * Уменьшить кол-во моделей, использующих буферы контекста
+     *
+     * @param context контекст OpenGL
+     * @return буферы, которые больше никто не использует, или null, если буферы ещё используются
+     */
+    private int[] release(@NotNull GLContext context) {
+        ContextBuffers entry = contextBuffers.get(context);
+        if (entry == null || entry.refCnt == 0)
+            throw new IllegalArgumentException("buffers of " + this + " are not acquired in " + context);
+        if (--entry.refCnt > 0)
+            return null;
+        contextBuffers.remove(context);
+        return entry.buffers;
+    }
+
+    /**
+     * Отложить удаление всех буферов геометрии до следующего обращения к буферам в их контекстах,
+     * вызывается перед удалением геометрии из кэша
+     */
+    synchronized void releaseAllBuffers() {
+        for (Map.Entry<GLContext, ContextBuffers> entry : contextBuffers.entrySet())
+            deleteLater(entry.getKey(), entry.getValue().buffers);
+        contextBuffers.clear();
+    }
+
+    /**
+     * Отложить удаление буферов до следующего обращения к буферам геометрии в их контексте
+     *
+     * @param context контекст OpenGL
+     * @param buffers буферы
+     */
+    private static void deleteLater(@NotNull GLContext context, @NotNull int[] buffers) {
+        pendingBuffers.compute(context, (key, list) -> {
+            List<int[]> result = list == null ? new ArrayList<>() : list;
+            result.add(buffers);
+            return result;
+        });
+    }
+
+    /**
+     * Удалить из видеокарты буферы текущего контекста OpenGL, которые были отпущены,
+     * пока контекст не был текущим. Вызывается перед разрушением контекста
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public static void deletePendingBuffers(@NotNull GL2 gl2) {
+        List<int[]> buffersList = pendingBuffers.remove(gl2.getContext());
+        if (buffersList == null)
+            return;
+        for (int[] buffers : buffersList)
+            gl2.glDeleteBuffers(3, buffers, 0);
+    }
+
+    /**
+     * Загрузить геометрию в буферы видеокарты текущего контекста
+     *
+     * @param gl2 переменная OpenGL
+     * @return буфер вершин, буфер нормалей и буфер индексов
+     */
+    @NotNull
+    private int[] upload(@NotNull GL2 gl2) {
+        int[] buffers = new int[3];
+        gl2.glGenBuffers(3, buffers, 0);
+
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, buffers[0]);
+        gl2.glBufferData(
+                GL_ARRAY_BUFFER, (long) vertices.length * Float.BYTES,
+                GLBuffers.newDirectFloatBuffer(vertices), GL_STATIC_DRAW
+        );
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, buffers[1]);
+        gl2.glBufferData(
+                GL_ARRAY_BUFFER, (long) normals.length * Float.BYTES,
+                GLBuffers.newDirectFloatBuffer(normals), GL_STATIC_DRAW
+        );
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        gl2.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, buffers[2]);
+        gl2.glBufferData(
+                GL_ELEMENT_ARRAY_BUFFER, (long) indices.length * Integer.BYTES,
+                GLBuffers.newDirectIntBuffer(indices), GL_STATIC_DRAW
+        );
+        gl2.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+        return buffers;
+    }
+
+    /**
+     * Получить массив индексов полигонов (массив нельзя изменять, он общий для всех моделей)
+     *
+     * @return массив индексов полигонов
+     */
+    @NotNull
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Получить массив координат вершин (массив нельзя изменять, он общий для всех моделей)
+     *
+     * @return массив координат вершин
+     */
+    @NotNull
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Получить массив нормалей (массив нельзя изменять, он общий для всех моделей)
+     *
+     * @return массив нормалей
+     */
+    @NotNull
+    public float[] getNormals() {
+        return normals;
+    }
+
+    /**
+     * Получить отступы размера модели
+     *
+     * @return отступы размера модели
+     */
+    @NotNull
+    public CoordinateSystem3d getBorderOffsets() {
+        return borderOffsets;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "ObjMesh{indices.length, vertices.length}"
+     */
+    @Override
+    public String toString() {
+        return "ObjMesh{" + indices.length + ", " + vertices.length + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ObjMesh that = (ObjMesh) o;
+
+        if (hash != that.hash) return false;
+        if (!Arrays.equals(indices, that.indices)) return false;
+        if (!Arrays.equals(vertices, that.vertices)) return false;
+        if (!Arrays.equals(texCoords, that.texCoords)) return false;
+        if (!Arrays.equals(normals, that.normals)) return false;
+        if (!Arrays.equals(triangleCenterCoords, that.triangleCenterCoords)) return false;
+        return borderOffsets.equals(that.borderOffsets);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Рассчитать хэш геометрии
+     *
+     * @return хэш геометрии
+     */
+    private int calculateHashCode() {
+        int result = Arrays.hashCode(indices);
+        result = 31 * result + Arrays.hashCode(vertices);
+        result = 31 * result + Arrays.hashCode(texCoords);
+        result = 31 * result + Arrays.hashCode(normals);
+        result = 31 * result + Arrays.hashCode(triangleCenterCoords);
+        result = 31 * result + borderOffsets.hashCode();
+        return result;
+    }
+}
@@ -1,64 +1,41 @@
 package graphics;
 
 import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLContext;
 import com.sun.istack.NotNull;
-import de.javagl.obj.Obj;
-import de.javagl.obj.ObjData;
-import de.javagl.obj.ObjReader;
-import de.javagl.obj.ObjUtils;
 import jMath.aoklyunin.github.com.coordinateSystem.CoordinateSystem3d;
-import jMath.aoklyunin.github.com.vector.Vector3d;
-import jMath.aoklyunin.github.com.vector.Vector3f;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Arrays;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static com.jogamp.opengl.GL.GL_TRIANGLES;
-import static constants.Constants.RESOURCE_PATH;
+import static com.jogamp.opengl.GL.*;
+import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_NORMAL_ARRAY;
+import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_VERTEX_ARRAY;
 
 /**
  * Класс 3D модели
  */
 public class ObjModel3D {
     /**
-     * массив индексов полигонов
+     * геометрия модели (общая для всех моделей с тем же путём и масштабом)
      */
     @NotNull
-    private int[] indices;
-    /**
-     * массив координат вершин(координаты идут подряд, имеет размерность в три раза бОльшую, чем кол-во вершина)
-     */
-    @NotNull
-    private float[] vertices;
-    /**
-     * массив текстурных координат(координаты идут подряд, имеет размерность в два раза бОльшую, чем кол-во вершина)
-     */
-    @NotNull
-    private float[] texCoords;
-    /**
-     * массив нормалей(координаты идут подряд, имеет размерность в три раза бОльшую, чем кол-во вершина)
-     */
-    @NotNull
-    private float[] normals;
-    /**
-     * отступы размера существа(берутся минимальные и максимальные координаты точек модели)
-     */
-    @NotNull
-    private CoordinateSystem3d borderOffsets;
+    private final ObjMesh mesh;
     /**
      * массив координат вершин
      */
     @NotNull
     private final ObjModel3DParams objModel3DParams;
     /**
-     * координаты центров полигонов
+     * буферы геометрии, захваченные моделью, по контекстам OpenGL
      */
     @NotNull
-    private float[] triangleCenterCoords;
+    private final Map<GLContext, int[]> contextBuffers = new ConcurrentHashMap<>();
+    /**
+     * флаг, что геометрия модели отпущена в кэше
+     */
+    private boolean released;
 
     /**
      * Конструктор класса 3D модели
@@ -67,7 +44,7 @@ public class ObjModel3D {
      */
     public ObjModel3D(@NotNull ObjModel3DParams objModel3DParams) {
         this.objModel3DParams = new ObjModel3DParams(objModel3DParams);
-        load(RESOURCE_PATH + "models/" + objModel3DParams.getPath());
+        this.mesh = MeshCache.acquire(objModel3DParams.getPath(), objModel3DParams.getScale());
     }
 
     /**
@@ -77,118 +54,53 @@ public class ObjModel3D {
      */
     public ObjModel3D(@NotNull ObjModel3D model3D) {
         this.objModel3DParams = new ObjModel3DParams(model3D.objModel3DParams);
-        this.indices = Arrays.copyOf(model3D.indices, model3D.indices.length);
-        this.vertices = Arrays.copyOf(model3D.vertices, model3D.vertices.length);
-        this.texCoords = Arrays.copyOf(model3D.texCoords, model3D.texCoords.length);
-        this.normals = Arrays.copyOf(model3D.normals, model3D.normals.length);
-        this.borderOffsets = new CoordinateSystem3d(model3D.borderOffsets);
-        this.triangleCenterCoords = Arrays.copyOf(model3D.triangleCenterCoords, model3D.triangleCenterCoords.length);
+        this.mesh = MeshCache.acquire(model3D.mesh);
     }
 
     /**
-     * Загрузить модель
+     * Нарисовать модель: при первом рисовании в контексте OpenGL геометрия загружается
+     * в буферы видеокарты и дальше рисуется одним вызовом, если контекст не поддерживает
+     * буферы, модель рисуется по вершинам
      *
-     * @param path путь к модели
+     * @param gl2             переменная OpenGL
      */
-    private void load(@NotNull String path) {
-        try (InputStream inputStream = new FileInputStream(new File(path))) {
-            Obj obj3D = ObjUtils.convertToRenderable(ObjReader.read(inputStream));
-            indices = ObjData.getFaceVertexIndicesArray(obj3D);
-            vertices = ObjData.getVerticesArray(obj3D);
-            texCoords = ObjData.getTexCoordsArray(obj3D, 2);
-            calculateNormals();
-        } catch (IOException e) {
-            e.printStackTrace();
+    public void render(GL2 gl2) {
+        if (!gl2.isFunctionAvailable("glGenBuffers")) {
+            renderImmediate(gl2);
+            return;
         }
+        int[] buffers = getBuffers(gl2);
 
-        // находим минимальные и максимальные координаты
-        Vector3d maxPos = new Vector3d(
-                vertices[0] * objModel3DParams.getScale().x,
-                vertices[1] * objModel3DParams.getScale().y,
-                vertices[2] * objModel3DParams.getScale().z
+        gl2.glColor3d(
+                objModel3DParams.getColor().x,
+                objModel3DParams.getColor().y,
+                objModel3DParams.getColor().z
         );
-        Vector3d minPos = new Vector3d(maxPos);
-        for (int i = 0; i < vertices.length / 3; i++) {
-            vertices[i * 3] *= objModel3DParams.getScale().x;
-            vertices[i * 3 + 1] *= objModel3DParams.getScale().y;
-            vertices[i * 3 + 2] *= objModel3DParams.getScale().z;
-            Vector3d vert = new Vector3d(vertices[i * 3], vertices[i * 3 + 1], vertices[i * 3 + 2]);
-            maxPos = Vector3d.max(maxPos, vert);
-            minPos = Vector3d.min(minPos, vert);
-        }
-        borderOffsets = new CoordinateSystem3d(minPos, maxPos);
+        gl2.glEnableClientState(GL_VERTEX_ARRAY);
+        gl2.glEnableClientState(GL_NORMAL_ARRAY);
+
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, buffers[0]);
+        gl2.glVertexPointer(3, GL_FLOAT, 0, 0L);
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, buffers[1]);
+        gl2.glNormalPointer(GL_FLOAT, 0, 0L);
+        gl2.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, buffers[2]);
+        gl2.glDrawElements(GL_TRIANGLES, mesh.getIndices().length, GL_UNSIGNED_INT, 0L);
+
+        gl2.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        gl2.glDisableClientState(GL_NORMAL_ARRAY);
+        gl2.glDisableClientState(GL_VERTEX_ARRAY);
     }
 
     /**
-     * Рассчитать нормали
-     */
-    private void calculateNormals() {
-        // рассчитываем координаты центров треугольников модели
-        triangleCenterCoords = new float[indices.length];
-        for (int i = 0; i < indices.length / 3; i++) {
-            triangleCenterCoords[i * 3] = (
-                    vertices[indices[i * 3] * 3] + vertices[indices[i * 3 + 1] * 3] + vertices[indices[i * 3 + 2] * 3]
-            ) / 3;
-            triangleCenterCoords[i * 3 + 1] = (
-                    vertices[indices[i * 3] * 3 + 1] + vertices[indices[i * 3 + 1] * 3 + 1] + vertices[indices[i * 3 + 2] * 3 + 1]
-            ) / 3;
-            triangleCenterCoords[i * 3 + 2] = (
-                    vertices[indices[i * 3] * 3 + 2] + vertices[indices[i * 3 + 2] * 3 + 1] + vertices[indices[i * 3 + 2] * 3 + 2]
-            ) / 3;
-        }
-
-        // рассчитываем нормали
-        normals = new float[vertices.length];
-        for (int i = 0; i < vertices.length; i++)
-            normals[i] = 0;
-
-        for (int i = 0; i < indices.length / 3; i++) {
-            Vector3d A = new Vector3d(
-                    vertices[indices[i * 3] * 3],
-                    vertices[indices[i * 3] * 3 + 1],
-                    vertices[indices[i * 3] * 3 + 2]);
-            Vector3d B = new Vector3d(
-                    vertices[indices[i * 3 + 1] * 3],
-                    vertices[indices[i * 3 + 1] * 3 + 1],
-                    vertices[indices[i * 3 + 1] * 3 + 2]);
-            Vector3d C = new Vector3d(
-                    vertices[indices[i * 3 + 2] * 3],
-                    vertices[indices[i * 3 + 2] * 3 + 1],
-                    vertices[indices[i * 3 + 2] * 3 + 2]);
-            Vector3d localNormal =
-                    Vector3d.cross(Vector3d.subtract(B, A), Vector3d.subtract(C, A));
-
-            normals[indices[i * 3] * 3] += localNormal.x;
-            normals[indices[i * 3] * 3 + 1] += localNormal.y;
-            normals[indices[i * 3] * 3 + 2] += localNormal.z;
-
-            normals[indices[i * 3 + 1] * 3] += localNormal.x;
-            normals[indices[i * 3 + 1] * 3 + 1] += localNormal.y;
-            normals[indices[i * 3 + 1] * 3 + 2] += localNormal.z;
-
-            normals[indices[i * 3 + 2] * 3] += localNormal.x;
-            normals[indices[i * 3 + 2] * 3 + 1] += localNormal.y;
-            normals[indices[i * 3 + 2] * 3 + 2] += localNormal.z;
-        }
-
-        for (int i = 0; i < normals.length / 3; i++) {
-            Vector3f tmpVec = new Vector3f(
-                    normals[i * 3], normals[i * 3 + 1], normals[i * 3 + 2]
-            );
-            Vector3f normVec = tmpVec.norm();
-            normals[i * 3] = normVec.x;
-            normals[i * 3 + 1] = normVec.y;
-            normals[i * 3 + 2] = normVec.z;
-        }
-
-    }
-
-    /**
-     * Нарисовать модель
+     * Нарисовать модель по вершинам (для контекстов без поддержки буферов)
      *
      * @param gl2             переменная OpenGL
      */
-    public void render(GL2 gl2) {
+    private void renderImmediate(GL2 gl2) {
+        int[] indices = mesh.getIndices();
+        float[] vertices = mesh.getVertices();
+        float[] normals = mesh.getNormals();
         gl2.glPushMatrix();
 
         gl2.glBegin(GL_TRIANGLES);
@@ -214,6 +126,46 @@ public class ObjModel3D {
         gl2.glPopMatrix();
     }
 
+    /**
+     * Получить буферы геометрии в текущем контексте OpenGL: при первом обращении в контексте
+     * модель захватывает буферы, общие для всех моделей с той же геометрией
+     *
+     * @param gl2 переменная OpenGL
+     * @return буфер вершин, буфер нормалей и буфер индексов
+     */
+    @NotNull
+    int[] getBuffers(@NotNull GL2 gl2) {
+        return contextBuffers.computeIfAbsent(gl2.getContext(), context -> mesh.acquireBuffers(gl2));
+    }
+
+    /**
+     * Отпустить буферы геометрии модели в текущем контексте OpenGL: буферы удаляются
+     * из видеокарты, только когда их отпустила последняя модель с той же геометрией
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void dispose(@NotNull GL2 gl2) {
+        if (contextBuffers.remove(gl2.getContext()) != null)
+            mesh.releaseBuffers(gl2);
+    }
+
+    /**
+     * Отпустить геометрию модели в кэше (после этого модель нельзя использовать).
+     * Буферы, которые модель ещё не отпустила, отпускаются в своих контекстах и удаляются
+     * при следующем обращении к буферам в них, если их больше никто не использует.
+     * Модель захватывает геометрию один раз, поэтому повторные вызовы ничего не делают:
+     * модель может быть доступна из нескольких владельцев, и отпустить её может каждый из них
+     */
+    public void release() {
+        if (released)
+            return;
+        released = true;
+        for (GLContext context : contextBuffers.keySet())
+            mesh.releaseBuffers(context);
+        contextBuffers.clear();
+        MeshCache.release(mesh);
+    }
+
     /**
      * Получить массив индексов полигонов
      *
@@ -221,7 +173,7 @@ public class ObjModel3D {
      */
     @NotNull
     public int[] getIndices() {
-        return indices;
+        return mesh.getIndices();
     }
 
     /**
@@ -231,7 +183,17 @@ public class ObjModel3D {
      */
     @NotNull
     public float[] getVertices() {
-        return vertices;
+        return mesh.getVertices();
+    }
+
+    /**
+     * Получить геометрию модели
+     *
+     * @return геометрия модели
+     */
+    @NotNull
+    public ObjMesh getMesh() {
+        return mesh;
     }
 
     /**
@@ -251,7 +213,7 @@ public class ObjModel3D {
      */
     @NotNull
     public CoordinateSystem3d getBorderOffsets() {
-        return borderOffsets;
+        return mesh.getBorderOffsets();
     }
 
     /**
@@ -272,7 +234,7 @@ public class ObjModel3D {
      * @return строковое представление объекта
      */
     protected String getString() {
-        return indices.length + ", " + vertices.length + ", " + objModel3DParams;
+        return mesh.getIndices().length + ", " + mesh.getVertices().length + ", " + objModel3DParams;
     }
 
 
@@ -283,26 +245,15 @@ public class ObjModel3D {
 
        ObjModel3D that = (ObjModel3D) o;
 
-        if (!Arrays.equals(indices, that.indices)) return false;
-        if (!Arrays.equals(vertices, that.vertices)) return false;
-        if (!Arrays.equals(texCoords, that.texCoords)) return false;
-        if (!Arrays.equals(normals, that.normals)) return false;
-        if (!Objects.equals(borderOffsets, that.borderOffsets))
-            return false;
         if (!Objects.equals(objModel3DParams, that.objModel3DParams))
             return false;
-        return Arrays.equals(triangleCenterCoords, that.triangleCenterCoords);
+        return mesh == that.mesh || mesh.equals(that.mesh);
     }
 
     @Override
     public int hashCode() {
-        int result = Arrays.hashCode(indices);
-        result = 31 * result + Arrays.hashCode(vertices);
-        result = 31 * result + Arrays.hashCode(texCoords);
-        result = 31 * result + Arrays.hashCode(normals);
-        result = 31 * result + (borderOffsets != null ? borderOffsets.hashCode() : 0);
+        int result = mesh.hashCode();
         result = 31 * result + (objModel3DParams != null ? objModel3DParams.hashCode() : 0);
-        result = 31 * result + Arrays.hashCode(triangleCenterCoords);
         return result;
     }
 }
@@ -0,0 +1,104 @@
+package headless;
+
+import com.sun.istack.NotNull;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+
+import java.util.Objects;
+
+/**
+ * Конфигурация одного эксперимента: мир и параметры движения еды, которые задаются
+ * полю еды после загрузки мира
+ */
+public class ExperimentConfig {
+    /**
+     * путь к описанию мира
+     */
+    @NotNull
+    private final String worldPath;
+    /**
+     * скорость движения еды
+     */
+    private final double foodMovingSpeed;
+    /**
+     * размер СК перемещения еды
+     */
+    @NotNull
+    private final Vector3d foodMovingRange;
+
+    /**
+     * Конструктор конфигурации эксперимента
+     *
+     * @param worldPath       путь к описанию мира
+     * @param foodMovingSpeed скорость движения еды
+     * @param foodMovingRange размер СК перемещения еды
+     */
+    public ExperimentConfig(@NotNull String worldPath, double foodMovingSpeed, @NotNull Vector3d foodMovingRange) {
+        this.worldPath = Objects.requireNonNull(worldPath);
+        this.foodMovingSpeed = foodMovingSpeed;
+        this.foodMovingRange = new Vector3d(Objects.requireNonNull(foodMovingRange));
+    }
+
+    /**
+     * Получить путь к описанию мира
+     *
+     * @return путь к описанию мира
+     */
+    @NotNull
+    public String getWorldPath() {
+        return worldPath;
+    }
+
+    /**
+     * Получить скорость движения еды
+     *
+     * @return скорость движения еды
+     */
+    public double getFoodMovingSpeed() {
+        return foodMovingSpeed;
+    }
+
+    /**
+     * Получить размер СК перемещения еды
+     *
+     * @return размер СК перемещения еды
+     */
+    @NotNull
+    public Vector3d getFoodMovingRange() {
+        return foodMovingRange;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "ExperimentConfig{'worldPath', foodMovingSpeed, foodMovingRange}"
+     */
+    @Override
+    public String toString() {
+        return "ExperimentConfig{'" + worldPath + '\'' +
+                ", " + foodMovingSpeed +
+                ", " + foodMovingRange + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ExperimentConfig that = (ExperimentConfig) o;
+
+        if (Double.compare(that.foodMovingSpeed, foodMovingSpeed) != 0) return false;
+        if (!worldPath.equals(that.worldPath)) return false;
+        return foodMovingRange.equals(that.foodMovingRange);
+    }
+
+    @Override
+    public int hashCode() {
+        int result;
+        long temp;
+        result = worldPath.hashCode();
+        temp = Double.doubleToLongBits(foodMovingSpeed);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + foodMovingRange.hashCode();
+        return result;
+    }
+}
@@ -0,0 +1,346 @@
+package headless;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import world.base.World;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static constants.Constants.AVAILABLE_PROCESSOR_CNT;
+
+/**
+ * Параллельный запуск серии экспериментов без графического приложения.
+ * Каждый эксперимент целиком выполняется в одном потоке пула: мир загружается заново
+ * (фабрики отдают каждому миру собственную копию параметров), у его поля еды собственный
+ * фоновый рисовальщик, поэтому эксперименты не разделяют изменяемого состояния.
+ * По завершении всех экспериментов результаты сводятся в один csv-файл
+ */
+public class ExperimentExecutor {
+    /**
+     * логгер
+     */
+    private static final Logger logger = LogManager.getLogger(ExperimentExecutor.class);
+    /**
+     * имя файла сводки в папке результатов
+     */
+    public static final String SUMMARY_FILE_NAME = "summary.csv";
+
+    /**
+     * Результат эксперимента
+     */
+    public static class ExperimentResult {
+        /**
+         * номер эксперимента
+         */
+        private final int id;
+        /**
+         * конфигурация эксперимента
+         */
+        @NotNull
+        private final ExperimentConfig experimentConfig;
+        /**
+         * путь к файлу истории (null, если история не записывалась)
+         */
+        @Nullable
+        private final String storyPath;
+        /**
+         * время выполнения тактов в наносекундах, отсортированное по возрастанию
+         */
+        @NotNull
+        private final long[] sortedTickTimes;
+        /**
+         * суммарное время выполнения тактов в наносекундах
+         */
+        private final long totalTime;
+
+        /**
+         * Конструктор результата эксперимента
+         *
+         * @param id               номер эксперимента
+         * @param experimentConfig конфигурация эксперимента
+         * @param storyPath        путь к файлу истории
+         * @param tickTimes        время выполнения тактов в наносекундах
+         */
+        private ExperimentResult(
+                int id, @NotNull ExperimentConfig experimentConfig, @Nullable String storyPath,
+                @NotNull long[] tickTimes
+        ) {
+            this.id = id;
+            this.experimentConfig = experimentConfig;
+            this.storyPath = storyPath;
+            this.sortedTickTimes = tickTimes.clone();
+            Arrays.sort(sortedTickTimes);
+            long sum = 0;
+            for (long tickTime : tickTimes)
+                sum += tickTime;
+            this.totalTime = sum;
+        }
+
+        /**
+         * Получить перцентиль времени такта
+         *
+         * @param percentile перцентиль от 0 до 100
+         * @return время такта в наносекундах
+         */
+        public long getTickTimePercentile(double percentile) {
+            if (sortedTickTimes.length == 0)
+                return 0;
+            int pos = (int) Math.ceil(percentile / 100 * sortedTickTimes.length) - 1;
+            return sortedTickTimes[Math.max(0, Math.min(pos, sortedTickTimes.length - 1))];
+        }
+
+        /**
+         * Получить кол-во тактов в секунду
+         *
+         * @return кол-во тактов в секунду
+         */
+        public double getTicksPerSecond() {
+            return totalTime == 0 ? 0 : sortedTickTimes.length * 1e9 / totalTime;
+        }
+
+        /**
+         * Получить номер эксперимента
+         *
+         * @return номер эксперимента
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Получить конфигурацию эксперимента
+         *
+         * @return конфигурация эксперимента
+         */
+        @NotNull
+        public ExperimentConfig getExperimentConfig() {
+            return experimentConfig;
+        }
+
+        /**
+         * Получить суммарное время выполнения тактов
+         *
+         * @return суммарное время выполнения тактов в наносекундах
+         */
+        public long getTotalTime() {
+            return totalTime;
+        }
+
+        /**
+         * Строка сводки
+         *
+         * @return строка csv-файла сводки
+         */
+        @NotNull
+        private String toCsvLine() {
+            Vector3d range = experimentConfig.getFoodMovingRange();
+            return String.format(Locale.US, "%d,%s,%f,%f,%f,%f,%d,%.3f,%.3f,%.3f,%.3f,%.1f,%s",
+                    id, experimentConfig.getWorldPath(), experimentConfig.getFoodMovingSpeed(),
+                    range.x, range.y, range.z, sortedTickTimes.length, totalTime / 1e6,
+                    getTickTimePercentile(50) / 1e3, getTickTimePercentile(99) / 1e3,
+                    getTickTimePercentile(100) / 1e3, getTicksPerSecond(),
+                    storyPath == null ? "" : storyPath
+            );
+        }
+
+        /**
+         * Строковое представление объекта вида:
+         *
+         * @return "ExperimentResult{id, experimentConfig, 'storyPath', totalTime}"
+         */
+        @Override
+        public String toString() {
+            return "ExperimentResult{" + id +
+                    ", " + experimentConfig +
+                    ", '" + storyPath + '\'' +
+                    ", " + totalTime + '}';
+        }
+    }
+
+    /**
+     * кол-во потоков пула
+     */
+    private final int workerCnt;
+    /**
+     * ширина виртуального окна
+     */
+    private final int clientWidth;
+    /**
+     * высота виртуального окна
+     */
+    private final int clientHeight;
+
+    /**
+     * Конструктор параллельного запуска экспериментов
+     *
+     * @param workerCnt    кол-во потоков пула
+     * @param clientWidth  ширина виртуального окна
+     * @param clientHeight высота виртуального окна
+     */
+    public ExperimentExecutor(int workerCnt, int clientWidth, int clientHeight) {
+        if (workerCnt < 1)
+            throw new IllegalArgumentException("worker count must be positive: " + workerCnt);
+        this.workerCnt = workerCnt;
+        this.clientWidth = clientWidth;
+        this.clientHeight = clientHeight;
+    }
+
+    /**
+     * Выполнить эксперименты и записать сводку
+     *
+     * @param experimentConfigs конфигурации экспериментов
+     * @param tickCnt           кол-во тактов каждого эксперимента
+     * @param outputDir         папка результатов
+     * @param recordStory       нужно ли записывать истории экспериментов
+     * @return результаты экспериментов в порядке конфигураций
+     */
+    @NotNull
+    public List<ExperimentResult> run(
+            @NotNull List<ExperimentConfig> experimentConfigs, int tickCnt, @NotNull File outputDir,
+            boolean recordStory
+    ) {
+        Objects.requireNonNull(experimentConfigs);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs())
+            throw new IllegalArgumentException("can not create output dir " + outputDir);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(
+                Math.min(workerCnt, Math.max(1, experimentConfigs.size()))
+        );
+        long start = System.nanoTime();
+        List<ExperimentResult> results = new ArrayList<>();
+        try {
+            List<Future<ExperimentResult>> futures = new ArrayList<>();
+            for (int i = 0; i < experimentConfigs.size(); i++) {
+                int id = i;
+                ExperimentConfig experimentConfig = experimentConfigs.get(i);
+                String storyPath = recordStory ?
+                        new File(outputDir, "experiment" + id + "_" + HeadlessRunner.STORY_FILE_NAME).getPath() :
+                        null;
+                futures.add(executorService.submit(() -> runExperiment(id, experimentConfig, tickCnt, storyPath)));
+            }
+            for (Future<ExperimentResult> future : futures)
+                results.add(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("experiments are interrupted\n" + e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("experiment failed\n" + e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        saveSummary(results, new File(outputDir, SUMMARY_FILE_NAME).getPath());
+        logger.info(experimentConfigs.size() + " experiments of " + tickCnt + " ticks on " + workerCnt +
+                " workers in " + elapsed / 1_000_000 + " ms, " +
+                String.format(Locale.US, "%.1f", (double) experimentConfigs.size() * tickCnt * 1e9 / elapsed) +
+                " ticks/s");
+        return results;
+    }
+
+    /**
+     * Выполнить один эксперимент в текущем потоке
+     *
+     * @param id               номер эксперимента
+     * @param experimentConfig конфигурация эксперимента
+     * @param tickCnt          кол-во тактов
+     * @param storyPath        путь к файлу истории (null, если история не записывается)
+     * @return результат эксперимента
+     */
+    @NotNull
+    private ExperimentResult runExperiment(
+            int id, @NotNull ExperimentConfig experimentConfig, int tickCnt, @Nullable String storyPath
+    ) {
+        HeadlessRunner runner = new HeadlessRunner(experimentConfig.getWorldPath(), clientWidth, clientHeight);
+        World world = runner.getWorld();
+        try {
+            world.getRealTimeWorld().getResourceField().getFood3DField()
+                    .setFoodMovingSpeed(experimentConfig.getFoodMovingSpeed());
+            world.getRealTimeWorld().getResourceField().getFood3DField()
+                    .setFoodMovingRange(experimentConfig.getFoodMovingRange());
+            return new ExperimentResult(id, experimentConfig, storyPath, runner.run(tickCnt, storyPath));
+        } finally {
+            world.close();
+        }
+    }
+
+    /**
+     * Сохранить сводку экспериментов в csv-файл
+     *
+     * @param results результаты экспериментов
+     * @param path    путь к файлу
+     */
+    public static void saveSummary(@NotNull List<ExperimentResult> results, @NotNull String path) {
+        try (BufferedWriter writer = Files.newBufferedWriter(new File(Objects.requireNonNull(path)).toPath())) {
+            writer.write("id,worldPath,foodMovingSpeed,rangeX,rangeY,rangeZ,ticks,totalMs," +
+                    "p50TickUs,p99TickUs,maxTickUs,ticksPerSecond,storyPath");
+            writer.newLine();
+            for (ExperimentResult result : results) {
+                writer.write(result.toCsvLine());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new AssertionError("can not write experiments summary to " + path + "\n" + e);
+        }
+    }
+
+    /**
+     * Разобрать список чисел, перечисленных через запятую
+     *
+     * @param value строка
+     * @return числа
+     */
+    @NotNull
+    private static double[] parseValues(@NotNull String value) {
+        return Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray();
+    }
+
+    /**
+     * Главный метод: перебирает все сочетания скоростей и диапазонов движения еды
+     *
+     * @param args путь к миру, кол-во тактов, папка результатов, скорости через запятую,
+     *             размеры диапазона по Y через запятую, [кол-во потоков]
+     */
+    public static void main(String[] args) {
+        if (args.length != 5 && args.length != 6) {
+            System.err.println("usage: ExperimentExecutor <worldPath> <tickCnt> <outputDir> " +
+                    "<speed1,speed2,...> <rangeY1,rangeY2,...> [<workerCnt>]");
+            System.exit(1);
+        }
+        // шрифты подписей мира создаются через AWT, окно при этом не нужно
+        System.setProperty("java.awt.headless", "true");
+
+        String worldPath = args[0];
+        int tickCnt = Integer.parseInt(args[1]);
+        File outputDir = new File(args[2]);
+        double[] speeds = parseValues(args[3]);
+        double[] ranges = parseValues(args[4]);
+        int workerCnt = args.length == 6 ? Integer.parseInt(args[5]) : AVAILABLE_PROCESSOR_CNT;
+
+        List<ExperimentConfig> experimentConfigs = new ArrayList<>();
+        // еда перемещается только вдоль оси Y, поэтому диапазон задаётся только по ней
+        for (double speed : speeds)
+            for (double range : ranges)
+                experimentConfigs.add(new ExperimentConfig(worldPath, speed, new Vector3d(0, range, 0)));
+
+        new ExperimentExecutor(workerCnt, HeadlessRunner.DEFAULT_CLIENT_WIDTH, HeadlessRunner.DEFAULT_CLIENT_HEIGHT)
+                .run(experimentConfigs, tickCnt, outputDir, true);
+        // потоки OpenGL фонового рисования не являются демонами, поэтому завершаем процесс явно
+        System.exit(0);
+    }
+}
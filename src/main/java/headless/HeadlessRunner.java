@@ -0,0 +1,176 @@
+package headless;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import jMath.aoklyunin.github.com.vector.Vector2d;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import world.WorldFactory;
+import world.base.World;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Запуск мира без графического приложения: мир загружается из json, выполняет заданное кол-во
+ * тактов так быстро, как это возможно, история потоково пишется в бинарный файл,
+ * время каждого такта - в csv-файл, а статистика фаз тактов - в ещё один csv-файл.
+ * Swing и окно OpenGL не создаются, поэтому запуск подходит для долгих переборов параметров на серверах.
+ * <p>
+ * Аргументы командной строки: путь к миру, кол-во тактов, папка результатов
+ * и, необязательно, ширина и высота виртуального окна
+ */
+public class HeadlessRunner {
+    /**
+     * логгер
+     */
+    private static final Logger logger = LogManager.getLogger(HeadlessRunner.class);
+    /**
+     * ширина виртуального окна по умолчанию
+     */
+    public static final int DEFAULT_CLIENT_WIDTH = 1920;
+    /**
+     * высота виртуального окна по умолчанию
+     */
+    public static final int DEFAULT_CLIENT_HEIGHT = 1040;
+    /**
+     * имя файла истории в папке результатов
+     */
+    public static final String STORY_FILE_NAME = "story.bin";
+    /**
+     * имя файла времени тактов в папке результатов
+     */
+    public static final String TICK_TIMES_FILE_NAME = "tickTimes.csv";
+    /**
+     * имя файла статистики фаз тактов в папке результатов
+     */
+    public static final String PROFILE_FILE_NAME = "profile.csv";
+    /**
+     * мир
+     */
+    @NotNull
+    private final World world;
+
+    /**
+     * Конструктор запуска мира без графического приложения
+     *
+     * @param world мир
+     */
+    public HeadlessRunner(@NotNull World world) {
+        this.world = Objects.requireNonNull(world);
+    }
+
+    /**
+     * Конструктор запуска мира без графического приложения
+     *
+     * @param worldPath    путь к описанию мира
+     * @param clientWidth  ширина виртуального окна
+     * @param clientHeight высота виртуального окна
+     */
+    public HeadlessRunner(@NotNull String worldPath, int clientWidth, int clientHeight) {
+        this(WorldFactory.loadWorld(
+                Objects.requireNonNull(worldPath), clientWidth, clientHeight,
+                new Vector3d(0, 0, 0), new Vector2d(0.5, 0.5)
+        ));
+    }
+
+    /**
+     * Инициализировать мир и выполнить заданное кол-во тактов
+     *
+     * @param tickCnt   кол-во тактов
+     * @param storyPath путь к бинарному файлу истории (если null, история на диск не пишется)
+     * @return время выполнения каждого такта в наносекундах
+     */
+    @NotNull
+    public long[] run(int tickCnt, @Nullable String storyPath) {
+        if (tickCnt < 0)
+            throw new IllegalArgumentException("tick count must be non-negative: " + tickCnt);
+        world.getRealTimeWorld().init();
+        boolean writeStory = storyPath != null && world.getWorldParams().getStoryWorldParams().isRecordStory();
+        if (storyPath != null && !writeStory)
+            logger.warn("story is not recorded by world " + world.getPath() + ", story file is not written");
+        if (writeStory)
+            world.getStoryWorld().getWorldStory().startStoryFile(storyPath);
+
+        long[] tickTimes = new long[tickCnt];
+        try {
+            for (int i = 0; i < tickCnt; i++) {
+                long start = System.nanoTime();
+                world.getStoryWorld().tick();
+                tickTimes[i] = System.nanoTime() - start;
+            }
+        } finally {
+            if (writeStory)
+                world.getStoryWorld().getWorldStory().closeStoryFile();
+        }
+        return tickTimes;
+    }
+
+    /**
+     * Сохранить время тактов в csv-файл
+     *
+     * @param tickTimes время выполнения каждого такта в наносекундах
+     * @param path      путь к файлу
+     */
+    public static void saveTickTimes(@NotNull long[] tickTimes, @NotNull String path) {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(Objects.requireNonNull(path)))) {
+            writer.write("tick,nanos");
+            writer.newLine();
+            for (int i = 0; i < tickTimes.length; i++) {
+                writer.write(i + "," + tickTimes[i]);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new AssertionError("can not write tick times to " + path + "\n" + e);
+        }
+    }
+
+    /**
+     * Получить мир
+     *
+     * @return мир
+     */
+    @NotNull
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Главный метод
+     *
+     * @param args путь к миру, кол-во тактов, папка результатов, [ширина и высота виртуального окна]
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 && args.length != 5) {
+            System.err.println("usage: HeadlessRunner <worldPath> <tickCnt> <outputDir> [<clientWidth> <clientHeight>]");
+            System.exit(1);
+        }
+        // шрифты подписей мира создаются через AWT, окно при этом не нужно
+        System.setProperty("java.awt.headless", "true");
+
+        String worldPath = args[0];
+        int tickCnt = Integer.parseInt(args[1]);
+        File outputDir = new File(args[2]);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs())
+            throw new IllegalArgumentException("can not create output dir " + outputDir);
+        int clientWidth = args.length == 5 ? Integer.parseInt(args[3]) : DEFAULT_CLIENT_WIDTH;
+        int clientHeight = args.length == 5 ? Integer.parseInt(args[4]) : DEFAULT_CLIENT_HEIGHT;
+
+        HeadlessRunner runner = new HeadlessRunner(worldPath, clientWidth, clientHeight);
+        long start = System.nanoTime();
+        long[] tickTimes = runner.run(tickCnt, new File(outputDir, STORY_FILE_NAME).getPath());
+        long elapsed = System.nanoTime() - start;
+        saveTickTimes(tickTimes, new File(outputDir, TICK_TIMES_FILE_NAME).getPath());
+        runner.getWorld().getWorldInfo().getWorldProfiler().saveCsv(new File(outputDir, PROFILE_FILE_NAME).getPath());
+        runner.getWorld().close();
+
+        logger.info(tickCnt + " ticks of " + worldPath + " in " + elapsed / 1_000_000 + " ms");
+        // потоки OpenGL фонового рисования не являются демонами, поэтому завершаем процесс явно
+        System.exit(0);
+    }
+}
@@ -5,6 +5,7 @@ import offscreen.params.OffscreenRendererParams;
 import offscreen.renderer.GLOffscreenRenderer;
 import offscreen.renderer.OffscreenRenderer;
 import offscreen.renderer.SimpleOffscreenRenderer;
+import offscreen.renderer.SoftwareOffscreenRenderer;
 
 /**
  * Фабрика для работы с фоновыми рисовальщиками
@@ -21,6 +22,8 @@ public class OffscreenRendererFactory {
             return new SimpleOffscreenRenderer(offscreenRendererParams);
         if (offscreenRendererParams.getType().equals(OffscreenRendererParams.OffscreenType.GL))
             return new GLOffscreenRenderer(offscreenRendererParams);
+        if (offscreenRendererParams.getType().equals(OffscreenRendererParams.OffscreenType.SOFTWARE))
+            return new SoftwareOffscreenRenderer(offscreenRendererParams);
         throw new AssertionError("unexpected offscreen renderer type " + offscreenRendererParams);
     }
 
@@ -35,6 +38,8 @@ public class OffscreenRendererFactory {
             return new SimpleOffscreenRenderer((SimpleOffscreenRenderer) offscreenRenderer);
         if (offscreenRenderer.getClass().equals(GLOffscreenRenderer.class))
             return new GLOffscreenRenderer((GLOffscreenRenderer) offscreenRenderer);
+        if (offscreenRenderer.getClass().equals(SoftwareOffscreenRenderer.class))
+            return new SoftwareOffscreenRenderer((SoftwareOffscreenRenderer) offscreenRenderer);
         throw new AssertionError("unexpected offscreen renderer type " + offscreenRenderer.getClass());
 
     }
@@ -17,7 +17,8 @@ import java.util.Objects;
 public class OffscreenRendererParams {
     public enum OffscreenType {
         SIMPLE,
-        GL
+        GL,
+        SOFTWARE
     }
 
     OffscreenType type;
@@ -36,6 +37,19 @@ public class OffscreenRendererParams {
      */
     @NotNull
     private final List<Transform3d> initObjectTransforms;
+    /**
+     * флаг, нужно ли рисовать зрение всех существ в один атлас и читать его за одно обращение
+     */
+    private final boolean batchVision;
+    /**
+     * задержка чтения зрения в тактах: 0 - зрение читается синхронно в том же такте,
+     * 1 - зрение, нарисованное в такте, читается асинхронно и используется в следующем такте
+     */
+    private final int readbackLatency;
+    /**
+     * флаг, нужно ли рисовать все объекты с общей моделью одним инстансным вызовом
+     */
+    private final boolean instancedRendering;
 
     /**
      * Конструктор класса параметров градиентного поля воздействия
@@ -43,18 +57,32 @@ public class OffscreenRendererParams {
      * @param objectModelParams    список параметров моделей
      * @param objectModelIndexes   список индексов моделей для каждого объекта
      * @param initObjectTransforms список трансформаций для каждого объекта
+     * @param batchVision          флаг, нужно ли рисовать зрение всех существ в один атлас
+     *                             и читать его за одно обращение
+     * @param readbackLatency      задержка чтения зрения в тактах (0 или 1), при задержке 1 зрение
+     *                             рассчитывается пакетно
+     * @param instancedRendering   флаг, нужно ли рисовать все объекты с общей моделью
+     *                             одним инстансным вызовом
      */
     @JsonCreator
     public OffscreenRendererParams(
             @NotNull @JsonProperty("type") OffscreenType type,
             @NotNull @JsonProperty("objectModelParams") List<ObjModel3DParams> objectModelParams,
             @NotNull @JsonProperty("objectModelIndexes") List<Integer> objectModelIndexes,
-            @NotNull @JsonProperty("initObjectTransforms") List<Transform3d> initObjectTransforms
+            @NotNull @JsonProperty("initObjectTransforms") List<Transform3d> initObjectTransforms,
+            @JsonProperty("batchVision") boolean batchVision,
+            @JsonProperty("readbackLatency") int readbackLatency,
+            @JsonProperty("instancedRendering") boolean instancedRendering
     ) {
         this.type = Objects.requireNonNull(type);
         this.objectModelParams = Objects.requireNonNull(objectModelParams);
         this.objectModelIndexes = Objects.requireNonNull(objectModelIndexes);
         this.initObjectTransforms = Objects.requireNonNull(initObjectTransforms);
+        this.batchVision = batchVision;
+        if (readbackLatency < 0 || readbackLatency > 1)
+            throw new IllegalArgumentException("readback latency must be 0 or 1, got " + readbackLatency);
+        this.readbackLatency = readbackLatency;
+        this.instancedRendering = instancedRendering;
     }
 
     /**
@@ -67,6 +95,9 @@ public class OffscreenRendererParams {
         this.objectModelParams = params.objectModelParams;
         this.objectModelIndexes = params.objectModelIndexes;
         this.initObjectTransforms = params.initObjectTransforms;
+        this.batchVision = params.batchVision;
+        this.readbackLatency = params.readbackLatency;
+        this.instancedRendering = params.instancedRendering;
     }
 
     /**
@@ -108,6 +139,33 @@ public class OffscreenRendererParams {
         return type;
     }
 
+    /**
+     * Получить флаг, нужно ли рисовать зрение всех существ в один атлас и читать его за одно обращение
+     *
+     * @return флаг, нужно ли рисовать зрение всех существ в один атлас
+     */
+    public boolean isBatchVision() {
+        return batchVision;
+    }
+
+    /**
+     * Получить задержку чтения зрения в тактах
+     *
+     * @return задержка чтения зрения в тактах
+     */
+    public int getReadbackLatency() {
+        return readbackLatency;
+    }
+
+    /**
+     * Получить флаг, нужно ли рисовать все объекты с общей моделью одним инстансным вызовом
+     *
+     * @return флаг, нужно ли рисовать объекты инстансным вызовом
+     */
+    public boolean isInstancedRendering() {
+        return instancedRendering;
+    }
+
     /**
      * Строковое представление объекта вида:
      *
@@ -120,12 +178,14 @@ public class OffscreenRendererParams {
 
     /**
      * Строковое представление объекта вида:
-     * "initObjectTransforms.size(), objectModelIndexes.size()"
+     * "initObjectTransforms.size(), objectModelIndexes.size(), batchVision, readbackLatency,
+     * instancedRendering"
      *
      * @return строковое представление объекта
      */
     protected String getString() {
-        return initObjectTransforms.size() + ", " + objectModelIndexes.size();
+        return initObjectTransforms.size() + ", " + objectModelIndexes.size() + ", " + batchVision + ", " +
+                readbackLatency + ", " + instancedRendering;
     }
 
     @Override
@@ -136,6 +196,9 @@ public class OffscreenRendererParams {
         OffscreenRendererParams that = (OffscreenRendererParams) o;
 
         if (type != that.type) return false;
+        if (batchVision != that.batchVision) return false;
+        if (readbackLatency != that.readbackLatency) return false;
+        if (instancedRendering != that.instancedRendering) return false;
         if (!Objects.equals(objectModelParams, that.objectModelParams))
             return false;
         if (!Objects.equals(objectModelIndexes, that.objectModelIndexes))
@@ -149,6 +212,9 @@ public class OffscreenRendererParams {
         result = 31 * result + (objectModelParams != null ? objectModelParams.hashCode() : 0);
         result = 31 * result + (objectModelIndexes != null ? objectModelIndexes.hashCode() : 0);
         result = 31 * result + (initObjectTransforms != null ? initObjectTransforms.hashCode() : 0);
+        result = 31 * result + (batchVision ? 1 : 0);
+        result = 31 * result + readbackLatency;
+        result = 31 * result + (instancedRendering ? 1 : 0);
         return result;
     }
 }
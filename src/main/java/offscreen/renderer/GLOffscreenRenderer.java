@@ -5,6 +5,8 @@ import com.jogamp.opengl.glu.GLU;
 import com.jogamp.opengl.util.GLBuffers;
 import com.sun.istack.NotNull;
 import graphics.Camera;
+import graphics.ObjMesh;
+import graphics.ObjModel3D;
 import jMath.aoklyunin.github.com.Transform3d;
 import jMath.aoklyunin.github.com.vector.Vector2i;
 import offscreen.params.OffscreenRendererParams;
@@ -15,6 +17,7 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.jogamp.opengl.GL.*;
@@ -37,11 +40,68 @@ public class GLOffscreenRenderer extends OffscreenRenderer {
      */
     @NotNull
     private ByteBuffer glbuffer;
+    /**
+     * массив, в который копируется буфер чтения изображения перед свёрткой по каналам цвета
+     */
+    @NotNull
+    private byte[] pixelBytes;
     /**
      * буфер текстур
      */
     @NotNull
     private int[] texture_map = new int[1];
+    /**
+     * текстура глубины
+     */
+    @NotNull
+    private int[] depthTexture = new int[1];
+    /**
+     * Размер вложений буфера фреймов (может быть больше размера рисования при пакетном рассчёте зрения)
+     */
+    @NotNull
+    private Vector2i attachmentSize;
+    /**
+     * Кольцо буферов пикселей для асинхронного чтения атласа зрения (0, если асинхронное чтение не используется)
+     */
+    @NotNull
+    private int[] pixelPackBuffers = new int[2];
+    /**
+     * Размер каждого из буферов пикселей в байтах
+     */
+    private int pixelPackBufferCapacity;
+    /**
+     * Номер буфера пикселей, в который будет прочитан следующий атлас
+     */
+    private int pixelPackBufferPos;
+    /**
+     * Приёмники зрения, атлас которых прочитан в соответствующий буфер пикселей, но ещё не разобран
+     */
+    @NotNull
+    private List<List<VisionSensor>> pendingSensors = List.of(new ArrayList<>(), new ArrayList<>());
+    /**
+     * Ширина атласа, прочитанного в соответствующий буфер пикселей
+     */
+    @NotNull
+    private int[] pendingAtlasWidths = new int[2];
+    /**
+     * Высота атласа, прочитанного в соответствующий буфер пикселей
+     */
+    @NotNull
+    private int[] pendingAtlasHeights = new int[2];
+    /**
+     * Кол-во столбцов атласа, прочитанного в соответствующий буфер пикселей
+     */
+    @NotNull
+    private int[] pendingColumnCnts = new int[2];
+    /**
+     * Размер ячейки атласа, прочитанного в соответствующий буфер пикселей
+     */
+    @NotNull
+    private Vector2i[] pendingCellSizes = new Vector2i[2];
+    /**
+     * Максимальный размер текстуры, поддерживаемый контекстом
+     */
+    private int maxTextureSize;
     /**
      * Буфер фреймов
      */
@@ -73,19 +133,15 @@ public class GLOffscreenRenderer extends OffscreenRenderer {
     }
 
     /**
-     * Конструктор фонового рисовальзика
+     * Конструктор фонового рисовальзика. Буфер фреймов, текстуры, буферы пикселей и ожидающие
+     * разбора атласы у копии свои: они создаются в отдельном контексте OpenGL при первом
+     * рассчёте зрения копией, поэтому копия не читает и не пишет буферы оригинала
      *
      * @param glOffscreenRenderer фоновый рисовальщик
      */
     public GLOffscreenRenderer(GLOffscreenRenderer glOffscreenRenderer) {
         super(glOffscreenRenderer);
-        this.glbuffer = glOffscreenRenderer.glbuffer;
-        this.texture_map = glOffscreenRenderer.texture_map.clone();
-        this.framebuffer = glOffscreenRenderer.framebuffer.clone();
-        this.renderBuffer = glOffscreenRenderer.renderBuffer.clone();
-        this.glu = glOffscreenRenderer.glu;
-        this.drawable = glOffscreenRenderer.drawable;
-        this.inited = glOffscreenRenderer.inited;
+        this.inited = false;
         this.renderSize = glOffscreenRenderer.renderSize;
     }
 
@@ -108,73 +164,120 @@ public class GLOffscreenRenderer extends OffscreenRenderer {
                 renderSize.x, renderSize.y);
         drawable.display();
 
-        // инициализируем VBO
-        byte[] bbuffer = new byte[renderSize.x * renderSize.y * 3];
-        glbuffer = GLBuffers.newDirectByteBuffer(bbuffer);
-
         GL2 gl2 = drawable.getGL().getGL2();
+        // строки изображения читаются без выравнивания, чтобы буфер был плотным при любой ширине
+        gl2.glPixelStorei(GL_PACK_ALIGNMENT, 1);
+        int[] maxTextureSizeArr = new int[1];
+        gl2.glGetIntegerv(GL_MAX_TEXTURE_SIZE, maxTextureSizeArr, 0);
+        maxTextureSize = maxTextureSizeArr[0];
 
         gl2.glGenTextures(1, texture_map, 0);
-        gl2.glBindTexture(GL_TEXTURE_2D, texture_map[0]);
+        gl2.glGenTextures(1, depthTexture, 0);
+        gl2.glGenRenderbuffers(1, renderBuffer, 0);
+        gl2.glGenFramebuffers(1, framebuffer, 0);
+        allocateAttachments(gl2, renderSize);
+
+        // буферы пикселей нужны только для асинхронного чтения
+        pixelPackBuffers[0] = 0;
+        pixelPackBuffers[1] = 0;
+        pixelPackBufferCapacity = 0;
+        pixelPackBufferPos = 0;
+        pendingSensors.get(0).clear();
+        pendingSensors.get(1).clear();
+        if (getOffscreenRendererParams().getReadbackLatency() > 0 && gl2.isFunctionAvailable("glMapBuffer"))
+            gl2.glGenBuffers(2, pixelPackBuffers, 0);
+
+        int[] buffers = {GL_COLOR_ATTACHMENT0};
+        gl2.glDrawBuffers(1, buffers, 0);
+        inited = true;
+    }
+
+    /**
+     * Инициализировать рисовальщик, если он ещё не инициализирован (копия рисовальщика
+     * создаёт свои объекты OpenGL при первом использовании)
+     */
+    private void checkInited() {
+        if (inited)
+            return;
+        if (renderSize == null)
+            throw new AssertionError("offscreen renderer is used before init");
+        init(renderSize);
+    }
+
+    /**
+     * Выделить память под вложения буфера фреймов и буфер чтения изображения заданного размера
+     *
+     * @param gl2  переменная OpenGl  для рисования
+     * @param size размер вложений
+     */
+    private void allocateAttachments(@NotNull GL2 gl2, @NotNull Vector2i size) {
+        attachmentSize = size;
+        pixelBytes = new byte[size.x * size.y * 3];
+        glbuffer = GLBuffers.newDirectByteBuffer(pixelBytes.length);
 
+        gl2.glBindTexture(GL_TEXTURE_2D, texture_map[0]);
         gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
         gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
         gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_BORDER);
         gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_BORDER);
-
-        gl2.glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, renderSize.x, renderSize.y, 0, GL_RGBA, GL_UNSIGNED_BYTE, null);
-
+        gl2.glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, size.x, size.y, 0, GL_RGBA, GL_UNSIGNED_BYTE, null);
         gl2.glBindTexture(GL_TEXTURE_2D, 0);
 
-        // Build the texture that will serve as the depth attachment for the framebuffer.
-        int[] depth_texture = new int[1];
-        gl2.glGenTextures(1, depth_texture, 0);
-        gl2.glBindTexture(GL_TEXTURE_2D, depth_texture[0]);
+        // текстура, которая будет вложением глубины для буфера фреймов
+        gl2.glBindTexture(GL_TEXTURE_2D, depthTexture[0]);
         gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
         gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
         gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
         gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
-        gl2.glTexImage2D(GL_TEXTURE_2D, 0, GL_DEPTH_COMPONENT, renderSize.x, renderSize.y, 0, GL_DEPTH_COMPONENT, GL_UNSIGNED_BYTE, null);
+        gl2.glTexImage2D(GL_TEXTURE_2D, 0, GL_DEPTH_COMPONENT, size.x, size.y, 0, GL_DEPTH_COMPONENT, GL_UNSIGNED_BYTE, null);
         gl2.glBindTexture(GL_TEXTURE_2D, 0);
 
-        gl2.glGenRenderbuffers(1, renderBuffer, 0);
         gl2.glBindRenderbuffer(GL_RENDERBUFFER, renderBuffer[0]);
-        gl2.glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH24_STENCIL8, renderSize.x, renderSize.y);
+        gl2.glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH24_STENCIL8, size.x, size.y);
         gl2.glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_DEPTH_STENCIL_ATTACHMENT, GL_RENDERBUFFER, renderBuffer[0]);
 
-        gl2.glGenFramebuffers(1, framebuffer, 0);
         gl2.glBindFramebuffer(GL_FRAMEBUFFER, framebuffer[0]);
         gl2.glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, texture_map[0], 0);
-        gl2.glFramebufferTexture2D(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_TEXTURE_2D, depth_texture[0], 0);
+        gl2.glFramebufferTexture2D(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_TEXTURE_2D, depthTexture[0], 0);
+    }
 
-        int[] buffers = {GL_COLOR_ATTACHMENT0};
-        gl2.glDrawBuffers(1, buffers, 0);
-        inited = true;
+    /**
+     * Скопировать прочитанное изображение в массив байт
+     *
+     * @param source буфер с прочитанным изображением
+     * @param width  ширина прочитанного изображения
+     * @param height высота прочитанного изображения
+     */
+    private void copyCurrentBuffer(@NotNull ByteBuffer source, int width, int height) {
+        source.rewind();
+        source.get(pixelBytes, 0, width * height * 3);
     }
 
     /**
-     * Получить буфер цвета пикселей
+     * Записать в буфер зрения максимум по каналам цвета каждого пикселя из прочитанного изображения
      *
-     * @param width  ширина
-     * @param height высота
-     * @return буфер цвета пикселей
+     * @param rowWidth ширина прочитанного изображения
+     * @param left     левая граница области изображения
+     * @param bottom   нижняя граница области изображения
+     * @param width    ширина области
+     * @param height   высота области
+     * @param vision   буфер зрения существа
+     * @param stride   шаг буфера зрения по оси X
      */
-    @NotNull
-    private short[][][] getColorBytesFromCurrentBuffer(int width, int height) {
-        short[][][] result = new short[width][height][3];
-        glbuffer.rewind();
+    private void reduceCurrentBuffer(
+            int rowWidth, int left, int bottom, int width, int height, @NotNull short[] vision, int stride
+    ) {
         for (int h = 0; h < height; h++) {
+            int pos = ((bottom + h) * rowWidth + left) * 3;
             for (int w = 0; w < width; w++) {
-                // The color are the three consecutive bytes, it's like referencing
-                // to the next consecutive array elements, so we got red, green, blue..
-                // red, green, blue, and so on...
-                result[w][h][0] = (short) (glbuffer.get() & 0xFF);
-                result[w][h][1] = (short) (glbuffer.get() & 0xFF);
-                result[w][h][2] = (short) (glbuffer.get() & 0xFF);
+                // цвет задаётся тремя последовательными байтами: red, green, blue
+                int r = pixelBytes[pos] & 0xFF;
+                int g = pixelBytes[pos + 1] & 0xFF;
+                int b = pixelBytes[pos + 2] & 0xFF;
+                vision[w * stride + h] = (short) Math.max(Math.max(r, g), b);
+                pos += 3;
             }
         }
-
-        return result;
     }
 
     /**
@@ -212,17 +315,22 @@ public class GLOffscreenRenderer extends OffscreenRenderer {
     }
 
     /**
-     * Рассчёт буфера зрения
+     * Рассчёт буфера зрения: в каждую ячейку буфера записывается максимум
+     * по каналам цвета соответствующего пикселя
      *
      * @param viewPort     Размер окна
      * @param camera       камера
      * @param transform3ds список трансформаций объектов
-     * @return буфер зрения существа
+     * @param vision       буфер зрения существа, значение пикселя (x, y) записывается
+     *                     в ячейку x * stride + y
+     * @param stride       шаг буфера зрения по оси X (не меньше viewPort.y)
      */
-    @NotNull
-    public short[][][] calculateVisionBuffer(
-            @NotNull Vector2i viewPort, @NotNull Camera camera, @NotNull List<Transform3d> transform3ds
+    @Override
+    public void calculateVision(
+            @NotNull Vector2i viewPort, @NotNull Camera camera, @NotNull List<Transform3d> transform3ds,
+            @NotNull short[] vision, int stride
     ) {
+        checkInited();
         drawable.display();
         GL2 gl2 = drawable.getGL().getGL2();
         drawable.getContext().makeCurrent();
@@ -262,7 +370,8 @@ public class GLOffscreenRenderer extends OffscreenRenderer {
                 viewPort.y,
                 GL_RGB, GL_UNSIGNED_BYTE, glbuffer
         );
-        short[][][] res = getColorBytesFromCurrentBuffer(viewPort.x, viewPort.y);
+        copyCurrentBuffer(glbuffer, viewPort.x, viewPort.y);
+        reduceCurrentBuffer(viewPort.x, 0, 0, viewPort.x, viewPort.y, vision, stride);
 //        saveCurrentBufferToJpg(RESOURCE_PATH+"imgs/testCreatureVision.jpg",
 //                ((Creature3DParams) creature.creatureParams).visionGridSize.x,
 //                ((Creature3DParams) creature.creatureParams).visionGridSize.y
@@ -273,17 +382,175 @@ public class GLOffscreenRenderer extends OffscreenRenderer {
 
         gl2.glBindFramebuffer(GL.GL_DRAW_FRAMEBUFFER, 0);
         drawable.getContext().release();
-        return res;
+    }
+
+    /**
+     * Рассчёт буферов зрения сразу для нескольких приёмников: зрение каждого приёмника рисуется
+     * в свою ячейку одного атласа, после чего атлас читается за одно обращение
+     *
+     * @param visionSensors    приёмники зрения
+     * @param objectTransforms список трансформаций объектов
+     */
+    @Override
+    public void calculateVisions(
+            @NotNull List<? extends VisionSensor> visionSensors, @NotNull List<Transform3d> objectTransforms
+    ) {
+        int sensorCnt = visionSensors.size();
+        if (sensorCnt == 0)
+            return;
+        // размер текстуры известен только после инициализации
+        checkInited();
+        // ячейка атласа вмещает сетку зрения любого из приёмников
+        int cellWidth = 0;
+        int cellHeight = 0;
+        for (VisionSensor visionSensor : visionSensors) {
+            Vector2i visionGridSize = visionSensor.getVisionGridSize();
+            cellWidth = Math.max(cellWidth, visionGridSize.x);
+            cellHeight = Math.max(cellHeight, visionGridSize.y);
+        }
+        Vector2i cellSize = new Vector2i(cellWidth, cellHeight);
+        // раскладываем ячейки атласа по квадратной сетке
+        int columnCnt = (int) Math.ceil(Math.sqrt(sensorCnt));
+        int rowCnt = (sensorCnt + columnCnt - 1) / columnCnt;
+        Vector2i atlasSize = new Vector2i(columnCnt * cellSize.x, rowCnt * cellSize.y);
+        // если атлас не помещается в текстуру, рисуем зрение каждого приёмника по отдельности
+        if (atlasSize.x > maxTextureSize || atlasSize.y > maxTextureSize) {
+            super.calculateVisions(visionSensors, objectTransforms);
+            return;
+        }
+
+        drawable.display();
+        GL2 gl2 = drawable.getGL().getGL2();
+        drawable.getContext().makeCurrent();
+        if (attachmentSize.x < atlasSize.x || attachmentSize.y < atlasSize.y)
+            allocateAttachments(gl2, Vector2i.max(attachmentSize, atlasSize));
+        gl2.glBindFramebuffer(GL_FRAMEBUFFER, framebuffer[0]);
+        gl2.glViewport(0, 0, atlasSize.x, atlasSize.y);
+        gl2.glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+
+        // разрешаем проверку глубины
+        gl2.glEnable(GL_DEPTH_TEST);
+        for (int i = 0; i < sensorCnt; i++) {
+            VisionSensor visionSensor = visionSensors.get(i);
+            Vector2i viewPort = visionSensor.getVisionGridSize();
+            gl2.glViewport((i % columnCnt) * cellSize.x, (i / columnCnt) * cellSize.y, viewPort.x, viewPort.y);
+            gl2.glMatrixMode(GL_PROJECTION);
+            gl2.glLoadIdentity();
+            glu.gluPerspective(45.0, 1.0, 0.1, 500.0);
+            visionSensor.getCamera().gluLookAt(glu);
+            render(gl2, objectTransforms);
+        }
+        // запрещаем проверку глубины
+        gl2.glDisable(GL_DEPTH_TEST);
+
+        // если буферы пикселей доступны, читаем атлас асинхронно
+        if (pixelPackBuffers[0] != 0)
+            readAtlasAsync(gl2, visionSensors, atlasSize, cellSize, columnCnt);
+        else {
+            glbuffer.rewind();
+            gl2.glReadPixels(0, 0, atlasSize.x, atlasSize.y, GL_RGB, GL_UNSIGNED_BYTE, glbuffer);
+            copyCurrentBuffer(glbuffer, atlasSize.x, atlasSize.y);
+            reduceAtlas(visionSensors, atlasSize.x, cellSize, columnCnt);
+        }
+
+        gl2.glBindFramebuffer(GL.GL_DRAW_FRAMEBUFFER, 0);
+        drawable.getContext().release();
+    }
+
+    /**
+     * Асинхронно прочитать атлас зрения в очередной буфер пикселей и разобрать атлас,
+     * прочитанный в предыдущем такте (его чтение к этому моменту уже завершено,
+     * поэтому отображение буфера не блокирует поток симуляции)
+     *
+     * @param gl2           переменная OpenGl  для рисования
+     * @param visionSensors приёмники зрения, нарисованные в атласе
+     * @param atlasSize     размер атласа
+     * @param cellSize      размер ячейки атласа
+     * @param columnCnt     кол-во столбцов атласа
+     */
+    private void readAtlasAsync(
+            @NotNull GL2 gl2, @NotNull List<? extends VisionSensor> visionSensors, @NotNull Vector2i atlasSize,
+            @NotNull Vector2i cellSize, int columnCnt
+    ) {
+        int byteCnt = atlasSize.x * atlasSize.y * 3;
+        // при увеличении атласа содержимое буферов теряется, поэтому ожидающие атласы отбрасываются
+        if (pixelPackBufferCapacity < byteCnt) {
+            for (int i = 0; i < pixelPackBuffers.length; i++) {
+                gl2.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, pixelPackBuffers[i]);
+                gl2.glBufferData(GL2.GL_PIXEL_PACK_BUFFER, byteCnt, null, GL2.GL_STREAM_READ);
+                pendingSensors.get(i).clear();
+            }
+            pixelPackBufferCapacity = byteCnt;
+        }
+        int current = pixelPackBufferPos;
+        int previous = 1 - current;
+
+        gl2.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, pixelPackBuffers[current]);
+        gl2.glReadPixels(0, 0, atlasSize.x, atlasSize.y, GL_RGB, GL_UNSIGNED_BYTE, 0L);
+        pendingSensors.get(current).clear();
+        pendingSensors.get(current).addAll(visionSensors);
+        pendingAtlasWidths[current] = atlasSize.x;
+        pendingAtlasHeights[current] = atlasSize.y;
+        pendingColumnCnts[current] = columnCnt;
+        pendingCellSizes[current] = cellSize;
+
+        if (!pendingSensors.get(previous).isEmpty()) {
+            gl2.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, pixelPackBuffers[previous]);
+            ByteBuffer mapped = gl2.glMapBuffer(GL2.GL_PIXEL_PACK_BUFFER, GL2.GL_READ_ONLY);
+            if (mapped != null) {
+                copyCurrentBuffer(mapped, pendingAtlasWidths[previous], pendingAtlasHeights[previous]);
+                reduceAtlas(
+                        pendingSensors.get(previous), pendingAtlasWidths[previous], pendingCellSizes[previous],
+                        pendingColumnCnts[previous]
+                );
+                gl2.glUnmapBuffer(GL2.GL_PIXEL_PACK_BUFFER);
+            }
+            pendingSensors.get(previous).clear();
+        }
+        gl2.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+        pixelPackBufferPos = previous;
+    }
+
+    /**
+     * Разобрать прочитанный атлас по буферам зрения приёмников
+     *
+     * @param visionSensors приёмники зрения, нарисованные в атласе
+     * @param atlasWidth    ширина атласа
+     * @param cellSize      размер ячейки атласа
+     * @param columnCnt     кол-во столбцов атласа
+     */
+    private void reduceAtlas(
+            @NotNull List<? extends VisionSensor> visionSensors, int atlasWidth, @NotNull Vector2i cellSize,
+            int columnCnt
+    ) {
+        for (int i = 0; i < visionSensors.size(); i++) {
+            VisionSensor visionSensor = visionSensors.get(i);
+            Vector2i viewPort = visionSensor.getVisionGridSize();
+            reduceCurrentBuffer(
+                    atlasWidth, (i % columnCnt) * cellSize.x, (i / columnCnt) * cellSize.y,
+                    viewPort.x, viewPort.y, visionSensor.getSensorGridValues(), visionSensor.getSensorGridStride()
+            );
+        }
     }
 
     /**
      * Разрушение объекта поля
      */
     public void dispose() {
+        if (!inited)
+            return;
         GL2 gl2 = drawable.getGL().getGL2();
+        for (ObjModel3D object : objects)
+            object.dispose(gl2);
+        if (instancedModelRenderer != null)
+            instancedModelRenderer.dispose(gl2);
+        ObjMesh.deletePendingBuffers(gl2);
         gl2.glDeleteFramebuffers(1, framebuffer, 0);
-        gl2.glDeleteFramebuffers(1, texture_map, 0);
-        gl2.glDeleteFramebuffers(1, renderBuffer, 0);
+        gl2.glDeleteTextures(1, texture_map, 0);
+        gl2.glDeleteTextures(1, depthTexture, 0);
+        gl2.glDeleteRenderbuffers(1, renderBuffer, 0);
+        if (pixelPackBuffers[0] != 0)
+            gl2.glDeleteBuffers(2, pixelPackBuffers, 0);
     }
 
     /**
@@ -293,12 +560,7 @@ public class GLOffscreenRenderer extends OffscreenRenderer {
      * @param objectTransforms список матриц трансформаций объектов
      */
     public void render(GL2 gl2, @NotNull List<Transform3d> objectTransforms) {
-        for (int i = 0; i < getObjectCnt(); i++) {
-            gl2.glPushMatrix();
-            objectTransforms.get(i).apply(gl2);
-            objects.get(i).render(gl2);
-            gl2.glPopMatrix();
-        }
+        renderObjects(gl2, objectTransforms);
     }
 
     /**
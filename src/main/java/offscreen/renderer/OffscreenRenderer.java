@@ -2,27 +2,54 @@ package offscreen.renderer;
 
 import com.jogamp.opengl.GL2;
 import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
 import graphics.Camera;
+import graphics.InstancedModelRenderer;
 import graphics.ObjModel3D;
 import jMath.aoklyunin.github.com.Transform3d;
 import jMath.aoklyunin.github.com.vector.Vector2i;
+import jMath.aoklyunin.github.com.vector.Vector3d;
 import offscreen.params.OffscreenRendererParams;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 import static java.util.stream.Collectors.toList;
 
 /**
- * Класс фонового рисовальщика
+ * Класс фонового рисовальщика. Трансформации объектов хранятся в плоских массивах так же,
+ * как в состоянии поля объектов (i-му объекту соответствуют элементы с 3i по 3i+2),
+ * поэтому снимок состояния поля - копирование трёх массивов. Список трансформаций
+ * для рисования поддерживается по массивам
  */
 public abstract class OffscreenRenderer {
+    /**
+     * координаты положений объектов
+     */
+    @NotNull
+    private final double[] positions;
+    /**
+     * углы поворота объектов
+     */
+    @NotNull
+    private final double[] rotations;
+    /**
+     * масштабы объектов
+     */
+    @NotNull
+    private final double[] scales;
     /**
      * список трансформаций для каждого объекта
      */
     @NotNull
     private final List<Transform3d> objectTransforms;
+    /**
+     * флаг, что массивы трансформаций изменились целиком и список трансформаций нужно построить заново
+     */
+    private boolean objectTransformsDirty;
     /**
      * список объектов
      */
@@ -36,6 +63,11 @@ public abstract class OffscreenRenderer {
      * Параметры фонового рисовальщика
      */
     private final OffscreenRendererParams offscreenRendererParams;
+    /**
+     * инстансное рисование объектов (null, если объекты рисуются по одному)
+     */
+    @Nullable
+    protected final InstancedModelRenderer instancedModelRenderer;
     /**
      * Размер рисования
      */
@@ -58,9 +90,19 @@ public abstract class OffscreenRenderer {
         objectTransforms = offscreenRendererParams.getInitObjectTransforms().stream()
                 .map(Transform3d::new)
                 .collect(toList());
+        positions = new double[objectTransforms.size() * 3];
+        rotations = new double[objectTransforms.size() * 3];
+        scales = new double[objectTransforms.size() * 3];
+        for (int i = 0; i < objectTransforms.size(); i++) {
+            write(positions, i, objectTransforms.get(i).getPosition());
+            write(rotations, i, objectTransforms.get(i).getRotation());
+            write(scales, i, objectTransforms.get(i).getScale());
+        }
 
         objectCnt = offscreenRendererParams.getObjectModelIndexes().size();
         this.offscreenRendererParams = offscreenRendererParams;
+        instancedModelRenderer = offscreenRendererParams.isInstancedRendering() ?
+                new InstancedModelRenderer(objects) : null;
     }
 
     /**
@@ -69,10 +111,18 @@ public abstract class OffscreenRenderer {
      * @param offscreenRenderer фоновый рисовальщик
      */
     public OffscreenRenderer(OffscreenRenderer offscreenRenderer) {
+        this.positions = offscreenRenderer.positions.clone();
+        this.rotations = offscreenRenderer.rotations.clone();
+        this.scales = offscreenRenderer.scales.clone();
+        // трансформации строятся по массивам, чтобы копия не разделяла их с оригиналом
         this.objectTransforms = new ArrayList<>(offscreenRenderer.objectTransforms);
+        this.objectTransformsDirty = true;
         this.objects = new ArrayList<>(offscreenRenderer.objects);
         this.objectCnt = offscreenRenderer.objectCnt;
         this.offscreenRendererParams = offscreenRenderer.offscreenRendererParams;
+        // ресурсы инстансного рисования привязаны к контекстам OpenGL, у копии они свои
+        this.instancedModelRenderer = offscreenRenderer.instancedModelRenderer != null ?
+                new InstancedModelRenderer(offscreenRenderer.instancedModelRenderer) : null;
     }
 
     /**
@@ -85,17 +135,37 @@ public abstract class OffscreenRenderer {
     }
 
     /**
-     * Рассчёт буфера зрения
+     * Рассчёт буфера зрения: в каждую ячейку буфера записывается максимум
+     * по каналам цвета соответствующего пикселя
      *
      * @param viewPort         Размер окна
      * @param camera           камера
      * @param objectTransforms список трансформаций объектов
-     * @return буфер зрения существа
+     * @param vision           буфер зрения существа, значение пикселя (x, y) записывается
+     *                         в ячейку x * stride + y
+     * @param stride           шаг буфера зрения по оси X (не меньше viewPort.y)
      */
-    public abstract short[][][] calculateVisionBuffer(
-            @NotNull Vector2i viewPort, @NotNull Camera camera, @NotNull List<Transform3d> objectTransforms
+    public abstract void calculateVision(
+            @NotNull Vector2i viewPort, @NotNull Camera camera, @NotNull List<Transform3d> objectTransforms,
+            @NotNull short[] vision, int stride
     );
 
+    /**
+     * Рассчёт буферов зрения сразу для нескольких приёмников
+     *
+     * @param visionSensors    приёмники зрения
+     * @param objectTransforms список трансформаций объектов
+     */
+    public void calculateVisions(
+            @NotNull List<? extends VisionSensor> visionSensors, @NotNull List<Transform3d> objectTransforms
+    ) {
+        for (VisionSensor visionSensor : visionSensors)
+            calculateVision(
+                    visionSensor.getVisionGridSize(), visionSensor.getCamera(), objectTransforms,
+                    visionSensor.getSensorGridValues(), visionSensor.getSensorGridStride()
+            );
+    }
+
     /**
      * Рисование поля
      *
@@ -104,6 +174,33 @@ public abstract class OffscreenRenderer {
      */
     public abstract void render(GL2 gl2, @NotNull List<Transform3d> objectTransforms);
 
+    /**
+     * Нарисовать объекты: если инстансное рисование включено и поддерживается контекстом,
+     * объекты с общей моделью рисуются одним вызовом, иначе каждый объект рисуется отдельно
+     *
+     * @param gl2              переменная OpenGl  для рисования
+     * @param objectTransforms список матриц трансформаций объектов
+     */
+    protected void renderObjects(GL2 gl2, @NotNull List<Transform3d> objectTransforms) {
+        if (instancedModelRenderer != null && instancedModelRenderer.render(gl2, objectTransforms))
+            return;
+        for (int i = 0; i < getObjectCnt(); i++) {
+            gl2.glPushMatrix();
+            objectTransforms.get(i).apply(gl2);
+            objects.get(i).render(gl2);
+            gl2.glPopMatrix();
+        }
+    }
+
+    /**
+     * Отпустить геометрию моделей объектов в кэше, вызывается при выгрузке мира
+     * (после этого рисовальщик нельзя использовать)
+     */
+    public void release() {
+        for (ObjModel3D object : objects)
+            object.release();
+    }
+
     /**
      * Получить кол-во объектов
      *
@@ -123,12 +220,110 @@ public abstract class OffscreenRenderer {
     }
 
     /**
-     * Получить  список трансформаций объектов
+     * Получить  список трансформаций объектов. Список и трансформации в нём изменять нельзя:
+     * трансформации задаются методами рисовальщика, которые меняют и плоские массивы
      *
      * @return список трансформаций объектов
      */
     public List<Transform3d> getObjectTransforms() {
-        return objectTransforms;
+        if (objectTransformsDirty) {
+            for (int i = 0; i < objectTransforms.size(); i++)
+                objectTransforms.set(i, new Transform3d(
+                        positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2],
+                        rotations[i * 3], rotations[i * 3 + 1], rotations[i * 3 + 2],
+                        scales[i * 3], scales[i * 3 + 1], scales[i * 3 + 2]
+                ));
+            objectTransformsDirty = false;
+        }
+        return Collections.unmodifiableList(objectTransforms);
+    }
+
+    /**
+     * Записать положение объекта в заданный вектор
+     *
+     * @param i      номер объекта
+     * @param target вектор, в который будет записано положение
+     * @return вектор, в который записано положение
+     */
+    @NotNull
+    public Vector3d getObjectPosition(int i, @NotNull Vector3d target) {
+        target.x = positions[i * 3];
+        target.y = positions[i * 3 + 1];
+        target.z = positions[i * 3 + 2];
+        return target;
+    }
+
+    /**
+     * Задать положение объекта
+     *
+     * @param i        номер объекта
+     * @param position положение
+     */
+    public void setObjectPosition(int i, @NotNull Vector3d position) {
+        write(positions, i, position);
+        if (!objectTransformsDirty)
+            objectTransforms.get(i).setPosition(new Vector3d(position));
+    }
+
+    /**
+     * Скопировать трансформации всех объектов в плоские массивы
+     *
+     * @param positions массив для координат положений объектов
+     * @param rotations массив для углов поворота объектов
+     * @param scales    массив для масштабов объектов
+     */
+    public void copyObjectTransforms(
+            @NotNull double[] positions, @NotNull double[] rotations, @NotNull double[] scales
+    ) {
+        checkLength(positions, rotations, scales);
+        System.arraycopy(this.positions, 0, positions, 0, positions.length);
+        System.arraycopy(this.rotations, 0, rotations, 0, rotations.length);
+        System.arraycopy(this.scales, 0, scales, 0, scales.length);
+    }
+
+    /**
+     * Задать трансформации всех объектов плоскими массивами (массивы копируются)
+     *
+     * @param positions координаты положений объектов
+     * @param rotations углы поворота объектов
+     * @param scales    масштабы объектов
+     */
+    public void setObjectTransforms(
+            @NotNull double[] positions, @NotNull double[] rotations, @NotNull double[] scales
+    ) {
+        checkLength(positions, rotations, scales);
+        System.arraycopy(positions, 0, this.positions, 0, positions.length);
+        System.arraycopy(rotations, 0, this.rotations, 0, rotations.length);
+        System.arraycopy(scales, 0, this.scales, 0, scales.length);
+        objectTransformsDirty = true;
+    }
+
+    /**
+     * Проверить, что длины массивов трансформаций совпадают с длинами массивов рисовальщика
+     *
+     * @param positions координаты положений объектов
+     * @param rotations углы поворота объектов
+     * @param scales    масштабы объектов
+     */
+    private void checkLength(@NotNull double[] positions, @NotNull double[] rotations, @NotNull double[] scales) {
+        if (positions.length != this.positions.length || rotations.length != this.rotations.length ||
+                scales.length != this.scales.length)
+            throw new IllegalArgumentException(
+                    "object transform arrays length " + positions.length + " does not match " + this.positions.length
+            );
+    }
+
+    /**
+     * Записать вектор в плоский массив
+     *
+     * @param target массив
+     * @param i      номер объекта
+     * @param vector вектор
+     */
+    private static void write(@NotNull double[] target, int i, @NotNull Vector3d vector) {
+        target[i * 3] = vector.x;
+        target[i * 3 + 1] = vector.y;
+        target[i * 3 + 2] = vector.z;
     }
 
     /**
@@ -159,8 +354,9 @@ public abstract class OffscreenRenderer {
         OffscreenRenderer that = (OffscreenRenderer) o;
 
         if (objectCnt != that.objectCnt) return false;
-        if (!Objects.equals(objectTransforms, that.objectTransforms))
-            return false;
+        if (!Arrays.equals(positions, that.positions)) return false;
+        if (!Arrays.equals(rotations, that.rotations)) return false;
+        if (!Arrays.equals(scales, that.scales)) return false;
         if (!Objects.equals(objects, that.objects)) return false;
         if (!Objects.equals(offscreenRendererParams, that.offscreenRendererParams))
             return false;
@@ -169,7 +365,9 @@ public abstract class OffscreenRenderer {
 
     @Override
     public int hashCode() {
-        int result = objectTransforms != null ? objectTransforms.hashCode() : 0;
+        int result = Arrays.hashCode(positions);
+        result = 31 * result + Arrays.hashCode(rotations);
+        result = 31 * result + Arrays.hashCode(scales);
         result = 31 * result + (objects != null ? objects.hashCode() : 0);
         result = 31 * result + objectCnt;
         result = 31 * result + (offscreenRendererParams != null ? offscreenRendererParams.hashCode() : 0);
@@ -7,6 +7,7 @@ import jMath.aoklyunin.github.com.Transform3d;
 import jMath.aoklyunin.github.com.vector.Vector2i;
 import offscreen.params.OffscreenRendererParams;
 
+import java.util.Arrays;
 import java.util.List;
 
 
@@ -42,18 +43,23 @@ public class SimpleOffscreenRenderer extends OffscreenRenderer {
     }
 
     /**
-     * Рассчёт буфера зрения
+     * Рассчёт буфера зрения: в каждую ячейку буфера записывается максимум
+     * по каналам цвета соответствующего пикселя
      *
      * @param viewPort         Размер окна
      * @param camera           камера
      * @param objectTransforms список трансформаций объектов
-     * @return буфер зрения существа
+     * @param vision           буфер зрения существа, значение пикселя (x, y) записывается
+     *                         в ячейку x * stride + y
+     * @param stride           шаг буфера зрения по оси X (не меньше viewPort.y)
      */
     @Override
-    public short[][][] calculateVisionBuffer(
-            @NotNull Vector2i viewPort, @NotNull Camera camera, @NotNull List<Transform3d> objectTransforms
+    public void calculateVision(
+            @NotNull Vector2i viewPort, @NotNull Camera camera, @NotNull List<Transform3d> objectTransforms,
+            @NotNull short[] vision, int stride
     ) {
-        short[][][] res = new short[viewPort.x][viewPort.y][3];
+        for (int posX = 0; posX < viewPort.x; posX++)
+            Arrays.fill(vision, posX * stride, posX * stride + viewPort.y, (short) 0);
 
         for (int i = 0; i < getObjectCnt(); i++) {
             int centerX = (int) ((objectTransforms.get(i).getPosition().y + 1.4) / 2.4 * viewPort.x);
@@ -63,16 +69,11 @@ public class SimpleOffscreenRenderer extends OffscreenRenderer {
                 double angle = Math.asin((double) (posY - centerY) / rad);
                 int rX = (int) (rad * Math.cos(angle));
                 for (int posX = centerX - rX; posX <= centerX + rX; posX++) {
-                    if (posX < viewPort.x && posX >= 0) {
-                        res[posX][posY][0] = 255;
-                        res[posX][posY][1] = 255;
-                        res[posX][posY][2] = 255;
-                    }
+                    if (posX < viewPort.x && posX >= 0)
+                        vision[posX * stride + posY] = 255;
                 }
             }
         }
-
-        return res;
     }
 
     /**
@@ -83,12 +84,7 @@ public class SimpleOffscreenRenderer extends OffscreenRenderer {
      */
     @Override
     public void render(GL2 gl2, List<Transform3d> objectTransforms) {
-        for (int i = 0; i < getObjectCnt(); i++) {
-            gl2.glPushMatrix();
-            objectTransforms.get(i).apply(gl2);
-            objects.get(i).render(gl2);
-            gl2.glPopMatrix();
-        }
+        renderObjects(gl2, objectTransforms);
     }
 
     /**
@@ -0,0 +1,350 @@
+package offscreen.renderer;
+
+import com.jogamp.opengl.GL2;
+import com.sun.istack.NotNull;
+import graphics.Camera;
+import graphics.ObjModel3D;
+import jMath.aoklyunin.github.com.Transform3d;
+import jMath.aoklyunin.github.com.vector.Vector2i;
+import jMath.aoklyunin.github.com.vector.Vector3d;
+import offscreen.params.OffscreenRendererParams;
+import org.joml.Matrix4d;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Класс программного фонового рисовальщика: треугольники моделей растеризуются на процессоре
+ * с буфером глубины, поэтому для рассчёта зрения не нужен контекст OpenGL.
+ * Проекция и камера задаются так же, как в {@link GLOffscreenRenderer}, экран делится на плитки,
+ * которые растеризуются параллельно
+ */
+public class SoftwareOffscreenRenderer extends OffscreenRenderer {
+    /**
+     * Размер стороны плитки в пикселях
+     */
+    private static final int TILE_SIZE = 16;
+    /**
+     * Угол обзора по вертикали в градусах
+     */
+    private static final double FOV_Y = 45.0;
+    /**
+     * Ближняя плоскость отсечения
+     */
+    private static final double NEAR = 0.1;
+    /**
+     * Дальняя плоскость отсечения
+     */
+    private static final double FAR = 500.0;
+    /**
+     * Кол-во чисел на один треугольник в экранных координатах: x, y, глубина для трёх вершин и значение цвета
+     */
+    private static final int TRIANGLE_STRIDE = 10;
+
+    /**
+     * Буфер глубины
+     */
+    @NotNull
+    private float[] depthBuffer;
+    /**
+     * Треугольники текущего кадра в экранных координатах
+     */
+    @NotNull
+    private float[] triangles;
+    /**
+     * Кол-во треугольников текущего кадра
+     */
+    private int triangleCnt;
+    /**
+     * Матрица проекции и камеры
+     */
+    @NotNull
+    private final Matrix4d viewProjection;
+    /**
+     * Матрица полной трансформации объекта
+     */
+    @NotNull
+    private final Matrix4d modelViewProjection;
+    /**
+     * Вершины многоугольника, полученного при отсечении треугольника ближней плоскостью
+     * (не больше четырёх вершин по четыре координаты)
+     */
+    @NotNull
+    private final double[] clipPolygon;
+    /**
+     * Вершины треугольника в пространстве отсечения
+     */
+    @NotNull
+    private final double[] clipTriangle;
+
+    /**
+     * Конструктор фонового рисовальзика
+     *
+     * @param offscreenRendererParams параметры фонового рисовальщика
+     */
+    public SoftwareOffscreenRenderer(OffscreenRendererParams offscreenRendererParams) {
+        super(offscreenRendererParams);
+        depthBuffer = new float[0];
+        triangles = new float[TRIANGLE_STRIDE * 1024];
+        viewProjection = new Matrix4d();
+        modelViewProjection = new Matrix4d();
+        clipPolygon = new double[4 * 4];
+        clipTriangle = new double[3 * 4];
+    }
+
+    /**
+     * Конструктор фонового рисовальзика
+     *
+     * @param softwareOffscreenRenderer фоновый рисовальщик
+     */
+    public SoftwareOffscreenRenderer(SoftwareOffscreenRenderer softwareOffscreenRenderer) {
+        super(softwareOffscreenRenderer);
+        this.renderSize = softwareOffscreenRenderer.renderSize;
+        depthBuffer = new float[softwareOffscreenRenderer.depthBuffer.length];
+        triangles = new float[softwareOffscreenRenderer.triangles.length];
+        viewProjection = new Matrix4d();
+        modelViewProjection = new Matrix4d();
+        clipPolygon = new double[4 * 4];
+        clipTriangle = new double[3 * 4];
+    }
+
+    /**
+     * Инициализация рисовальщика
+     *
+     * @param renderSize размер окна
+     */
+    @Override
+    public void init(Vector2i renderSize) {
+        super.init(renderSize);
+        depthBuffer = new float[renderSize.x * renderSize.y];
+    }
+
+    /**
+     * Рассчёт буфера зрения: в каждую ячейку буфера записывается максимум
+     * по каналам цвета соответствующего пикселя
+     *
+     * @param viewPort         Размер окна
+     * @param camera           камера
+     * @param objectTransforms список трансформаций объектов
+     * @param vision           буфер зрения существа, значение пикселя (x, y) записывается
+     *                         в ячейку x * stride + y
+     * @param stride           шаг буфера зрения по оси X (не меньше viewPort.y)
+     */
+    @Override
+    public void calculateVision(
+            @NotNull Vector2i viewPort, @NotNull Camera camera, @NotNull List<Transform3d> objectTransforms,
+            @NotNull short[] vision, int stride
+    ) {
+        if (depthBuffer.length < viewPort.x * viewPort.y)
+            depthBuffer = new float[viewPort.x * viewPort.y];
+
+        Vector3d pos = camera.getPos();
+        Vector3d dir = camera.getDir();
+        Vector3d up = camera.getUp();
+        viewProjection.identity()
+                .perspective(Math.toRadians(FOV_Y), 1.0, NEAR, FAR)
+                .lookAt(
+                        pos.x, pos.y, pos.z,
+                        pos.x + dir.x, pos.y + dir.y, pos.z + dir.z,
+                        up.x, up.y, up.z
+                );
+
+        triangleCnt = 0;
+        for (int i = 0; i < getObjectCnt(); i++)
+            addObject(objects.get(i), objectTransforms.get(i), viewPort);
+
+        int tileCntX = (viewPort.x + TILE_SIZE - 1) / TILE_SIZE;
+        int tileCntY = (viewPort.y + TILE_SIZE - 1) / TILE_SIZE;
+        int tileCnt = tileCntX * tileCntY;
+        if (tileCnt == 1)
+            rasterizeTile(0, 0, viewPort, vision, stride);
+        else
+            IntStream.range(0, tileCnt).parallel().forEach(
+                    tile -> rasterizeTile(
+                            (tile % tileCntX) * TILE_SIZE, (tile / tileCntX) * TILE_SIZE, viewPort, vision, stride
+                    )
+            );
+    }
+
+    /**
+     * Перевести треугольники объекта в экранные координаты и добавить их в список треугольников кадра
+     *
+     * @param model     модель объекта
+     * @param transform трансформация объекта
+     * @param viewPort  размер окна
+     */
+    private void addObject(@NotNull ObjModel3D model, @NotNull Transform3d transform, @NotNull Vector2i viewPort) {
+        Vector3d position = transform.getPosition();
+        Vector3d rotation = transform.getRotation();
+        Vector3d scale = transform.getScale();
+        // порядок преобразований совпадает с применением трансформации в OpenGL
+        modelViewProjection.set(viewProjection)
+                .translate(position.x, position.y, position.z)
+                .rotateX(Math.toRadians(rotation.x))
+                .rotateY(Math.toRadians(rotation.y))
+                .rotateZ(Math.toRadians(rotation.z))
+                .scale(scale.x, scale.y, scale.z);
+
+        Vector3d color = model.getObjModel3DParams().getColor();
+        // освещение при рассчёте зрения выключено, поэтому значение пикселя определяется только цветом модели
+        long maxChannel = Math.round(Math.max(Math.max(color.x, color.y), color.z) * 255);
+        float value = Math.min(255, Math.max(0, maxChannel));
+
+        int[] indices = model.getIndices();
+        float[] vertices = model.getVertices();
+        for (int i = 0; i + 2 < indices.length; i += 3) {
+            for (int j = 0; j < 3; j++) {
+                int vertex = indices[i + j] * 3;
+                double x = vertices[vertex];
+                double y = vertices[vertex + 1];
+                double z = vertices[vertex + 2];
+                clipTriangle[j * 4] = modelViewProjection.m00() * x + modelViewProjection.m10() * y +
+                        modelViewProjection.m20() * z + modelViewProjection.m30();
+                clipTriangle[j * 4 + 1] = modelViewProjection.m01() * x + modelViewProjection.m11() * y +
+                        modelViewProjection.m21() * z + modelViewProjection.m31();
+                clipTriangle[j * 4 + 2] = modelViewProjection.m02() * x + modelViewProjection.m12() * y +
+                        modelViewProjection.m22() * z + modelViewProjection.m32();
+                clipTriangle[j * 4 + 3] = modelViewProjection.m03() * x + modelViewProjection.m13() * y +
+                        modelViewProjection.m23() * z + modelViewProjection.m33();
+            }
+            int polygonSize = clipByNearPlane();
+            for (int j = 1; j + 1 < polygonSize; j++)
+                addScreenTriangle(0, j, j + 1, value, viewPort);
+        }
+    }
+
+    /**
+     * Отсечь треугольник ближней плоскостью (z + w >= 0)
+     *
+     * @return кол-во вершин получившегося многоугольника
+     */
+    private int clipByNearPlane() {
+        int polygonSize = 0;
+        for (int j = 0; j < 3; j++) {
+            int a = j * 4;
+            int b = ((j + 1) % 3) * 4;
+            double distA = clipTriangle[a + 2] + clipTriangle[a + 3];
+            double distB = clipTriangle[b + 2] + clipTriangle[b + 3];
+            if (distA >= 0) {
+                System.arraycopy(clipTriangle, a, clipPolygon, polygonSize * 4, 4);
+                polygonSize++;
+            }
+            if ((distA >= 0) != (distB >= 0)) {
+                double t = distA / (distA - distB);
+                for (int k = 0; k < 4; k++)
+                    clipPolygon[polygonSize * 4 + k] =
+                            clipTriangle[a + k] + t * (clipTriangle[b + k] - clipTriangle[a + k]);
+                polygonSize++;
+            }
+        }
+        return polygonSize;
+    }
+
+    /**
+     * Добавить треугольник из вершин отсечённого многоугольника в список треугольников кадра
+     *
+     * @param a        номер первой вершины
+     * @param b        номер второй вершины
+     * @param c        номер третьей вершины
+     * @param value    значение цвета треугольника
+     * @param viewPort размер окна
+     */
+    private void addScreenTriangle(int a, int b, int c, float value, @NotNull Vector2i viewPort) {
+        if (triangles.length < (triangleCnt + 1) * TRIANGLE_STRIDE)
+            triangles = Arrays.copyOf(triangles, triangles.length * 2);
+        int offset = triangleCnt * TRIANGLE_STRIDE;
+        int[] vertexNums = {a, b, c};
+        for (int vertexNum : vertexNums) {
+            int v = vertexNum * 4;
+            double w = clipPolygon[v + 3];
+            triangles[offset++] = (float) ((clipPolygon[v] / w + 1) * 0.5 * viewPort.x);
+            triangles[offset++] = (float) ((clipPolygon[v + 1] / w + 1) * 0.5 * viewPort.y);
+            triangles[offset++] = (float) ((clipPolygon[v + 2] / w + 1) * 0.5);
+        }
+        triangles[offset] = value;
+        triangleCnt++;
+    }
+
+    /**
+     * Растеризовать треугольники кадра в пределах одной плитки
+     *
+     * @param left     левая граница плитки
+     * @param bottom   нижняя граница плитки
+     * @param viewPort размер окна
+     * @param vision   буфер зрения существа
+     * @param stride   шаг буфера зрения по оси X
+     */
+    private void rasterizeTile(int left, int bottom, @NotNull Vector2i viewPort, @NotNull short[] vision, int stride) {
+        int right = Math.min(left + TILE_SIZE, viewPort.x);
+        int top = Math.min(bottom + TILE_SIZE, viewPort.y);
+        for (int x = left; x < right; x++) {
+            Arrays.fill(vision, x * stride + bottom, x * stride + top, (short) 0);
+            for (int y = bottom; y < top; y++)
+                depthBuffer[y * viewPort.x + x] = 1;
+        }
+
+        for (int i = 0; i < triangleCnt; i++) {
+            int offset = i * TRIANGLE_STRIDE;
+            float x0 = triangles[offset], y0 = triangles[offset + 1], z0 = triangles[offset + 2];
+            float x1 = triangles[offset + 3], y1 = triangles[offset + 4], z1 = triangles[offset + 5];
+            float x2 = triangles[offset + 6], y2 = triangles[offset + 7], z2 = triangles[offset + 8];
+            float area = (x1 - x0) * (y2 - y0) - (y1 - y0) * (x2 - x0);
+            if (area == 0)
+                continue;
+
+            int minX = Math.max(left, (int) Math.floor(Math.min(x0, Math.min(x1, x2))));
+            int maxX = Math.min(right - 1, (int) Math.ceil(Math.max(x0, Math.max(x1, x2))));
+            int minY = Math.max(bottom, (int) Math.floor(Math.min(y0, Math.min(y1, y2))));
+            int maxY = Math.min(top - 1, (int) Math.ceil(Math.max(y0, Math.max(y1, y2))));
+            if (minX > maxX || minY > maxY)
+                continue;
+
+            short value = (short) triangles[offset + 9];
+            for (int y = minY; y <= maxY; y++) {
+                float py = y + 0.5f;
+                for (int x = minX; x <= maxX; x++) {
+                    float px = x + 0.5f;
+                    // барицентрические координаты центра пикселя
+                    float b0 = ((x1 - px) * (y2 - py) - (y1 - py) * (x2 - px)) / area;
+                    float b1 = ((x2 - px) * (y0 - py) - (y2 - py) * (x0 - px)) / area;
+                    float b2 = 1 - b0 - b1;
+                    if (b0 < 0 || b1 < 0 || b2 < 0)
+                        continue;
+                    float depth = b0 * z0 + b1 * z1 + b2 * z2;
+                    int depthPos = y * viewPort.x + x;
+                    if (depth < 0 || depth > 1 || depth >= depthBuffer[depthPos])
+                        continue;
+                    depthBuffer[depthPos] = depth;
+                    vision[x * stride + y] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Рисование поля
+     *
+     * @param gl2              переменная OpenGl  для рисования
+     * @param objectTransforms список матриц трансформаций объектов
+     */
+    @Override
+    public void render(GL2 gl2, @NotNull List<Transform3d> objectTransforms) {
+        for (int i = 0; i < getObjectCnt(); i++) {
+            gl2.glPushMatrix();
+            objectTransforms.get(i).apply(gl2);
+            objects.get(i).render(gl2);
+            gl2.glPopMatrix();
+        }
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "SoftwareOffscreenRenderer{getString()}"
+     */
+    @Override
+    public String toString() {
+        return "SoftwareOffscreenRenderer{" + getString() + '}';
+    }
+}
@@ -0,0 +1,42 @@
+package offscreen.renderer;
+
+import com.sun.istack.NotNull;
+import graphics.Camera;
+import jMath.aoklyunin.github.com.vector.Vector2i;
+
+/**
+ * Приёмник зрения, для которого фоновый рисовальщик рассчитывает буфер зрения
+ */
+public interface VisionSensor {
+    /**
+     * Получить размер решётки зрения
+     *
+     * @return размер решётки зрения
+     */
+    @NotNull
+    Vector2i getVisionGridSize();
+
+    /**
+     * Получить камеру
+     *
+     * @return камера
+     */
+    @NotNull
+    Camera getCamera();
+
+    /**
+     * Получить буфер, в который записывается зрение
+     * (значение пикселя (x, y) хранится в ячейке x * getSensorGridStride() + y)
+     *
+     * @return буфер зрения
+     */
+    @NotNull
+    short[] getSensorGridValues();
+
+    /**
+     * Получить шаг буфера зрения по оси X
+     *
+     * @return шаг буфера зрения по оси X
+     */
+    int getSensorGridStride();
+}
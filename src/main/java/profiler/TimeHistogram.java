@@ -0,0 +1,186 @@
+package profiler;
+
+import com.sun.istack.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Гистограмма длительностей в наносекундах с логарифмическими корзинами (как в HdrHistogram):
+ * значения меньше {@link #SUB_BUCKET_CNT} хранятся точно, дальше каждый интервал от 2^k до 2^(k+1)
+ * делится на {@link #SUB_BUCKET_CNT} / 2 равных корзин, поэтому относительная погрешность перцентилей
+ * не превышает 2 / {@link #SUB_BUCKET_CNT}, а запись значения не выделяет память.
+ * Максимум и сумма хранятся точно
+ */
+public class TimeHistogram {
+    /**
+     * кол-во бит номера корзины внутри интервала
+     */
+    private static final int SUB_BUCKET_BITS = 7;
+    /**
+     * кол-во точно хранимых значений
+     */
+    public static final int SUB_BUCKET_CNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * кол-во корзин в каждом интервале от 2^k до 2^(k+1)
+     */
+    private static final int HALF_SUB_BUCKET_CNT = SUB_BUCKET_CNT / 2;
+    /**
+     * кол-во бит наибольшего различимого значения (2^40 нс - больше 18 минут),
+     * бОльшие значения попадают в последнюю корзину
+     */
+    private static final int MAX_VALUE_BITS = 40;
+    /**
+     * кол-во корзин
+     */
+    private static final int BUCKET_CNT = SUB_BUCKET_CNT + (MAX_VALUE_BITS - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_CNT;
+
+    /**
+     * кол-во значений в корзинах
+     */
+    @NotNull
+    private final long[] counts;
+    /**
+     * кол-во записанных значений
+     */
+    private long totalCnt;
+    /**
+     * сумма записанных значений
+     */
+    private long sum;
+    /**
+     * максимальное записанное значение
+     */
+    private long max;
+
+    /**
+     * Конструктор гистограммы длительностей
+     */
+    public TimeHistogram() {
+        this.counts = new long[BUCKET_CNT];
+    }
+
+    /**
+     * Конструктор гистограммы длительностей
+     *
+     * @param timeHistogram гистограмма длительностей
+     */
+    public TimeHistogram(@NotNull TimeHistogram timeHistogram) {
+        this.counts = timeHistogram.counts.clone();
+        this.totalCnt = timeHistogram.totalCnt;
+        this.sum = timeHistogram.sum;
+        this.max = timeHistogram.max;
+    }
+
+    /**
+     * Записать длительность
+     *
+     * @param nanos длительность в наносекундах (отрицательные считаются нулевыми)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[getBucket(value)]++;
+        totalCnt++;
+        sum += value;
+        if (value > max)
+            max = value;
+    }
+
+    /**
+     * Получить номер корзины значения
+     *
+     * @param value значение
+     * @return номер корзины
+     */
+    private static int getBucket(long value) {
+        if (value < SUB_BUCKET_CNT)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int bucket = SUB_BUCKET_CNT + (shift - 1) * HALF_SUB_BUCKET_CNT +
+                (int) (value >>> shift) - HALF_SUB_BUCKET_CNT;
+        return Math.min(bucket, BUCKET_CNT - 1);
+    }
+
+    /**
+     * Получить наибольшее значение, попадающее в корзину
+     *
+     * @param bucket номер корзины
+     * @return наибольшее значение корзины
+     */
+    private static long getBucketMaxValue(int bucket) {
+        if (bucket < SUB_BUCKET_CNT)
+            return bucket;
+        int shift = (bucket - SUB_BUCKET_CNT) / HALF_SUB_BUCKET_CNT + 1;
+        long subBucket = (bucket - SUB_BUCKET_CNT) % HALF_SUB_BUCKET_CNT + HALF_SUB_BUCKET_CNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Получить перцентиль длительности
+     *
+     * @param percentile перцентиль от 0 до 100
+     * @return длительность в наносекундах (не больше максимальной записанной)
+     */
+    public long getPercentile(double percentile) {
+        if (totalCnt == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCnt));
+        long cnt = 0;
+        for (int i = 0; i < BUCKET_CNT; i++) {
+            cnt += counts[i];
+            // в последнюю корзину попадают и все бОльшие значения, её граница ничего не говорит
+            if (cnt >= rank)
+                return i == BUCKET_CNT - 1 ? max : Math.min(getBucketMaxValue(i), max);
+        }
+        return max;
+    }
+
+    /**
+     * Очистить гистограмму
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCnt = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Получить кол-во записанных значений
+     *
+     * @return кол-во записанных значений
+     */
+    public long getTotalCnt() {
+        return totalCnt;
+    }
+
+    /**
+     * Получить среднюю длительность
+     *
+     * @return средняя длительность в наносекундах
+     */
+    public double getMean() {
+        return totalCnt == 0 ? 0 : (double) sum / totalCnt;
+    }
+
+    /**
+     * Получить максимальную длительность
+     *
+     * @return максимальная длительность в наносекундах
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "TimeHistogram{totalCnt, p50, p99, max}"
+     */
+    @Override
+    public String toString() {
+        return "TimeHistogram{" + totalCnt +
+                ", " + getPercentile(50) +
+                ", " + getPercentile(99) +
+                ", " + max + '}';
+    }
+}
@@ -0,0 +1,295 @@
+package profiler;
+
+import com.sun.istack.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Профилировщик тактов и кадров мира: длительность каждой фазы записывается в гистограмму,
+ * по которой считаются p50, p99 и максимум. Замер фазы - одно обращение к {@link System#nanoTime()}
+ * на границе фаз и запись в массив без выделения памяти:
+ * <pre>
+ * long mark = profiler.now();
+ * resourceField.tick();
+ * mark = profiler.record(Phase.RESOURCE_FIELD, mark);
+ * processCreatures();
+ * profiler.record(Phase.CREATURES, mark);
+ * </pre>
+ * Фазы тактов пишутся из потока тактов, фазы рисования - из потока OpenGL, а читаются
+ * гистограммы при выводе лога, поэтому каждая гистограмма защищена своей блокировкой
+ * (без конкуренции она почти ничего не стоит). Выключенный профилировщик не обращается к таймеру
+ */
+public class WorldProfiler {
+    /**
+     * Фазы такта и кадра
+     */
+    public enum Phase {
+        /**
+         * такт мира целиком
+         */
+        TICK("tick", "profileTick"),
+        /**
+         * такт ресурсного поля
+         */
+        RESOURCE_FIELD("resourceField", "profileResourceField"),
+        /**
+         * рассчёт зрения и сенсоров существ
+         */
+        SENSORS("sensors", "profileSensors"),
+        /**
+         * обработка движения и кормления существ
+         */
+        CREATURES("creatures", "profileCreatures"),
+        /**
+         * снимок состояния мира
+         */
+        STATE_SNAPSHOT("stateSnapshot", "profileStateSnapshot"),
+        /**
+         * добавление состояния в историю
+         */
+        STORY_APPEND("storyAppend", "profileStoryAppend"),
+        /**
+         * кадр рисования целиком
+         */
+        FRAME("frame", "profileFrame"),
+        /**
+         * рисование мира
+         */
+        RENDER_WORLD("renderWorld", "profileRenderWorld");
+
+        /**
+         * название фазы
+         */
+        @NotNull
+        private final String name;
+        /**
+         * ключ контроллера текста, которым выводится фаза
+         */
+        @NotNull
+        private final String captionKey;
+
+        /**
+         * Конструктор фазы
+         *
+         * @param name       название фазы
+         * @param captionKey ключ контроллера текста, которым выводится фаза
+         */
+        Phase(@NotNull String name, @NotNull String captionKey) {
+            this.name = name;
+            this.captionKey = captionKey;
+        }
+
+        /**
+         * Получить название фазы
+         *
+         * @return название фазы
+         */
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Получить ключ контроллера текста, которым выводится фаза
+         *
+         * @return ключ контроллера текста
+         */
+        @NotNull
+        public String getCaptionKey() {
+            return captionKey;
+        }
+    }
+
+    /**
+     * выключенный профилировщик для замеров, которые не нужно записывать
+     */
+    public static final WorldProfiler DISABLED = new WorldProfiler(false);
+
+    /**
+     * гистограммы длительностей фаз
+     */
+    @NotNull
+    private final Map<Phase, TimeHistogram> histograms;
+    /**
+     * флаг, включен ли профилировщик
+     */
+    private volatile boolean enabled;
+
+    /**
+     * Конструктор профилировщика
+     */
+    public WorldProfiler() {
+        this(true);
+    }
+
+    /**
+     * Конструктор профилировщика
+     *
+     * @param enabled флаг, включен ли профилировщик
+     */
+    private WorldProfiler(boolean enabled) {
+        this.histograms = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values())
+            histograms.put(phase, new TimeHistogram());
+        this.enabled = enabled;
+    }
+
+    /**
+     * Конструктор профилировщика
+     *
+     * @param worldProfiler профилировщик
+     */
+    public WorldProfiler(@NotNull WorldProfiler worldProfiler) {
+        this.histograms = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values())
+            histograms.put(phase, worldProfiler.getHistogram(phase));
+        this.enabled = worldProfiler.enabled;
+    }
+
+    /**
+     * Получить время начала фазы
+     *
+     * @return текущее время в наносекундах (0, если профилировщик выключен)
+     */
+    public long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Записать длительность фазы, закончившейся сейчас
+     *
+     * @param phase фаза
+     * @param start время начала фазы, полученное из {@link #now()} или предыдущего вызова
+     * @return текущее время, его можно использовать как начало следующей фазы
+     */
+    public long record(@NotNull Phase phase, long start) {
+        if (!enabled)
+            return 0;
+        long now = System.nanoTime();
+        // профилировщик мог быть включен посреди фазы
+        if (start != 0)
+            record(histograms.get(phase), now - start);
+        return now;
+    }
+
+    /**
+     * Записать длительность в гистограмму
+     *
+     * @param histogram гистограмма фазы
+     * @param nanos     длительность в наносекундах
+     */
+    private static void record(@NotNull TimeHistogram histogram, long nanos) {
+        synchronized (histogram) {
+            histogram.record(nanos);
+        }
+    }
+
+    /**
+     * Получить копию гистограммы фазы
+     *
+     * @param phase фаза
+     * @return копия гистограммы
+     */
+    @NotNull
+    public TimeHistogram getHistogram(@NotNull Phase phase) {
+        TimeHistogram histogram = histograms.get(Objects.requireNonNull(phase));
+        synchronized (histogram) {
+            return new TimeHistogram(histogram);
+        }
+    }
+
+    /**
+     * Очистить гистограммы всех фаз
+     */
+    public void reset() {
+        for (TimeHistogram histogram : histograms.values()) {
+            synchronized (histogram) {
+                histogram.reset();
+            }
+        }
+    }
+
+    /**
+     * Получить строку лога фазы
+     *
+     * @param phase фаза
+     * @return строка вида "tick: p50 120 us, p99 480 us, max 1500 us"
+     */
+    @NotNull
+    public String getLogLine(@NotNull Phase phase) {
+        // строка выводится каждый кадр, поэтому перцентили считаются прямо по гистограмме, без копии
+        TimeHistogram histogram = histograms.get(Objects.requireNonNull(phase));
+        long p50;
+        long p99;
+        long max;
+        synchronized (histogram) {
+            p50 = histogram.getPercentile(50);
+            p99 = histogram.getPercentile(99);
+            max = histogram.getMax();
+        }
+        return String.format(Locale.US, "%s: p50 %d us, p99 %d us, max %d us",
+                phase.getName(), p50 / 1000, p99 / 1000, max / 1000
+        );
+    }
+
+    /**
+     * Сохранить статистику фаз в csv-файл
+     *
+     * @param path путь к файлу
+     */
+    public void saveCsv(@NotNull String path) {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(Objects.requireNonNull(path)))) {
+            writer.write("phase,count,meanUs,p50Us,p99Us,maxUs");
+            writer.newLine();
+            for (Phase phase : Phase.values()) {
+                TimeHistogram histogram = getHistogram(phase);
+                writer.write(String.format(Locale.US, "%s,%d,%.3f,%.3f,%.3f,%.3f",
+                        phase.getName(), histogram.getTotalCnt(), histogram.getMean() / 1e3,
+                        histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3,
+                        histogram.getMax() / 1e3
+                ));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new AssertionError("can not write profile to " + path + "\n" + e);
+        }
+    }
+
+    /**
+     * Включен ли профилировщик
+     *
+     * @return флаг, включен ли профилировщик
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Включить или выключить профилировщик
+     *
+     * @param enabled флаг, включен ли профилировщик
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && this == DISABLED)
+            throw new IllegalArgumentException("can not enable shared disabled profiler");
+        this.enabled = enabled;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "WorldProfiler{enabled, histograms}"
+     */
+    @Override
+    public String toString() {
+        return "WorldProfiler{" + enabled +
+                ", " + histograms + '}';
+    }
+}
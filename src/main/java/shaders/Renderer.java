@@ -32,8 +32,25 @@ public class Renderer implements GLEventListener, KeyListener, MouseListener, Mo
     private FloatBuffer vertexBuffer;
     private IntBuffer indexBuffer;
     private FloatBuffer colorBuffer;
+    private ShaderRegistry shaderRegistry;
     private ShaderProgram shaderProgram;
     private Camera camera = new Camera(-1, 0, 0, 1, 0, 0, 0, 0, 1);
+    /**
+     * буфер модельной матрицы, модель неподвижна, поэтому буфер заполняется один раз
+     */
+    private FloatBuffer modelMatrixBuffer;
+    /**
+     * версия видовой матрицы, переданная в шейдер (-1, если матрица ещё не передавалась)
+     */
+    private long uploadedViewVersion = -1;
+    /**
+     * версия матрицы проекции, переданная в шейдер (-1, если матрица ещё не передавалась)
+     */
+    private long uploadedProjectionVersion = -1;
+    /**
+     * флаг, передана ли в шейдер модельная матрица
+     */
+    private boolean modelMatrixUploaded;
 
     private GLJPanel gljPanel;
 
@@ -48,10 +65,8 @@ public class Renderer implements GLEventListener, KeyListener, MouseListener, Mo
         File vertexShader = new File("src/main/resources/shaders/default.vs");
         File fragmentShader = new File("src/main/resources/shaders/default.fs");
 
-        shaderProgram = new ShaderProgram();
-        if (!shaderProgram.init(gl2, vertexShader, fragmentShader)) {
-            throw new IllegalStateException("Unable to initiate the shaders!");
-        }
+        shaderRegistry = new ShaderRegistry();
+        shaderProgram = shaderRegistry.get(gl2, vertexShader, fragmentShader);
         vertexBuffer = Buffers.newDirectFloatBuffer(cube.getVertices().length);
         indexBuffer = Buffers.newDirectIntBuffer(cube.getIndices().length);
         colorBuffer = Buffers.newDirectFloatBuffer(cube.getColors().length);
@@ -60,6 +75,14 @@ public class Renderer implements GLEventListener, KeyListener, MouseListener, Mo
         indexBuffer.put(cube.getIndices());
         colorBuffer.put(cube.getColors());
 
+        modelMatrixBuffer = new Matrix4d(
+                1, 0, 0, 0.3f,
+                0, 1, 0, 0.2f,
+                0, 0, 1, 0,
+                0, 0, 0, 1
+        ).transpose().get(BufferUtils.createFloatBuffer(16));
+        resetUploadedUniforms();
+
         int[] res = new int[1];
         gl2.glGetIntegerv(GL_MAX_VERTEX_ATTRIBS, res, 0);
         System.out.println(Arrays.toString(res));
@@ -68,10 +91,20 @@ public class Renderer implements GLEventListener, KeyListener, MouseListener, Mo
         gl2.glDepthMask(true);
     }
 
+    /**
+     * Forgets the uploaded uniform values: they are stored in the program
+     * object itself, so a rebuilt program needs all matrices uploaded again.
+     */
+    private void resetUploadedUniforms() {
+        modelMatrixUploaded = false;
+        uploadedViewVersion = -1;
+        uploadedProjectionVersion = -1;
+    }
+
     @Override
     public void dispose(GLAutoDrawable glAutoDrawable) {
         GL2 gl2 = glAutoDrawable.getGL().getGL2();
-        shaderProgram.dispose(gl2);
+        shaderRegistry.dispose(gl2);
     }
 
     @Override
@@ -80,6 +113,10 @@ public class Renderer implements GLEventListener, KeyListener, MouseListener, Mo
 
         gl2.glClear(GL2.GL_COLOR_BUFFER_BIT | GL2.GL_DEPTH_BUFFER_BIT);
 
+        if (shaderRegistry.reloadModified(gl2)) {
+            resetUploadedUniforms();
+        }
+
         gl2.glUseProgram(shaderProgram.getProgramId());
 
 
@@ -96,29 +133,30 @@ public class Renderer implements GLEventListener, KeyListener, MouseListener, Mo
                         .getShaderAttributeLocation(EShaderAttribute.COLOR), 3,
                 GL2.GL_FLOAT, false, 0, colorBuffer.rewind());
 
-        FloatBuffer objectTransform = BufferUtils.createFloatBuffer(16);
-        objectTransform = new Matrix4d(
-                1, 0, 0, 0.3f,
-                0, 1, 0, 0.2f,
-                0, 0, 1, 0,
-                0, 0, 0, 1
-        ).transpose().get(objectTransform);
-        FloatBuffer fb = BufferUtils.createFloatBuffer(16);
-
-        gl2.glUniformMatrix4fv(
-                gl2.glGetUniformLocation(shaderProgram.getProgramId(), "u_modelMat44"),
-                1, true, objectTransform
-        );
+        // матрицы передаются в шейдер, только если изменились с прошлой передачи
+        if (!modelMatrixUploaded) {
+            gl2.glUniformMatrix4fv(
+                    shaderProgram.getUniformLocation("u_modelMat44"),
+                    1, true, modelMatrixBuffer
+            );
+            modelMatrixUploaded = true;
+        }
 
-        gl2.glUniformMatrix4fv(
-                gl2.glGetUniformLocation(shaderProgram.getProgramId(), "u_viewMat44"),
-                1, true, camera.getLookAtBuffer()
-        );
+        if (uploadedViewVersion != camera.getViewVersion()) {
+            gl2.glUniformMatrix4fv(
+                    shaderProgram.getUniformLocation("u_viewMat44"),
+                    1, true, camera.getLookAtBuffer()
+            );
+            uploadedViewVersion = camera.getViewVersion();
+        }
 
-        gl2.glUniformMatrix4fv(
-                gl2.glGetUniformLocation(shaderProgram.getProgramId(), "u_projectionMat44"),
-                1, true, camera.getPerspectiveBuffer()
-        );
+        if (uploadedProjectionVersion != camera.getProjectionVersion()) {
+            gl2.glUniformMatrix4fv(
+                    shaderProgram.getUniformLocation("u_projectionMat44"),
+                    1, true, camera.getPerspectiveBuffer()
+            );
+            uploadedProjectionVersion = camera.getProjectionVersion();
+        }
 
         gl2.glDrawElements(GL2.GL_TRIANGLES, cube.getIndices().length,
                 GL2.GL_UNSIGNED_INT, indexBuffer.rewind());
@@ -136,7 +174,9 @@ public class Renderer implements GLEventListener, KeyListener, MouseListener, Mo
     @Override
     public void reshape(GLAutoDrawable glAutoDrawable, int x, int y, int width,
                         int height) {
-        /* no action to be taken on reshape */
+        // матрица проекции пересчитается и передастся в шейдер при следующем рисовании
+        if (width > 0 && height > 0)
+            camera.setViewPort(width, height);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package shaders;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -8,7 +9,7 @@ import com.jogamp.opengl.GL2;
 
 /**
  * Manages the shader program.
- * 
+ *
  * @author serhiy
  */
 public class ShaderProgram {
@@ -16,11 +17,18 @@ public class ShaderProgram {
 	private int vertexShaderId;
 	private int fragmentShaderId;
 	private Map<EShaderAttribute, Integer> shaderAttributeLocations = new HashMap<>();
+	private Map<String, Integer> uniformLocations = new HashMap<>();
+	private Map<String, Integer> attributeLocations = new HashMap<>();
+	private File vertexShader;
+	private File fragmentShader;
+	private long vertexShaderModified;
+	private long fragmentShaderModified;
+	private int generation = 0;
 	private boolean initialized = false;
 
 	/**
 	 * Initializes the shader program.
-	 * 
+	 *
 	 * @param gl2 context.
 	 * @param vertexShader file.
 	 * @param fragmentShader file.
@@ -31,44 +39,125 @@ public class ShaderProgram {
 			throw new IllegalStateException(
 					"Unable to initialize the shader program! (it was already initialized)");
 		}
+		this.vertexShader = vertexShader;
+		this.fragmentShader = fragmentShader;
 
 		try {
-			String vertexShaderCode = ShaderUtils.loadResource(vertexShader
-					.getPath());
-			String fragmentShaderCode = ShaderUtils.loadResource(fragmentShader
-					.getPath());
+			build(gl2);
+			initialized = true;
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+
+		return initialized;
+
+	}
 
-			programId = gl2.glCreateProgram();
-			vertexShaderId = ShaderUtils.createShader(gl2, programId,
+	/**
+	 * Compiles and links the program from the current shader files and
+	 * introspects its active uniforms and attributes. The current program is
+	 * replaced only when the new one is built successfully.
+	 *
+	 * @param gl2 context.
+	 * @throws Exception when an error occurs creating the shader program.
+	 */
+	private void build(GL2 gl2) throws Exception {
+		long newVertexShaderModified = vertexShader.lastModified();
+		long newFragmentShaderModified = fragmentShader.lastModified();
+		String vertexShaderCode = ShaderUtils.loadResource(vertexShader
+				.getPath());
+		String fragmentShaderCode = ShaderUtils.loadResource(fragmentShader
+				.getPath());
+
+		int newProgramId = gl2.glCreateProgram();
+		int newVertexShaderId = 0;
+		int newFragmentShaderId = 0;
+		try {
+			newVertexShaderId = ShaderUtils.createShader(gl2, newProgramId,
 					vertexShaderCode, GL2.GL_VERTEX_SHADER);
-			fragmentShaderId = ShaderUtils.createShader(gl2, programId,
+			newFragmentShaderId = ShaderUtils.createShader(gl2, newProgramId,
 					fragmentShaderCode, GL2.GL_FRAGMENT_SHADER);
+			ShaderUtils.link(gl2, newProgramId);
+		} catch (Exception e) {
+			deleteProgram(gl2, newProgramId, newVertexShaderId, newFragmentShaderId);
+			throw e;
+		}
 
-			ShaderUtils.link(gl2, programId);
+		if (initialized) {
+			deleteProgram(gl2, programId, vertexShaderId, fragmentShaderId);
+		}
+		programId = newProgramId;
+		vertexShaderId = newVertexShaderId;
+		fragmentShaderId = newFragmentShaderId;
+		vertexShaderModified = newVertexShaderModified;
+		fragmentShaderModified = newFragmentShaderModified;
+		uniformLocations = ShaderUtils.getActiveUniformLocations(gl2, programId);
+		attributeLocations = ShaderUtils.getActiveAttributeLocations(gl2, programId);
+		shaderAttributeLocations.clear();
+		for (EShaderAttribute shaderAttribute : EShaderAttribute.values()) {
+			shaderAttributeLocations.put(shaderAttribute,
+					getAttributeLocation(shaderAttribute.getAttributeName()));
+		}
+		generation++;
+	}
 
-			shaderAttributeLocations.put(EShaderAttribute.POSITION,
-					gl2.glGetAttribLocation(programId, "inPosition"));
-			shaderAttributeLocations.put(EShaderAttribute.COLOR,
-					gl2.glGetAttribLocation(programId, "inColor"));
-			initialized = true;
+	/**
+	 * Rebuilds the program if any of its shader files was modified since the
+	 * last build. If the new sources fail to compile or link, the previous
+	 * program is kept.
+	 *
+	 * @param gl2 context.
+	 * @return true if the program was rebuilt, false otherwise.
+	 */
+	public boolean reloadIfModified(GL2 gl2) {
+		if (!initialized || (vertexShader.lastModified() == vertexShaderModified
+				&& fragmentShader.lastModified() == fragmentShaderModified)) {
+			return false;
+		}
+		try {
+			build(gl2);
+			return true;
 		} catch (Exception e) {
+			// do not rebuild the same broken sources on every check
+			vertexShaderModified = vertexShader.lastModified();
+			fragmentShaderModified = fragmentShader.lastModified();
 			e.printStackTrace();
+			return false;
 		}
+	}
 
-		return initialized;
-
+	/**
+	 * Deletes the program together with its shaders.
+	 *
+	 * @param gl2 context.
+	 * @param programId to delete.
+	 * @param vertexShaderId to delete (0 if it was not created).
+	 * @param fragmentShaderId to delete (0 if it was not created).
+	 */
+	private static void deleteProgram(GL2 gl2, int programId, int vertexShaderId,
+			int fragmentShaderId) {
+		if (vertexShaderId != 0) {
+			gl2.glDetachShader(programId, vertexShaderId);
+			gl2.glDeleteShader(vertexShaderId);
+		}
+		if (fragmentShaderId != 0) {
+			gl2.glDetachShader(programId, fragmentShaderId);
+			gl2.glDeleteShader(fragmentShaderId);
+		}
+		gl2.glDeleteProgram(programId);
 	}
 
 	/**
 	 * Destroys the shader program.
-	 * 
+	 *
 	 * @param gl2 context.
 	 */
 	public void dispose(GL2 gl2) {
+		if (!initialized) {
+			return;
+		}
 		initialized = false;
-		gl2.glDetachShader(programId, vertexShaderId);
-		gl2.glDetachShader(programId, fragmentShaderId);
-		gl2.glDeleteProgram(programId);
+		deleteProgram(gl2, programId, vertexShaderId, fragmentShaderId);
 	}
 
 	/**
@@ -94,6 +183,44 @@ public class ShaderProgram {
 		return shaderAttributeLocations.get(shaderAttribute);
 	}
 
+	/**
+	 * @param name of the uniform as it is appearing in the shader source code.
+	 * @return cached location of the uniform, -1 if the uniform is not active.
+	 */
+	public int getUniformLocation(String name) {
+		return uniformLocations.getOrDefault(name, -1);
+	}
+
+	/**
+	 * @param name of the attribute as it is appearing in the shader source code.
+	 * @return cached location of the attribute, -1 if the attribute is not active.
+	 */
+	public int getAttributeLocation(String name) {
+		return attributeLocations.getOrDefault(name, -1);
+	}
+
+	/**
+	 * @return cached locations of all active uniforms by name.
+	 */
+	public Map<String, Integer> getUniformLocations() {
+		return Collections.unmodifiableMap(uniformLocations);
+	}
+
+	/**
+	 * @return cached locations of all active attributes by name.
+	 */
+	public Map<String, Integer> getAttributeLocations() {
+		return Collections.unmodifiableMap(attributeLocations);
+	}
+
+	/**
+	 * @return number of successful builds, changes every time the program is
+	 *         reloaded, so uniform values must be uploaded again.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
 	public boolean isInitialized() {
 		return initialized;
 	}
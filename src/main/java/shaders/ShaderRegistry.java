@@ -0,0 +1,108 @@
+package shaders;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jogamp.opengl.GL2;
+
+/**
+ * Registry of shader programs of one OpenGL context. Every vertex/fragment
+ * pair is compiled once, the registry hands out the same program for it
+ * afterwards. Shader files are checked for changes at most once per check
+ * period, modified programs are rebuilt in place without restarting.
+ * <p>
+ * Programs belong to the context they were created in, so a registry must be
+ * used only from that context's GL thread.
+ *
+ * @author serhiy
+ */
+public class ShaderRegistry {
+    /**
+     * Default period between shader file checks in nanoseconds.
+     */
+    public static final long DEFAULT_RELOAD_CHECK_PERIOD = 500_000_000L;
+
+    private final Map<String, ShaderProgram> programs = new LinkedHashMap<>();
+    private final long reloadCheckPeriod;
+    private long lastReloadCheck;
+
+    /**
+     * @param reloadCheckPeriod period between shader file checks in nanoseconds,
+     *                          0 to check on every call.
+     */
+    public ShaderRegistry(long reloadCheckPeriod) {
+        if (reloadCheckPeriod < 0) {
+            throw new IllegalArgumentException("reload check period must be non-negative: " + reloadCheckPeriod);
+        }
+        this.reloadCheckPeriod = reloadCheckPeriod;
+        this.lastReloadCheck = System.nanoTime();
+    }
+
+    public ShaderRegistry() {
+        this(DEFAULT_RELOAD_CHECK_PERIOD);
+    }
+
+    /**
+     * Returns the program built from the given shader pair, compiling it on
+     * the first request.
+     *
+     * @param gl2            context.
+     * @param vertexShader   file.
+     * @param fragmentShader file.
+     * @return the shader program.
+     * @throws IllegalStateException when the program can not be built.
+     */
+    public ShaderProgram get(GL2 gl2, File vertexShader, File fragmentShader) {
+        String key = vertexShader.getAbsolutePath() + File.pathSeparator + fragmentShader.getAbsolutePath();
+        ShaderProgram shaderProgram = programs.get(key);
+        if (shaderProgram == null) {
+            shaderProgram = new ShaderProgram();
+            if (!shaderProgram.init(gl2, vertexShader, fragmentShader)) {
+                throw new IllegalStateException("Unable to initiate the shaders " + key);
+            }
+            programs.put(key, shaderProgram);
+        }
+        return shaderProgram;
+    }
+
+    /**
+     * Rebuilds the programs whose shader files were modified. Files are
+     * checked no more often than once per check period, so the method may be
+     * called on every frame.
+     *
+     * @param gl2 context.
+     * @return true if at least one program was rebuilt.
+     */
+    public boolean reloadModified(GL2 gl2) {
+        long now = System.nanoTime();
+        if (now - lastReloadCheck < reloadCheckPeriod) {
+            return false;
+        }
+        lastReloadCheck = now;
+        boolean reloaded = false;
+        for (ShaderProgram shaderProgram : programs.values()) {
+            reloaded |= shaderProgram.reloadIfModified(gl2);
+        }
+        return reloaded;
+    }
+
+    /**
+     * Destroys all programs of the registry.
+     *
+     * @param gl2 context.
+     */
+    public void dispose(GL2 gl2) {
+        for (ShaderProgram shaderProgram : programs.values()) {
+            shaderProgram.dispose(gl2);
+        }
+        programs.clear();
+    }
+
+    /**
+     * @return number of programs in the registry.
+     */
+    public int size() {
+        return programs.size();
+    }
+}
@@ -1,10 +1,13 @@
 package shaders;
 
-import java.io.File;
-import java.io.InputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
-import java.util.Scanner;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.jogamp.opengl.GL2;
 
@@ -27,13 +30,67 @@ public class ShaderUtils {
      * @throws Exception when an error occurs loading resource.
      */
     public static String loadResource(String fileName) {
-        try (Scanner sc = new Scanner(new File(fileName), "UTF-8")) {
-            return sc.useDelimiter("\\A").next();
-        } catch (Exception e) {
+        try {
+            return new String(Files.readAllBytes(Paths.get(fileName)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
             throw new AssertionError(e.getMessage() + ": " + fileName);
         }
     }
 
+    /**
+     * Introspects locations of all active uniforms of the linked program.
+     * Array uniforms are stored both by their reported name ("name[0]") and
+     * by the base name.
+     *
+     * @param gl2       context.
+     * @param programId linked program.
+     * @return locations of active uniforms by name.
+     */
+    public static Map<String, Integer> getActiveUniformLocations(GL2 gl2, int programId) {
+        int[] params = new int[2];
+        gl2.glGetProgramiv(programId, GL2.GL_ACTIVE_UNIFORMS, params, 0);
+        gl2.glGetProgramiv(programId, GL2.GL_ACTIVE_UNIFORM_MAX_LENGTH, params, 1);
+        Map<String, Integer> locations = new HashMap<>();
+        byte[] name = new byte[Math.max(1, params[1])];
+        int[] length = new int[1];
+        int[] size = new int[1];
+        int[] type = new int[1];
+        for (int i = 0; i < params[0]; i++) {
+            gl2.glGetActiveUniform(programId, i, name.length, length, 0, size, 0, type, 0, name, 0);
+            String uniformName = new String(name, 0, length[0], StandardCharsets.US_ASCII);
+            int location = gl2.glGetUniformLocation(programId, uniformName);
+            locations.put(uniformName, location);
+            if (uniformName.endsWith("[0]")) {
+                locations.put(uniformName.substring(0, uniformName.length() - 3), location);
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Introspects locations of all active attributes of the linked program.
+     *
+     * @param gl2       context.
+     * @param programId linked program.
+     * @return locations of active attributes by name.
+     */
+    public static Map<String, Integer> getActiveAttributeLocations(GL2 gl2, int programId) {
+        int[] params = new int[2];
+        gl2.glGetProgramiv(programId, GL2.GL_ACTIVE_ATTRIBUTES, params, 0);
+        gl2.glGetProgramiv(programId, GL2.GL_ACTIVE_ATTRIBUTE_MAX_LENGTH, params, 1);
+        Map<String, Integer> locations = new HashMap<>();
+        byte[] name = new byte[Math.max(1, params[1])];
+        int[] length = new int[1];
+        int[] size = new int[1];
+        int[] type = new int[1];
+        for (int i = 0; i < params[0]; i++) {
+            gl2.glGetActiveAttrib(programId, i, name.length, length, 0, size, 0, type, 0, name, 0);
+            String attributeName = new String(name, 0, length[0], StandardCharsets.US_ASCII);
+            locations.put(attributeName, gl2.glGetAttribLocation(programId, attributeName));
+        }
+        return locations;
+    }
+
     /**
      * Creates and compile the shader in the shader program.
      *
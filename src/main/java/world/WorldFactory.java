@@ -1,5 +1,6 @@
 package world;
 
+import cache.ParamsCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.istack.NotNull;
 import jMath.aoklyunin.github.com.vector.Vector2d;
@@ -12,6 +13,7 @@ import world.params.RealTimeWorldParams;
 import world.params.StoryWorldParams;
 import world.params.WorldParams;
 import world.states.StoryWorldState;
+import world.states.StoryWorldStateDelta;
 import world.states.WorldState;
 import world.world3D.Food3DWorld;
 import world.world3D.params.RealTime3DWorldParams;
@@ -19,8 +21,6 @@ import world.world3D.states.RealTime3DWorldState;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
 import static constants.Constants.RESOURCE_PATH;
@@ -37,15 +37,17 @@ public class WorldFactory {
             .getLogger(WorldFactory.class);
 
     /**
-     * словарь загруженных параметров мира
+     * кэш загруженных параметров мира
      */
-    private static final Map<String, WorldParams> pathDict = new HashMap<>();
+    private static final ParamsCache<WorldParams> paramsCache = new ParamsCache<>(
+            WorldFactory::readParams, WorldFactory::clone
+    );
 
     /**
      * Очистить словарь путей
      */
     public static void clearPathDict() {
-        pathDict.clear();
+        paramsCache.clear();
     }
 
     /**
@@ -54,7 +56,17 @@ public class WorldFactory {
      * @param path путь
      */
     public static void removeWorldControllerParams(String path) {
-        pathDict.remove(path);
+        paramsCache.invalidate(path);
+    }
+
+    /**
+     * Получить кэш загруженных параметров (для счётчиков попаданий и промахов)
+     *
+     * @return кэш загруженных параметров
+     */
+    @NotNull
+    public static ParamsCache<WorldParams> getParamsCache() {
+        return paramsCache;
     }
 
     /**
@@ -64,16 +76,19 @@ public class WorldFactory {
      * @return параметры мира
      */
     public static WorldParams fromFile(@NotNull String path) {
-        WorldParams worldParams = pathDict.get(Objects.requireNonNull(path));
-        if (worldParams != null)
-            return clone(worldParams);
+        return paramsCache.get(Objects.requireNonNull(path));
+    }
 
+    /**
+     * Разобрать параметры из json-файла
+     *
+     * @param path путь к файлу
+     * @return параметры
+     */
+    private static WorldParams readParams(@NotNull String path) {
         try {
             ObjectMapper objectMapper = new ObjectMapper();
-            WorldParams loadedWorldParams =
-                    objectMapper.readValue(new File(path), WorldParams.class);
-            pathDict.put(path, loadedWorldParams);
-            return loadedWorldParams;
+            return objectMapper.readValue(new File(path), WorldParams.class);
         } catch (IOException e) {
             throw new IllegalArgumentException("Parse params file error: " + path + "\n" + e.getMessage());
         }
@@ -94,6 +109,22 @@ public class WorldFactory {
     }
 
 
+    /**
+     * Восстановить состояние мира c историей по изменениям относительно опорного кадра
+     *
+     * @param delta изменения состояния мира относительно опорного кадра
+     * @return состояние мира c историей
+     */
+    public static StoryWorldState fromDelta(@NotNull StoryWorldStateDelta delta) {
+        switch (delta.getType()) {
+            case FOOD_3D_WORLD:
+                return new RealTime3DWorldState(
+                        delta.getType(), delta.getCreatureStates(), delta.getTickCnt(), delta.getResourceFieldState()
+                );
+        }
+        throw new IllegalArgumentException("unresolved state type in state delta " + delta.getType());
+    }
+
     /**
      * Получить копию состояния мира
      *
@@ -11,9 +11,9 @@ import field.base.InfluenceField;
 import jMath.aoklyunin.github.com.coordinateSystem.CoordinateSystem2d;
 import jMath.aoklyunin.github.com.vector.Vector2d;
 import jMath.aoklyunin.github.com.vector.Vector3d;
+import profiler.WorldProfiler;
 import world.base.interfaces.CreatureProcessable;
 import world.params.RealTimeWorldParams;
-import world.states.StoryWorldState;
 import world.states.WorldState;
 
 import java.util.List;
@@ -66,8 +66,10 @@ public abstract class RealTimeWorld extends StoryWorld implements CreatureProces
                 () -> (long) getWorldStory().getStatesList().size(),
                 () -> (long) getWorldStory().getStatesList().getActualPos(),
                 (newVal) -> {
-                    getWorldStory().getStatesList().setActualPos(newVal.intValue());
-                    onChangeStoryPosByScroller();
+                    synchronized (this) {
+                        getWorldStory().getStatesList().setActualPos(newVal.intValue());
+                        onChangeStoryPosByScroller();
+                    }
                 },
                 getWorldParams().getStoryWorldParams().getStoryScrollerParams()
         );
@@ -93,6 +95,7 @@ public abstract class RealTimeWorld extends StoryWorld implements CreatureProces
      */
     public void onChangeStoryPosByScroller() {
         selectCreatureByStoryState();
+        publishFrame();
     }
 
 
@@ -116,20 +119,18 @@ public abstract class RealTimeWorld extends StoryWorld implements CreatureProces
      * @param worldState состояние мира
      */
     public void renderCreatureModel(GL2 gl2, @NotNull WorldState worldState) {
-        if (getWorldStory().getSelectedCreature() == null)
+        Creature selectedCreature = getFrame().getSelectedCreature();
+        if (selectedCreature == null)
             return;
-        if (!getWorldStory().getCreatures().isEmpty()) {
-            gl2.glPushMatrix();
+        gl2.glPushMatrix();
 
-            getCreatureStandAloneTransform().apply(gl2);
+        getCreatureStandAloneTransform().apply(gl2);
 
-            renderCreatureModelConnectors(gl2, worldState);
+        renderCreatureModelConnectors(gl2, worldState);
 
-            getWorldStory().getSelectedCreature().getCreatureModel().render(gl2);
+        selectedCreature.getCreatureModel().render(gl2);
 
-            gl2.glPopMatrix();
-
-        }
+        gl2.glPopMatrix();
     }
 
     /**
@@ -150,25 +151,25 @@ public abstract class RealTimeWorld extends StoryWorld implements CreatureProces
      */
     @NotNull
     protected CreatureState getSelectedCreatureState(@NotNull WorldState worldState) {
-        StoryWorldState storyWorldState = worldState.getStoryWorldState();
-        for (CreatureState creatureState : storyWorldState.getCreatureStates())
-            if (creatureState.getCreatureID() == getWorldStory().getSelectedCreatureId())
-                return creatureState;
-
+        CreatureState creatureState = worldState.getStoryWorldState()
+                .findCreatureStateById(getWorldStory().getSelectedCreatureId());
+        if (creatureState != null)
+            return creatureState;
         throw new AssertionError("can not get selected creature state");
     }
 
     /**
      * Инициализация мира
      */
-    public void init() {
+    public synchronized void init() {
         resourceField.clear();
         getWorldStory().clear();
         getWorldStory().getCreatures().clear();
         for (Creature creature : getInitCreaturesList()) {
             getWorldStory().getCreatures().add(CreatureFactory.clone(creature));
         }
-        getWorldStory().getStatesList().add(getState());
+        getWorldStory().addState(getState());
+        publishFrame();
     }
 
     /**
@@ -203,43 +204,46 @@ public abstract class RealTimeWorld extends StoryWorld implements CreatureProces
         if (resourceField.getInfluenceFieldParams().isRandomAdd())
             getWorldInfo().getTextControllers().get("random").drawText("random");
 
+        WorldFrame frame = getFrame();
         getWorldInfo().getTextControllers().get("creatureCnt").drawText(
-                "creatureCnt: " + getWorldStory().getCreatures().size()
+                "creatureCnt: " + worldState.getStoryWorldState().getCreatureStates().size()
         );
         getWorldInfo().getTextControllers().get("storySize").drawText(
-                "storySize: " + getWorldStory().getStatesList().size() + " pos " +
-                        getWorldStory().getStatesList().getActualPos()
+                "storySize: " + frame.getStorySize() + " pos " + frame.getStoryPos() +
+                        (isRebuilding() ? " rebuild " + (int) (getRebuildProgress() * 100) + "%" : "")
         );
 
     }
 
 
+    /**
+     * Отпустить модели мира в кэше геометрии
+     */
+    @Override
+    protected void releaseModels() {
+        super.releaseModels();
+        resourceField.release();
+    }
+
     /**
      * Задать миру новое ресурсное поле
      *
      * @param influenceField поле, которое будет задано
      */
-    public void setResourceField(@NotNull InfluenceField influenceField) {
+    public synchronized void setResourceField(@NotNull InfluenceField influenceField) {
+        cancelRebuild();
+        resourceField.release();
         this.resourceField = Objects.requireNonNull(influenceField);
         rebuildStory();
     }
 
     /**
-     * Перестроить историю, начиная с заданного положения
-     *
-     * @param pos положение, начиная с которого надо перестроить историю
+     * Такт мира при перестройке истории: история дописывается в конец,
+     * поэтому обрезать её по текущему положению и выбирать по нему существо не нужно
      */
-    protected void rebuildStory(int pos) {
-        if (pos < getWorldStory().getStatesList().size()) {
-            setState(pos);
-            // получаем кол-во тактов истории
-            int tickCnt = getWorldStory().getStatesList().size();
-            // заново совершаем столько же тактов, сколько было накоплено в истории
-            for (int i = pos + 1; i < tickCnt; i++) {
-                tick();
-            }
-            getWorldStory().getStatesList().setActualPos(pos);
-        }
+    @Override
+    protected void replayTick() {
+        tick(false);
     }
 
     public void tick() {
@@ -254,34 +258,46 @@ public abstract class RealTimeWorld extends StoryWorld implements CreatureProces
      *                                      состояние, где текущего выбранного существа, наприиер, ещё нет)
      */
     public void tick(boolean flgSelectCreatureByStoryState) {
+        WorldProfiler worldProfiler = getTickProfiler();
+        long tickStart = worldProfiler.now();
+        boolean flgFollowStory = getWorldParams().getStoryWorldParams().isRecordStory() &&
+                flgSelectCreatureByStoryState;
+        // такт считается от выбранного состояния истории: обрезаем историю после него
+        // (если оно не конечное) до расчёта, иначе такт был бы посчитан от другого состояния
+        if (flgFollowStory)
+            restoreActualState();
         // такт ресурсного поля
+        long mark = worldProfiler.now();
         resourceField.tick();
+        worldProfiler.record(WorldProfiler.Phase.RESOURCE_FIELD, mark);
         // обрабатываем существ
-        processCreatures();
-        if (getWorldParams().getStoryWorldParams().isRecordStory())
-            if (flgSelectCreatureByStoryState) {
-                // обрезаем историю(если выбранное состояние истории не конечное)
-                truncWorldStoryByStoryPos();
-                // выбрать существо по текущему состоянию мира
-                selectCreatureByStoryState();
-            }
+        processCreatures(worldProfiler);
+        // выбрать существо по текущему состоянию мира
+        if (flgFollowStory)
+            selectCreatureByStoryState();
         super.tick();
+        worldProfiler.record(WorldProfiler.Phase.TICK, tickStart);
     }
 
 
     /**
      * Обработка существ
+     *
+     * @param worldProfiler профилировщик тактов
      */
-    private void processCreatures() {
+    private void processCreatures(@NotNull WorldProfiler worldProfiler) {
+        long mark = worldProfiler.now();
         resourceField.setSensorValues(
                 getWorldStory().getCreatures(), getWorldParams().getRealTimeWorldParams().getWorldCS()
         );
+        mark = worldProfiler.record(WorldProfiler.Phase.SENSORS, mark);
         for (Creature creature : getWorldStory().getCreatures()) {
             // обрабатываем движение существа
             processCreatureMoving(creature);
             // обрабатываем кормление существа
             processCreatureFeeding(creature);
         }
+        worldProfiler.record(WorldProfiler.Phase.CREATURES, mark);
     }
 
 
@@ -297,14 +313,6 @@ public abstract class RealTimeWorld extends StoryWorld implements CreatureProces
     }
 
 
-    /**
-     * Обрезать историю(если выбранное состояние истории не конечное)
-     */
-    private void truncWorldStoryByStoryPos() {
-        if (getWorldStory().getStatesList().truncByActualPos())
-            setState();
-    }
-
     /**
      * Выбрать существо по текущему состоянию мира
      */
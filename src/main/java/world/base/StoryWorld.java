@@ -1,20 +1,25 @@
 package world.base;
 
 import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
 import creature.CreatureFactory;
 import creature.base.Creature;
 import creature.base.CreatureState;
+import graphics.MeshCache;
 import jMath.aoklyunin.github.com.Transform3d;
 import jMath.aoklyunin.github.com.vector.Vector3d;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import profiler.WorldProfiler;
 import world.params.CreatureInWorldParams;
 import world.params.StoryWorldParams;
 import world.states.StoryWorldState;
 import world.states.WorldState;
 import world.worldStory.WorldStory;
+import world.worldStory.actualList.ChunkedActualList;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static constants.Constants.RESOURCE_PATH;
 
@@ -23,6 +28,11 @@ import static constants.Constants.RESOURCE_PATH;
  * Базовый класс для всех миров с историей
  */
 public abstract class StoryWorld extends World {
+    /**
+     * период проверки остановки потока перестройки истории, когда прервать её нужно
+     * под блокировкой мира, в миллисекундах
+     */
+    private static final long REBUILD_CANCEL_WAIT_PERIOD = 1;
     /**
      * логгер
      */
@@ -47,12 +57,43 @@ public abstract class StoryWorld extends World {
     /**
      * Кол-во сделанных тактов
      */
-    private int tickCnt;
+    private volatile int tickCnt;
     /**
      * Словарь соответствий порядковых номеров образцовых существ и оригиналов
      */
     @NotNull
     protected Map<Integer, Integer> sampleCreaturesSourcePosMap;
+    /**
+     * последний опубликованный снимок мира для рисования
+     */
+    @NotNull
+    private final AtomicReference<WorldFrame> frame = new AtomicReference<>();
+    /**
+     * поток фоновой перестройки истории
+     */
+    @Nullable
+    private volatile Thread rebuildThread;
+    /**
+     * флаг, что фоновую перестройку истории нужно прервать
+     */
+    private volatile boolean rebuildCancelled;
+    /**
+     * такт, с которого началась перестройка истории
+     */
+    private volatile int rebuildStartTickCnt;
+    /**
+     * такт, до которого перестраивается история
+     */
+    private volatile int rebuildTargetTickCnt;
+    /**
+     * флаг, что идёт такт упреждающего расчёта истории
+     */
+    private boolean prefetchTick;
+    /**
+     * флаг, что после упреждающего расчёта мир возвращён к текущему состоянию истории,
+     * а последнее состояние истории рассчитано заранее
+     */
+    private boolean prefetchRewound;
 
     /**
      * Конструктор базового класа для всех миров с историей
@@ -83,7 +124,9 @@ public abstract class StoryWorld extends World {
             // загружаем историю из файла
             worldStory = WorldStory.loadStory(RESOURCE_PATH + "stories/" + worldParams.getInitStoryPath());
         else {
-            worldStory = new WorldStory(worldParams.getStatesListName());
+            worldStory = new WorldStory(
+                    worldParams.getStatesListName(), worldParams.getStoryKeyframeInterval()
+            );
         }
         initCreaturesList = new ArrayList<>();
         initCreatures();
@@ -109,10 +152,24 @@ public abstract class StoryWorld extends World {
     }
 
     /**
-     * Закрыть мир
+     * Закрыть мир: модели мира отпускаются, и геометрия, которую больше никто не использует,
+     * выгружается из кэша
      */
-    public void close() {
+    public synchronized void close() {
+        cancelRebuild();
         worldStory.close();
+        releaseModels();
+        MeshCache.evictUnused();
+    }
+
+    /**
+     * Отпустить модели мира в кэше геометрии
+     */
+    protected void releaseModels() {
+        for (Creature creature : initCreaturesList)
+            creature.getCreatureModel().release();
+        for (Creature creature : worldStory.getCreatures())
+            creature.getCreatureModel().release();
     }
 
     /**
@@ -128,6 +185,31 @@ public abstract class StoryWorld extends World {
             return getState();
     }
 
+    /**
+     * Опубликовать снимок текущего состояния мира для рисования
+     */
+    public void publishFrame() {
+        frame.set(new WorldFrame(this));
+    }
+
+    /**
+     * Получить последний опубликованный снимок мира, если снимок ещё не публиковался,
+     * он строится по текущему состоянию мира под блокировкой мира, чтобы не читать
+     * списки существ и истории посреди такта
+     *
+     * @return снимок мира
+     */
+    @NotNull
+    public WorldFrame getFrame() {
+        WorldFrame worldFrame = frame.get();
+        if (worldFrame != null)
+            return worldFrame;
+        synchronized (this) {
+            frame.compareAndSet(null, new WorldFrame(this));
+            return frame.get();
+        }
+    }
+
     /**
      * Инициализация существ
      */
@@ -158,9 +240,9 @@ public abstract class StoryWorld extends World {
      */
     @NotNull
     private Creature getSampleCreatureById(int id) {
-        for (Creature creature : worldStory.getCreatures())
-            if (creature.getId() == id)
-                return creature;
+        Creature creature = worldStory.findCreatureById(id);
+        if (creature != null)
+            return creature;
         throw new IllegalArgumentException("can not get sample creature with id " + id);
     }
 
@@ -182,9 +264,9 @@ public abstract class StoryWorld extends World {
      */
     @NotNull
     public Creature getCreatureById(int id) {
-        for (Creature creature : worldStory.getCreatures())
-            if (creature.getId() == id)
-                return creature;
+        Creature creature = worldStory.findCreatureById(id);
+        if (creature != null)
+            return creature;
         throw new IllegalArgumentException("can not get real creature by id " + id);
     }
 
@@ -219,11 +301,14 @@ public abstract class StoryWorld extends World {
      *
      * @param delta величина, на которую произойдёт смещение
      */
-    private void changeStoryPos(int delta) {
+    private synchronized void changeStoryPos(int delta) {
         // получаем, насколько надо увеличить историю
         int incStorySize = worldStory.changeStoryPos(delta);
-        for (int i = 0; i < incStorySize; i++)
-            tick();
+        // пока история перестраивается, перемещаться можно только по уже перестроенной части
+        if (!isRebuilding())
+            for (int i = 0; i < incStorySize; i++)
+                tick();
+        publishFrame();
     }
 
     /**
@@ -231,10 +316,30 @@ public abstract class StoryWorld extends World {
      *
      * @param pos номер состояния
      */
-    public void setStoryPos(long pos) {
+    public synchronized void setStoryPos(long pos) {
         int incStorySize = worldStory.setStoryPos((int) pos);
-        for (int i = 0; i < incStorySize; i++)
-            tick();
+        if (!isRebuilding())
+            for (int i = 0; i < incStorySize; i++)
+                tick();
+        publishFrame();
+    }
+
+    /**
+     * Обрезать историю до заданного кол-ва состояний и вернуть мир к последнему из оставшихся
+     *
+     * @param storySize кол-во состояний, которое нужно оставить
+     */
+    public synchronized void truncStory(int storySize) {
+        if (storySize < 1)
+            throw new IllegalArgumentException("story size must be positive: " + storySize);
+        cancelRebuild();
+        if (worldStory.getStatesList().size() <= storySize)
+            return;
+        // обрезка отбрасывает состояния, начиная с текущего
+        worldStory.getStatesList().setActualPos(storySize);
+        worldStory.getStatesList().truncByActualPos();
+        setState();
+        publishFrame();
     }
 
     /**
@@ -279,9 +384,30 @@ public abstract class StoryWorld extends World {
         if (getWorldParams().getStoryWorldParams().isRecordStory() &&
                 tickCnt % getWorldParams().getStoryWorldParams().getSaveInterval() == 0
         ) {
+            WorldProfiler worldProfiler = getTickProfiler();
+            long mark = worldProfiler.now();
+            StoryWorldState storyWorldState = getState();
+            mark = worldProfiler.record(WorldProfiler.Phase.STATE_SNAPSHOT, mark);
             // добавляем новый кадр истории
-            worldStory.getStatesList().add(getState());
+            worldStory.addState(storyWorldState);
+            worldProfiler.record(WorldProfiler.Phase.STORY_APPEND, mark);
         }
+        // при упреждающем расчёте снимок публикуется после возврата к текущему положению в истории
+        if (!prefetchTick)
+            publishFrame();
+    }
+
+    /**
+     * Получить профилировщик такта: такты упреждающего расчёта и перестройки истории
+     * не профилируются, иначе они смешались бы в гистограммах с тактами, которые видит пользователь
+     *
+     * @return профилировщик мира или выключенный профилировщик
+     */
+    @NotNull
+    protected WorldProfiler getTickProfiler() {
+        if (prefetchTick || Thread.currentThread() == rebuildThread)
+            return WorldProfiler.DISABLED;
+        return getWorldInfo().getWorldProfiler();
     }
 
     /**
@@ -297,7 +423,8 @@ public abstract class StoryWorld extends World {
      *
      * @param path путь к новому сществу
      */
-    public void changeSelectedCreature(@NotNull String path) {
+    public synchronized void changeSelectedCreature(@NotNull String path) {
+        cancelRebuild();
         worldStory.getCreatures().set(
                 worldStory.getSelectedCreatureId(),
                 CreatureFactory.getCreature(path, worldStory.getSelectedCreatureId())
@@ -311,11 +438,13 @@ public abstract class StoryWorld extends World {
      *
      * @param newWorldStory новая история
      */
-    public void setStory(@NotNull WorldStory newWorldStory) {
+    public synchronized void setStory(@NotNull WorldStory newWorldStory) {
+        cancelRebuild();
         if (worldStory.getStatesList().get(0).getClass().isAssignableFrom(
                 newWorldStory.getStatesList().get(0).getClass()
         )) {
             this.worldStory = new WorldStory(newWorldStory);
+            publishFrame();
         }
         logger.warn(
                 "setStory error: current story class " + worldStory.getStatesList().get(0).getClass() +
@@ -329,17 +458,16 @@ public abstract class StoryWorld extends World {
      * @param worldState сохранённое состояние
      */
     protected void setState(@NotNull WorldState worldState) {
-        Set<Integer> ids = new HashSet<>();
-        for (CreatureState creatureState : worldState.getStoryWorldState().getCreatureStates()) {
+        StoryWorldState storyWorldState = worldState.getStoryWorldState();
+        for (CreatureState creatureState : storyWorldState.getCreatureStates())
             getCreatureById(creatureState.getCreatureID()).setState(creatureState);
-            ids.add(creatureState.getCreatureID());
-        }
         // удаляем тех существ, которых нет в текущем состоянии или тех и при этом у них есть предок
         worldStory.getCreatures().removeIf(
-                creature -> !(ids.contains(creature.getId()))
+                creature -> storyWorldState.findCreatureStateById(creature.getId()) == null
         );
         // сохраняем кол-во тактов
         this.tickCnt = ((StoryWorldState) worldState).getTickCnt();
+        prefetchRewound = false;
     }
 
     /**
@@ -359,21 +487,235 @@ public abstract class StoryWorld extends World {
     }
 
     /**
-     * Перестроить историю от начала до конца
+     * Вернуть мир к текущему состоянию истории перед тем, как продолжить расчёт от него:
+     * состояния после текущего отбрасываются, само текущее состояние остаётся последним
+     *
+     * @return изменилось ли состояние мира
+     */
+    protected boolean restoreActualState() {
+        // после упреждающего расчёта мир уже стоит в текущем состоянии, но обрезка могла
+        // ничего не отбросить, если пользователь перешёл к последнему рассчитанному состоянию
+        if (worldStory.getStatesList().truncAfterActualPos() || prefetchRewound) {
+            setState();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Перестроить историю после изменения мира пользователем: опорной точкой служит
+     * текущее состояние истории, т.е. то, при просмотре которого мир был изменён
      */
     void rebuildStory() {
-        // получаем кол-во тактов истории
-        int addTickCnt = worldStory.getStatesList().size();
+        cancelRebuild();
         // очищаем существ
         for (Creature creature : worldStory.getCreatures())
             creature.clear();
-        setState(0);
-        // очищаем историю
-        worldStory.clear();
-        // заново совершаем столько же тактов, сколько было накоплено в истории
-        for (int i = 0; i < addTickCnt; i++) {
-            tick();
+        rebuildStory(worldStory.getStatesList().getActualPos());
+    }
+
+    /**
+     * Перестроить историю, начиная с заданного положения. Состояние в этом положении служит
+     * опорной точкой: мир восстанавливается по нему, более поздние состояния отбрасываются
+     * и заново рассчитываются в фоновом потоке до того же такта, что и до перестройки.
+     * Уже перестроенная часть истории доступна для просмотра сразу
+     *
+     * @param pos положение, начиная с которого надо перестроить историю
+     */
+    protected void rebuildStory(int pos) {
+        cancelRebuild();
+        if (pos < 0 || pos >= worldStory.getStatesList().size())
+            return;
+        int targetTickCnt = worldStory.getStatesList().getLast().getTickCnt();
+        worldStory.getStatesList().setActualPos(pos);
+        // опорное состояние остаётся в истории, отбрасываются только более поздние
+        worldStory.getStatesList().truncAfterActualPos();
+        setState();
+        publishFrame();
+        startRebuild(targetTickCnt);
+    }
+
+    /**
+     * Запустить фоновую перестройку истории от текущего состояния мира до заданного такта.
+     * Каждый такт перестройки выполняется под блокировкой мира, как и такты упреждающего
+     * расчёта, поэтому действия пользователя не попадают в середину такта
+     *
+     * @param targetTickCnt такт, до которого нужно перестроить историю
+     */
+    private void startRebuild(int targetTickCnt) {
+        if (tickCnt >= targetTickCnt)
+            return;
+        rebuildStartTickCnt = tickCnt;
+        rebuildTargetTickCnt = targetTickCnt;
+        rebuildCancelled = false;
+        rebuildThread = new Thread(() -> {
+            while (true) {
+                synchronized (this) {
+                    if (rebuildCancelled || tickCnt >= rebuildTargetTickCnt) {
+                        publishFrame();
+                        // поток, прерывающий перестройку под блокировкой мира, ждёт этого уведомления
+                        notifyAll();
+                        return;
+                    }
+                    // положение в истории читается под той же блокировкой, что и его изменение пользователем
+                    int actualPos = worldStory.getStatesList().getActualPos();
+                    boolean followEnd = actualPos == worldStory.getStatesList().size() - 1;
+                    replayTick();
+                    // если пользователь смотрит уже перестроенную часть, не сдвигаем его положение
+                    if (!followEnd)
+                        worldStory.getStatesList().setActualPos(actualPos);
+                }
+            }
+        }, "storyRebuild");
+        rebuildThread.setDaemon(true);
+        rebuildThread.start();
+    }
+
+    /**
+     * Прервать фоновую перестройку истории перед изменением мира пользователем: мир возвращается
+     * к просматриваемому состоянию истории, а перестроенные после него состояния отбрасываются,
+     * т.к. не учитывают изменение. После изменения перестройку нужно продолжить
+     * методом {@link #resumeRebuild(int)}
+     *
+     * @return такт, до которого перестраивалась история (-1, если история не перестраивалась)
+     */
+    protected synchronized int interruptRebuild() {
+        if (!isRebuilding())
+            return -1;
+        int targetTickCnt = rebuildTargetTickCnt;
+        cancelRebuild();
+        // просматриваемое состояние остаётся последним в истории, перестройка продолжится от него
+        restoreActualState();
+        publishFrame();
+        return targetTickCnt;
+    }
+
+    /**
+     * Продолжить прерванную методом {@link #interruptRebuild()} перестройку истории
+     * от текущего состояния мира
+     *
+     * @param targetTickCnt такт, до которого нужно перестроить историю (-1, если перестраивать не нужно)
+     */
+    protected synchronized void resumeRebuild(int targetTickCnt) {
+        if (targetTickCnt >= 0)
+            startRebuild(targetTickCnt);
+    }
+
+    /**
+     * Такт мира при перестройке истории
+     */
+    protected void replayTick() {
+        tick();
+    }
+
+    /**
+     * Прервать фоновую перестройку истории и дождаться остановки её потока
+     */
+    public void cancelRebuild() {
+        Thread thread = rebuildThread;
+        if (thread == null)
+            return;
+        rebuildCancelled = true;
+        if (thread != Thread.currentThread()) {
+            try {
+                // поток перестройки берёт блокировку мира на каждый такт, поэтому, если она
+                // захвачена вызывающим, ждать нужно с её освобождением
+                if (Thread.holdsLock(this)) {
+                    while (thread.isAlive())
+                        wait(REBUILD_CANCEL_WAIT_PERIOD);
+                } else
+                    thread.join();
+            } catch (InterruptedException e) {
+                logger.error("interrupted while waiting for story rebuild");
+                Thread.currentThread().interrupt();
+            }
         }
+        rebuildThread = null;
+    }
+
+    /**
+     * Проверить, перестраивается ли история
+     *
+     * @return перестраивается ли история
+     */
+    public boolean isRebuilding() {
+        Thread thread = rebuildThread;
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Получить долю выполненной перестройки истории
+     *
+     * @return доля выполненной перестройки от 0 до 1 (1, если история не перестраивается)
+     */
+    public double getRebuildProgress() {
+        if (!isRebuilding())
+            return 1;
+        int total = rebuildTargetTickCnt - rebuildStartTickCnt;
+        return total <= 0 ? 1 : (double) (tickCnt - rebuildStartTickCnt) / total;
+    }
+
+    /**
+     * Рассчитать заранее состояния истории после текущего, пока их меньше заданного
+     * в параметрах мира кол-ва или пока не истечёт отведённое время. Вызывается потоком тактов,
+     * пока мир приостановлен, поэтому перемещение вперёд по истории берёт состояния из уже
+     * рассчитанного запаса. Положение в истории при этом не меняется: после каждого шага
+     * мир возвращается к текущему состоянию истории, а следующий шаг продолжает расчёт
+     * от последнего рассчитанного состояния
+     *
+     * @param timeBudget отведённое время в наносекундах
+     * @return кол-во сделанных тактов
+     */
+    public int prefetch(long timeBudget) {
+        int prefetchStateCnt = getWorldParams().getStoryWorldParams().getPrefetchStateCnt();
+        if (prefetchStateCnt == 0 || !getWorldParams().getStoryWorldParams().isRecordStory())
+            return 0;
+        long deadline = System.nanoTime() + timeBudget;
+        int cnt = 0;
+        do {
+            // каждый такт выполняется под блокировкой мира, чтобы действия пользователя
+            // ждали не дольше одного такта
+            synchronized (this) {
+                // пока история перестраивается, тактами мира владеет поток перестройки
+                if (isRebuilding())
+                    break;
+                ChunkedActualList<StoryWorldState> statesList = worldStory.getStatesList();
+                int actualPos = statesList.getActualPos();
+                if (statesList.size() - 1 - actualPos >= prefetchStateCnt)
+                    break;
+                if (prefetchRewound)
+                    setState(statesList.size() - 1);
+                int storySize = statesList.size();
+                prefetchTick = true;
+                try {
+                    // состояние сохраняется не каждый такт, поэтому считаем до следующего сохранённого,
+                    // иначе несохранённые такты потерялись бы при возврате мира к текущему состоянию
+                    while (statesList.size() == storySize)
+                        replayTick();
+                } finally {
+                    prefetchTick = false;
+                }
+                statesList.setActualPos(actualPos);
+                setState();
+                prefetchRewound = true;
+                publishFrame();
+            }
+            cnt++;
+        } while (System.nanoTime() < deadline);
+        return cnt;
+    }
+
+    /**
+     * Отбросить рассчитанные заранее состояния истории после текущего и вернуть мир
+     * к текущему состоянию истории. Нужно перед изменением мира пользователем,
+     * иначе рассчитанные заранее состояния не будут учитывать изменение
+     */
+    protected synchronized void discardPrefetch() {
+        if (getWorldParams().getStoryWorldParams().getPrefetchStateCnt() == 0 ||
+                !getWorldParams().getStoryWorldParams().isRecordStory() || isRebuilding())
+            return;
+        if (restoreActualState())
+            publishFrame();
     }
 
     /**
@@ -381,8 +723,11 @@ public abstract class StoryWorld extends World {
      *
      * @param path путь к истории мира
      */
-    public void loadStory(String path) {
+    public synchronized void loadStory(String path) {
+        cancelRebuild();
+        worldStory.close();
         worldStory = WorldStory.loadStory(path);
+        publishFrame();
     }
 
     /**
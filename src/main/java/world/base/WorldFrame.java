@@ -0,0 +1,143 @@
+package world.base;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import creature.base.Creature;
+import creature.creature3D.Creature3D;
+import graphics.Camera;
+import world.states.WorldState;
+import world.worldStory.WorldStory;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Неизменяемый снимок мира для рисования. Поток обработки публикует новый снимок после каждого
+ * изменения мира, а поток рисования берёт последний опубликованный снимок без блокировок
+ * и не обращается к изменяемым спискам существ и истории. Всё, что меняется тактами
+ * (камера и значения сенсоров выбранного существа), копируется в снимок при публикации
+ */
+public class WorldFrame {
+    /**
+     * состояние мира
+     */
+    @NotNull
+    private final WorldState worldState;
+    /**
+     * выбранное существо, из него при рисовании берутся только параметры и модель,
+     * которые тактами не меняются
+     */
+    @Nullable
+    private final Creature selectedCreature;
+    /**
+     * копия камеры выбранного существа
+     */
+    @Nullable
+    private final Camera selectedCamera;
+    /**
+     * копия матрицы значений сенсоров выбранного существа
+     * (значение (x, y) хранится в ячейке x * sensorGridSize.y + y)
+     */
+    @Nullable
+    private final short[] selectedSensorGridValues;
+    /**
+     * кол-во состояний в истории
+     */
+    private final int storySize;
+    /**
+     * номер текущего состояния в истории
+     */
+    private final int storyPos;
+
+    /**
+     * Конструктор снимка мира, вызывается потоком, который меняет мир
+     *
+     * @param storyWorld мир с историей
+     */
+    WorldFrame(@NotNull StoryWorld storyWorld) {
+        WorldStory worldStory = Objects.requireNonNull(storyWorld).getWorldStory();
+        this.worldState = storyWorld.getActualWorldState();
+        this.selectedCreature = worldStory.findCreatureById(worldStory.getSelectedCreatureId());
+        this.selectedCamera = selectedCreature != null ? new Camera(selectedCreature.getCamera()) : null;
+        if (selectedCreature instanceof Creature3D)
+            this.selectedSensorGridValues = ((Creature3D) selectedCreature).getSensorGridValues().clone();
+        else
+            this.selectedSensorGridValues = null;
+        this.storySize = worldStory.getStatesList().size();
+        this.storyPos = worldStory.getStatesList().getActualPos();
+    }
+
+    /**
+     * Получить состояние мира
+     *
+     * @return состояние мира
+     */
+    @NotNull
+    public WorldState getWorldState() {
+        return worldState;
+    }
+
+    /**
+     * Получить выбранное существо, использовать можно только его параметры и модель
+     *
+     * @return выбранное существо (null, если существо не выбрано)
+     */
+    @Nullable
+    public Creature getSelectedCreature() {
+        return selectedCreature;
+    }
+
+    /**
+     * Получить камеру выбранного существа
+     *
+     * @return камера выбранного существа (null, если существо не выбрано)
+     */
+    @Nullable
+    public Camera getSelectedCamera() {
+        return selectedCamera;
+    }
+
+    /**
+     * Получить матрицу значений сенсоров выбранного существа
+     * (значение (x, y) хранится в ячейке x * sensorGridSize.y + y)
+     *
+     * @return матрица значений сенсоров (null, если у выбранного существа нет сенсоров)
+     */
+    @Nullable
+    public short[] getSelectedSensorGridValues() {
+        return selectedSensorGridValues;
+    }
+
+    /**
+     * Получить кол-во состояний в истории
+     *
+     * @return кол-во состояний в истории
+     */
+    public int getStorySize() {
+        return storySize;
+    }
+
+    /**
+     * Получить номер текущего состояния в истории
+     *
+     * @return номер текущего состояния в истории
+     */
+    public int getStoryPos() {
+        return storyPos;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "WorldFrame{worldState, selectedCreature, selectedCamera, selectedSensorGridValues, storySize, storyPos}"
+     */
+    @Override
+    public String toString() {
+        return "WorldFrame{" + worldState +
+                ", " + selectedCreature +
+                ", " + selectedCamera +
+                ", " + Arrays.toString(selectedSensorGridValues) +
+                ", " + storySize +
+                ", " + storyPos + '}';
+    }
+}
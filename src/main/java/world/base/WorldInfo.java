@@ -4,13 +4,15 @@ import com.github.aoklyunin.javaGLHelper.CaptionParams;
 import com.github.aoklyunin.javaGLHelper.GLConsole;
 import com.github.aoklyunin.javaGLHelper.GLTextController;
 import com.sun.istack.NotNull;
+import profiler.WorldProfiler;
 import world.params.WorldParams;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Класс информации о мире
+ * Класс информации о мире. Кроме частот тактов и рисования хранит профилировщик,
+ * статистика фаз которого выводится теми контроллерами текста, что заданы в параметрах мира
  */
 public class WorldInfo {
     /**
@@ -21,6 +23,10 @@ public class WorldInfo {
      * реальная частота циклов перерасчёта мира
      */
     private long realTickFrequency;
+    /**
+     * сглаженная задержка начала тактов мира относительно расписания в наносекундах
+     */
+    private long tickJitter;
     /**
      * Консоль для вывода текста
      */
@@ -30,6 +36,11 @@ public class WorldInfo {
      */
     @NotNull
     private final Map<String, GLTextController> textControllers;
+    /**
+     * профилировщик тактов и кадров
+     */
+    @NotNull
+    private final WorldProfiler worldProfiler;
 
     /**
      * Конструктор информации о мире
@@ -46,6 +57,7 @@ public class WorldInfo {
                 textControllers.get("console"), worldParams.getRenderConsoleTickCnt(),
                 worldParams.getMaxConsoleLinesCnt()
         );
+        worldProfiler = new WorldProfiler();
     }
 
     /**
@@ -56,8 +68,10 @@ public class WorldInfo {
     WorldInfo(@NotNull WorldInfo worldInfo) {
         this.realRenderFrequency = worldInfo.realRenderFrequency;
         this.realTickFrequency = worldInfo.realTickFrequency;
+        this.tickJitter = worldInfo.tickJitter;
         this.textControllers = new HashMap<>(worldInfo.textControllers);
         this.glConsole = new GLConsole(worldInfo.glConsole);
+        this.worldProfiler = new WorldProfiler(worldInfo.worldProfiler);
     }
 
     /**
@@ -68,8 +82,14 @@ public class WorldInfo {
                 "fps: " + realRenderFrequency
         );
         textControllers.get("frequency").drawText(
-                "frequency: " + realTickFrequency
+                "frequency: " + realTickFrequency + ", jitter: " + tickJitter / 1000 + " us"
         );
+        // миры, в параметрах которых нет подписей профилировщика, его статистику не выводят
+        for (WorldProfiler.Phase phase : WorldProfiler.Phase.values()) {
+            GLTextController textController = textControllers.get(phase.getCaptionKey());
+            if (textController != null)
+                textController.drawText(worldProfiler.getLogLine(phase));
+        }
         glConsole.render();
     }
 
@@ -83,6 +103,16 @@ public class WorldInfo {
     }
 
 
+    /**
+     * Получить профилировщик тактов и кадров
+     *
+     * @return профилировщик тактов и кадров
+     */
+    @NotNull
+    public WorldProfiler getWorldProfiler() {
+        return worldProfiler;
+    }
+
     /**
      * Задать реальную частоту рисования
      *
@@ -101,6 +131,15 @@ public class WorldInfo {
         this.realTickFrequency = realTickFrequency;
     }
 
+    /**
+     * Задать сглаженную задержку начала тактов мира относительно расписания
+     *
+     * @param tickJitter задержка начала тактов в наносекундах
+     */
+    public void setTickJitter(long tickJitter) {
+        this.tickJitter = tickJitter;
+    }
+
 
     /**
      * Строковое представление объекта вида:
@@ -114,12 +153,12 @@ public class WorldInfo {
 
     /**
      * Строковое представление объекта вида:
-     * "'path', worldParams, realRenderFrequency, realTickFrequency, backgroundColor"
+     * "'path', worldParams, realRenderFrequency, realTickFrequency, tickJitter, backgroundColor"
      *
      * @return строковое представление объекта
      */
     protected String getString() {
-        return realRenderFrequency + ", " + realTickFrequency;
+        return realRenderFrequency + ", " + realTickFrequency + ", " + tickJitter;
     }
 
     @Override
@@ -130,13 +169,15 @@ public class WorldInfo {
         WorldInfo worldInfo = (WorldInfo) o;
 
         if (realRenderFrequency != worldInfo.realRenderFrequency) return false;
-        return realTickFrequency == worldInfo.realTickFrequency;
+        if (realTickFrequency != worldInfo.realTickFrequency) return false;
+        return tickJitter == worldInfo.tickJitter;
     }
 
     @Override
     public int hashCode() {
         int result = (int) (realRenderFrequency ^ (realRenderFrequency >>> 32));
         result = 31 * result + (int) (realTickFrequency ^ (realTickFrequency >>> 32));
+        result = 31 * result + (int) (tickJitter ^ (tickJitter >>> 32));
         return result;
     }
 }
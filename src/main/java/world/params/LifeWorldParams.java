@@ -41,6 +41,10 @@ public class LifeWorldParams extends RealTimeWorldParams {
      * @param resourceFieldPath                путь к описанию ресурсного поля
      * @param manualCreatureControlStep        смещение существа при ручном контроле
      * @param saveInterval                     раз в сколько тактов надо сохранять мир
+     * @param storyKeyframeInterval            раз в сколько кадров истории сохранять опорный кадр целиком
+     *                                         (0 - хранить все кадры целиком)
+     * @param prefetchStateCnt                 сколько состояний истории рассчитывать заранее,
+     *                                         пока мир приостановлен (0 - не рассчитывать)
      * @param statesListName                   название списка состояний
      */
     @JsonCreator
@@ -54,14 +58,16 @@ public class LifeWorldParams extends RealTimeWorldParams {
             @NotNull @JsonProperty("storyScrollerParams") SimpleScrollerParams storyScrollerParams,
             @JsonProperty("recordStory") boolean recordStory, @NotNull @JsonProperty("statesListName") String statesListName,
             @JsonProperty("saveInterval") int saveInterval,
+            @JsonProperty("storyKeyframeInterval") int storyKeyframeInterval,
+            @JsonProperty("prefetchStateCnt") int prefetchStateCnt,
             @NotNull @JsonProperty("min") Vector3d min, @NotNull @JsonProperty("max") Vector3d max,
             @NotNull @JsonProperty("resourceFieldPath") String resourceFieldPath,
             @JsonProperty("manualCreatureControlStep") double manualCreatureControlStep
     ) {
         super(
                 type, name, creatureInWorldPlaceInstructions, captionParamsMap, maxConsoleLinesCnt, renderConsoleTickCnt,
-                initStoryPath, storyScrollerParams, recordStory, statesListName, saveInterval,
-                min, max, resourceFieldPath
+                initStoryPath, storyScrollerParams, recordStory, statesListName, saveInterval, storyKeyframeInterval,
+                prefetchStateCnt, min, max, resourceFieldPath
         );
         this.manualCreatureControlStep = manualCreatureControlStep;
     }
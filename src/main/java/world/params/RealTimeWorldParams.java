@@ -58,6 +58,10 @@ public class RealTimeWorldParams extends StoryWorldParams {
      * @param max                              максимальные координаты мира
      * @param resourceFieldPath                путь к описанию ресурсного поля
      * @param saveInterval                     раз в сколько тактов надо сохранять мир
+     * @param storyKeyframeInterval            раз в сколько кадров истории сохранять опорный кадр целиком
+     *                                         (0 - хранить все кадры целиком)
+     * @param prefetchStateCnt                 сколько состояний истории рассчитывать заранее,
+     *                                         пока мир приостановлен (0 - не рассчитывать)
      * @param statesListName                   название списка состояний
      */
     @JsonCreator
@@ -71,12 +75,15 @@ public class RealTimeWorldParams extends StoryWorldParams {
             @NotNull @JsonProperty("storyScrollerParams") SimpleScrollerParams storyScrollerParams,
             @JsonProperty("recordStory") boolean recordStory, @NotNull @JsonProperty("statesListName") String statesListName,
             @JsonProperty("saveInterval") int saveInterval,
+            @JsonProperty("storyKeyframeInterval") int storyKeyframeInterval,
+            @JsonProperty("prefetchStateCnt") int prefetchStateCnt,
             @NotNull @JsonProperty("min") Vector3d min, @NotNull @JsonProperty("max") Vector3d max,
             @NotNull @JsonProperty("resourceFieldPath") String resourceFieldPath
     ) {
         super(
                 type, name, creatureInWorldPlaceInstructions, captionParamsMap, maxConsoleLinesCnt, renderConsoleTickCnt,
-                initStoryPath, storyScrollerParams, recordStory, statesListName, saveInterval
+                initStoryPath, storyScrollerParams, recordStory, statesListName, saveInterval, storyKeyframeInterval,
+                prefetchStateCnt
         );
         this.min = Objects.requireNonNull(min);
         this.max = Objects.requireNonNull(max);
@@ -32,6 +32,16 @@ public class StoryWorldParams extends WorldParams {
      * Раз в сколько тактов надо сохранять мир
      */
     private final int saveInterval;
+    /**
+     * Раз в сколько кадров истории сохранять опорный кадр целиком
+     * (0 - хранить все кадры целиком)
+     */
+    private final int storyKeyframeInterval;
+    /**
+     * Сколько состояний истории рассчитывать заранее, пока мир приостановлен
+     * (0 - не рассчитывать)
+     */
+    private final int prefetchStateCnt;
     /**
      * путь к истории,  которую нужно загрузить при старте мира
      */
@@ -52,6 +62,10 @@ public class StoryWorldParams extends WorldParams {
      * @param recordStory                      флаг, нужно ли записывать историю
      * @param statesListName                   название списка состояний
      * @param saveInterval                     раз в сколько тактов надо сохранять мир
+     * @param storyKeyframeInterval            раз в сколько кадров истории сохранять опорный кадр целиком
+     *                                         (0 - хранить все кадры целиком)
+     * @param prefetchStateCnt                 сколько состояний истории рассчитывать заранее,
+     *                                         пока мир приостановлен (0 - не рассчитывать)
      */
     @JsonCreator
     public StoryWorldParams(
@@ -64,7 +78,9 @@ public class StoryWorldParams extends WorldParams {
             @NotNull @JsonProperty("storyScrollerParams") SimpleScrollerParams storyScrollerParams,
             @JsonProperty("recordStory") boolean recordStory,
             @NotNull @JsonProperty("statesListName") String statesListName,
-            @JsonProperty("saveInterval") int saveInterval
+            @JsonProperty("saveInterval") int saveInterval,
+            @JsonProperty("storyKeyframeInterval") int storyKeyframeInterval,
+            @JsonProperty("prefetchStateCnt") int prefetchStateCnt
     ) {
         super(
                 type, name, creatureInWorldPlaceInstructions, captionParamsMap,
@@ -75,6 +91,10 @@ public class StoryWorldParams extends WorldParams {
         this.recordStory = recordStory;
         this.statesListName = Objects.requireNonNull(statesListName);
         this.saveInterval = saveInterval;
+        this.storyKeyframeInterval = storyKeyframeInterval;
+        if (prefetchStateCnt < 0)
+            throw new IllegalArgumentException("prefetch state count must be non-negative: " + prefetchStateCnt);
+        this.prefetchStateCnt = prefetchStateCnt;
     }
 
     /**
@@ -88,6 +108,8 @@ public class StoryWorldParams extends WorldParams {
         this.recordStory = worldParams.recordStory;
         this.statesListName = worldParams.statesListName;
         this.saveInterval = worldParams.saveInterval;
+        this.storyKeyframeInterval = worldParams.storyKeyframeInterval;
+        this.prefetchStateCnt = worldParams.prefetchStateCnt;
         this.initStoryPath = worldParams.initStoryPath;
     }
 
@@ -137,6 +159,24 @@ public class StoryWorldParams extends WorldParams {
         return saveInterval;
     }
 
+    /**
+     * Получить, раз в сколько кадров истории сохранять опорный кадр целиком
+     *
+     * @return раз в сколько кадров истории сохранять опорный кадр целиком (0 - все кадры целиком)
+     */
+    public int getStoryKeyframeInterval() {
+        return storyKeyframeInterval;
+    }
+
+    /**
+     * Получить, сколько состояний истории рассчитывать заранее, пока мир приостановлен
+     *
+     * @return сколько состояний истории рассчитывать заранее (0 - не рассчитывать)
+     */
+    public int getPrefetchStateCnt() {
+        return prefetchStateCnt;
+    }
+
     /**
      * Строковое представление объекта вида:
      *
@@ -149,13 +189,13 @@ public class StoryWorldParams extends WorldParams {
 
     /**
      * Строковое представление объекта вида:
-     * "'statesListName', saveInterval, super.getString()"
+     * "'statesListName', saveInterval, storyKeyframeInterval, prefetchStateCnt, super.getString()"
      *
      * @return строковое представление объекта
      */
     protected String getString() {
-        return "'" + statesListName + '\'' + ", " + saveInterval + ", " +
-                super.getString();
+        return "'" + statesListName + '\'' + ", " + saveInterval + ", " + storyKeyframeInterval + ", " +
+                prefetchStateCnt + ", " + super.getString();
     }
 
     @Override
@@ -168,6 +208,8 @@ public class StoryWorldParams extends WorldParams {
 
         if (recordStory != that.recordStory) return false;
         if (saveInterval != that.saveInterval) return false;
+        if (storyKeyframeInterval != that.storyKeyframeInterval) return false;
+        if (prefetchStateCnt != that.prefetchStateCnt) return false;
         if (!Objects.equals(storyScrollerParams, that.storyScrollerParams))
             return false;
         return Objects.equals(statesListName, that.statesListName);
@@ -180,6 +222,8 @@ public class StoryWorldParams extends WorldParams {
         result = 31 * result + (recordStory ? 1 : 0);
         result = 31 * result + (statesListName != null ? statesListName.hashCode() : 0);
         result = 31 * result + saveInterval;
+        result = 31 * result + storyKeyframeInterval;
+        result = 31 * result + prefetchStateCnt;
         return result;
     }
 }
@@ -69,10 +69,9 @@ public abstract class RealTimeWorldState extends StoryWorldState {
      */@NotNull
     @JsonIgnore
     public CreatureState getSampleCreatureStateById(int id) {
-        for (CreatureState creatureState : getCreatureStates())
-            if (creatureState.getCreatureID() == id)
-                return creatureState;
-
+        CreatureState creatureState = findCreatureStateById(id);
+        if (creatureState != null)
+            return creatureState;
         throw new IllegalArgumentException("can not get sample creature state with id " + id);
     }
 
@@ -84,10 +83,9 @@ public abstract class RealTimeWorldState extends StoryWorldState {
      */@NotNull
     @JsonIgnore
     public CreatureState getRealCreatureStateById(int id) {
-        for (CreatureState creatureState : getCreatureStates())
-            if (creatureState.getCreatureID() == id )
-                return creatureState;
-
+        CreatureState creatureState = findCreatureStateById(id);
+        if (creatureState != null)
+            return creatureState;
         throw new IllegalArgumentException("can not get sample real state with id " + id);
     }
 
@@ -3,7 +3,9 @@ package world.states;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
 import creature.CreatureFactory;
+import creature.base.CreatureIdIndex;
 import creature.base.CreatureState;
 import world.base.StoryWorld;
 import world.params.StoryWorldParams;
@@ -22,6 +24,13 @@ public class StoryWorldState extends WorldState {
      * Кол-во сделанных тактов
      */
     private int tickCnt;
+    /**
+     * индекс позиций состояний существ по id существа, строится при первом поиске
+     * (null, если ещё не строился или список состояний изменился)
+     */
+    @Nullable
+    @JsonIgnore
+    private volatile CreatureIdIndex creatureStateIndex;
 
     /**
      * Конструктор состояния мира с историей
@@ -88,6 +97,50 @@ public class StoryWorldState extends WorldState {
     }
 
 
+    /**
+     * Найти состояние существа по id существа
+     *
+     * @param id id существа
+     * @return состояние существа или null, если состояния существа с таким id нет
+     */
+    @Nullable
+    public CreatureState findCreatureStateById(int id) {
+        List<CreatureState> creatureStates = getCreatureStates();
+        if (id < 0) {
+            for (CreatureState creatureState : creatureStates)
+                if (creatureState.getCreatureID() == id)
+                    return creatureState;
+            return null;
+        }
+        CreatureIdIndex index = creatureStateIndex;
+        if (index == null) {
+            // индекс строится целиком и только потом публикуется, поэтому его могут читать другие потоки
+            index = new CreatureIdIndex();
+            index.rebuild(creatureStates, CreatureState::getCreatureID);
+            creatureStateIndex = index;
+        }
+        int slot = index.get(id);
+        return slot == CreatureIdIndex.NO_SLOT ? null : creatureStates.get(slot);
+    }
+
+    /**
+     * Сбросить индекс состояний существ по id, вызывается при замене списка состояний существ
+     */
+    protected void invalidateCreatureStateIndex() {
+        creatureStateIndex = null;
+    }
+
+    /**
+     * Заменить вложенные состояния, совпадающие с состояниями предыдущего кадра,
+     * ссылками на состояния предыдущего кадра, чтобы соседние кадры истории не хранили
+     * одинаковые данные дважды
+     *
+     * @param previous предыдущий кадр
+     */
+    public void shareUnchanged(@NotNull StoryWorldState previous) {
+
+    }
+
     /**
      * Получить номер такта
      *
@@ -0,0 +1,200 @@
+package world.states;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import creature.base.CreatureState;
+import field.base.InfluenceFieldState;
+import field.field3D.state.Objects3DFieldState;
+import field.field3D.state.Objects3DFieldStateDelta;
+import world.params.WorldParams;
+
+import java.util.*;
+
+/**
+ * Изменения состояния мира с историей относительно опорного кадра.
+ * Хранит только те состояния существ, которые отличаются от опорного кадра, а состояние
+ * поля объектов - только изменившимися элементами массивов трансформаций, остальные части
+ * берутся из опорного кадра при восстановлении
+ */
+public class StoryWorldStateDelta {
+    /**
+     * Опорный кадр
+     */
+    @NotNull
+    private final StoryWorldState keyframe;
+    /**
+     * Кол-во сделанных тактов
+     */
+    private final int tickCnt;
+    /**
+     * id существ в порядке следования их состояний или null, если порядок совпадает с опорным кадром
+     */
+    @Nullable
+    private final int[] creatureIds;
+    /**
+     * Изменившиеся состояния существ по id существа
+     */
+    @NotNull
+    private final Map<Integer, CreatureState> changedCreatureStates;
+    /**
+     * Состояние ресурсного поля целиком или null, если оно совпадает с опорным кадром
+     * или хранится изменениями
+     */
+    @Nullable
+    private final InfluenceFieldState resourceFieldState;
+    /**
+     * Изменения состояния поля объектов относительно опорного кадра или null,
+     * если состояние поля совпадает с опорным кадром или хранится целиком
+     */
+    @Nullable
+    private final Objects3DFieldStateDelta resourceFieldStateDelta;
+
+    /**
+     * Конструктор изменений состояния мира относительно опорного кадра
+     *
+     * @param keyframe   опорный кадр
+     * @param worldState состояние мира
+     */
+    public StoryWorldStateDelta(@NotNull StoryWorldState keyframe, @NotNull StoryWorldState worldState) {
+        this.keyframe = Objects.requireNonNull(keyframe);
+        this.tickCnt = worldState.getTickCnt();
+
+        List<CreatureState> keyframeCreatureStates = keyframe.getCreatureStates();
+        Map<Integer, CreatureState> keyframeCreatureStateMap = new HashMap<>();
+        for (CreatureState creatureState : keyframeCreatureStates)
+            keyframeCreatureStateMap.put(creatureState.getCreatureID(), creatureState);
+
+        List<CreatureState> creatureStates = worldState.getCreatureStates();
+        boolean flgSameOrder = creatureStates.size() == keyframeCreatureStates.size();
+        int[] ids = new int[creatureStates.size()];
+        Map<Integer, CreatureState> changed = new HashMap<>();
+        for (int i = 0; i < creatureStates.size(); i++) {
+            CreatureState creatureState = creatureStates.get(i);
+            ids[i] = creatureState.getCreatureID();
+            if (flgSameOrder && keyframeCreatureStates.get(i).getCreatureID() != ids[i])
+                flgSameOrder = false;
+            if (!creatureState.equals(keyframeCreatureStateMap.get(ids[i])))
+                changed.put(ids[i], creatureState);
+        }
+        this.creatureIds = flgSameOrder ? null : ids;
+        this.changedCreatureStates = changed.isEmpty() ? Collections.emptyMap() : changed;
+
+        InfluenceFieldState fieldState = worldState instanceof RealTimeWorldState ?
+                worldState.getRealTimeWorldState().getResourceFieldState() : null;
+        InfluenceFieldState keyframeFieldState = fieldState != null ?
+                keyframe.getRealTimeWorldState().getResourceFieldState() : null;
+        if (fieldState == null || fieldState.equals(keyframeFieldState)) {
+            this.resourceFieldState = null;
+            this.resourceFieldStateDelta = null;
+        } else if (fieldState instanceof Objects3DFieldState && keyframeFieldState instanceof Objects3DFieldState &&
+                Objects3DFieldStateDelta.canDiff(
+                        keyframeFieldState.getObjects3DFieldState(), fieldState.getObjects3DFieldState()
+                )) {
+            this.resourceFieldState = null;
+            this.resourceFieldStateDelta = new Objects3DFieldStateDelta(
+                    keyframeFieldState.getObjects3DFieldState(), fieldState.getObjects3DFieldState()
+            );
+        } else {
+            this.resourceFieldState = fieldState;
+            this.resourceFieldStateDelta = null;
+        }
+    }
+
+    /**
+     * Получить опорный кадр
+     *
+     * @return опорный кадр
+     */
+    @NotNull
+    public StoryWorldState getKeyframe() {
+        return keyframe;
+    }
+
+    /**
+     * Получить тип мира
+     *
+     * @return тип мира
+     */
+    @NotNull
+    public WorldParams.WorldType getType() {
+        return keyframe.getType();
+    }
+
+    /**
+     * Получить номер такта
+     *
+     * @return номер такта
+     */
+    public int getTickCnt() {
+        return tickCnt;
+    }
+
+    /**
+     * Получить состояния существ, собранные из опорного кадра и изменений
+     *
+     * @return состояния существ
+     */
+    @NotNull
+    public List<CreatureState> getCreatureStates() {
+        List<CreatureState> keyframeCreatureStates = keyframe.getCreatureStates();
+        List<CreatureState> creatureStates = new ArrayList<>();
+        if (creatureIds == null) {
+            for (CreatureState creatureState : keyframeCreatureStates)
+                creatureStates.add(changedCreatureStates.getOrDefault(creatureState.getCreatureID(), creatureState));
+        } else {
+            Map<Integer, CreatureState> keyframeCreatureStateMap = new HashMap<>();
+            for (CreatureState creatureState : keyframeCreatureStates)
+                keyframeCreatureStateMap.put(creatureState.getCreatureID(), creatureState);
+            for (int creatureId : creatureIds) {
+                CreatureState creatureState = changedCreatureStates.get(creatureId);
+                creatureStates.add(creatureState != null ? creatureState : keyframeCreatureStateMap.get(creatureId));
+            }
+        }
+        return creatureStates;
+    }
+
+    /**
+     * Получить состояние ресурсного поля
+     *
+     * @return состояние ресурсного поля
+     */
+    @NotNull
+    public InfluenceFieldState getResourceFieldState() {
+        if (resourceFieldState != null)
+            return resourceFieldState;
+        InfluenceFieldState keyframeFieldState = keyframe.getRealTimeWorldState().getResourceFieldState();
+        if (resourceFieldStateDelta != null)
+            return resourceFieldStateDelta.apply(keyframeFieldState.getObjects3DFieldState());
+        return keyframeFieldState;
+    }
+
+    /**
+     * Получить кол-во изменившихся состояний существ
+     *
+     * @return кол-во изменившихся состояний существ
+     */
+    public int getChangedCreatureStatesCnt() {
+        return changedCreatureStates.size();
+    }
+
+    /**
+     * Проверка, изменилось ли состояние ресурсного поля относительно опорного кадра
+     *
+     * @return изменилось ли состояние ресурсного поля
+     */
+    public boolean isResourceFieldStateChanged() {
+        return resourceFieldState != null || resourceFieldStateDelta != null;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "StoryWorldStateDelta{tickCnt, changedCreatureStatesCnt, resourceFieldStateChanged}"
+     */
+    @Override
+    public String toString() {
+        return "StoryWorldStateDelta{" + tickCnt +
+                ", " + changedCreatureStates.size() +
+                ", " + isResourceFieldStateChanged() + '}';
+    }
+}
@@ -4,10 +4,13 @@ import com.github.aoklyunin.javaGLHelper.GLAlgorithms;
 import com.jogamp.opengl.GL2;
 import com.sun.istack.NotNull;
 import creature.base.Creature;
+import field.field3D.Food3DField;
 import field.field3D.state.CoordinateSystem3DState;
+import field.field3D.state.Food3DFieldState;
 import jMath.aoklyunin.github.com.coordinateSystem.CoordinateSystem2d;
 import jMath.aoklyunin.github.com.vector.Vector2d;
 import jMath.aoklyunin.github.com.vector.Vector3d;
+import world.states.StoryWorldState;
 import world.states.WorldState;
 import world.world3D.params.RealTime3DWorldParams;
 
@@ -52,16 +55,36 @@ public class Food3DWorld extends Life3DWorld {
      * @return обработано ли нажатие на данном уровне абстракции
      */
     @Override
-    public boolean clickWorld(@NotNull Vector2d mouseGLPos, @NotNull CoordinateSystem2d renderCS, int mouseButton) {
+    public synchronized boolean clickWorld(
+            @NotNull Vector2d mouseGLPos, @NotNull CoordinateSystem2d renderCS, int mouseButton
+    ) {
         if (super.clickWorld(mouseGLPos, renderCS, mouseButton))
             return true;
-        if (getResourceField().getFood3DField().click(mouseGLPos, renderCS, mouseButton)) {
-            getWorldStory().getStatesList().getActual().getRealTimeWorldState().getResourceFieldState()
-                    .getFood3DFieldState().setFoodMovingSpeed(getResourceField().getFood3DField().getFoodMovingSpeed());
-            getWorldStory().getStatesList().getActual().getRealTimeWorldState().getResourceFieldState()
-                    .getFood3DFieldState().setFoodMovingCS(new CoordinateSystem3DState(
+        Food3DField food3DField = getResourceField().getFood3DField();
+        if (food3DField.click(mouseGLPos, renderCS, mouseButton)) {
+            // перестроенные и рассчитанные заранее состояния не знают о новых параметрах движения еды:
+            // отбрасываем их вместе с возвратом мира к текущему состоянию и задаём параметры заново
+            double foodMovingSpeed = food3DField.getFoodMovingSpeed();
+            Vector3d foodMovingRange = new Vector3d(food3DField.getFoodMovingCS().getSize());
+            int rebuildTargetTickCnt = interruptRebuild();
+            discardPrefetch();
+            food3DField.setFoodMovingSpeed(foodMovingSpeed);
+            food3DField.setFoodMovingRange(foodMovingRange);
+            StoryWorldState actualState = getWorldStory().getStatesList().getActual();
+            // состояние поля может разделяться с другими кадрами, поэтому изменяется его копия
+            Food3DFieldState food3DFieldState = new Food3DFieldState(
+                    actualState.getRealTimeWorldState().getResourceFieldState().getFood3DFieldState()
+            );
+            food3DFieldState.setFoodMovingSpeed(getResourceField().getFood3DField().getFoodMovingSpeed());
+            food3DFieldState.setFoodMovingCS(new CoordinateSystem3DState(
                     getResourceField().getFood3DField().getFoodMovingCS()
             ));
+            actualState.getRealTimeWorldState().setResourceFieldState(food3DFieldState);
+            // история может хранить состояния в виде изменений, поэтому изменённое состояние записываем обратно
+            getWorldStory().getStatesList().setToActual(actualState);
+            publishFrame();
+            // перестройка истории продолжается уже с новыми параметрами движения еды
+            resumeRebuild(rebuildTargetTickCnt);
             return true;
         }
         return false;
@@ -101,20 +124,11 @@ public class Food3DWorld extends Life3DWorld {
      */
     @Override
     public void render(GL2 gl2, @NotNull CoordinateSystem2d renderCS, @NotNull WorldState worldState) {
-        if (getWorldParams().getStoryWorldParams().isRecordStory()) {
-            // рисуем ресурсное поле
-            getResourceField().getObjects3DField().render(
-                    gl2,
-                    getWorldStory().getStatesList().getActual().getRealTimeWorldState().getResourceFieldState()
-            );
-            renderCreature3D(gl2, getWorldStory().getActualCreatureStates().get(0));
-        } else {
-            // рисуем ресурсное поле
-            getResourceField().getObjects3DField().render(
-                    gl2, getResourceField().getState()
-            );
-            renderCreature3D(gl2, getWorldStory().getCreatures().get(0).getState());
-        }
+        // рисуем ресурсное поле
+        getResourceField().getObjects3DField().render(
+                gl2, worldState.getRealTimeWorldState().getResourceFieldState()
+        );
+        renderCreature3D(gl2, worldState.getStoryWorldState().getCreatureStates().get(0));
 
         gl2.glColor3d(1.0, 1.0, 1.0);
         for (int i = (int) getWorldParams().getRealTime3DWorldParams().getWorldCS().getMin().x;
@@ -137,17 +151,10 @@ public class Food3DWorld extends Life3DWorld {
     @Override
     public void renderLog(GL2 gl2, @NotNull WorldState worldState) {
         super.renderLog(gl2, Objects.requireNonNull(worldState));
-        if (getWorldParams().getRealTimeWorldParams().isRecordStory()) {
-            getWorldInfo().getTextControllers().get("foodInfo").drawText(
-                    getWorldStory().getStatesList().getActual().getRealTimeWorldState().getResourceFieldState()
-                            .getFood3DFieldState().getObjectTransforms().get(0).getPosition() + ""
-
-            );
-        } else {
-            getWorldInfo().getTextControllers().get("foodInfo").drawText(
-                    getResourceField().getState().getFood3DFieldState().getObjectTransforms().get(0).getPosition() + ""
-            );
-        }
+        getWorldInfo().getTextControllers().get("foodInfo").drawText(
+                worldState.getRealTimeWorldState().getResourceFieldState()
+                        .getFood3DFieldState().getObjectTransforms().get(0).getPosition() + ""
+        );
     }
 
     @Override
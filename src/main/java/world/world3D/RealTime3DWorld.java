@@ -142,14 +142,18 @@ public abstract class RealTime3DWorld extends RealTimeWorld {
     /**
      * Рисовать сетку коннкеторов
      *
-     * @param gl2      переменная OpenGL
-     * @param creature существо
+     * @param gl2              переменная OpenGL
+     * @param creature         существо, из него берутся только параметры
+     * @param sensorGridValues матрица значений сенсоров существа из снимка мира
+     *                         (значение (x, y) хранится в ячейке x * sensorGridSize.y + y)
      */
-    public void renderConnectorGrid(GL2 gl2, @NotNull Creature creature) {
+    public void renderConnectorGrid(GL2 gl2, @NotNull Creature creature, @NotNull short[] sensorGridValues) {
         Vector2d quadSize = renderSensorGridCS.getSimilarity(
                 creature.getCreatureParams().getCreature3DParams().getRenderSensorGridCS()
         );
         Vector2d quadOffset = new Vector2d(quadSize);
+        int stride = creature.getCreatureParams().getCreature3DParams().getSensorGridSize().y;
+        double maxValue = creature.getCreatureParams().getCreature3DParams().getSensorGridMaxValue();
 
         // проходим по всме x-координатам СК отображения
         for (int i = 0; i < creature.getCreatureParams().getCreature3DParams().getSensorGridSize().x; i++) {
@@ -157,7 +161,7 @@ public abstract class RealTime3DWorld extends RealTimeWorld {
                 Vector3d color = new Vector3d(0, 1, 0);
                 gl2.glColor4d(
                         color.x, color.y, color.z,
-                        creature.getCreature3D().getNormalizedSensorGridValue(i, j) * 0.5 + 0.5
+                        sensorGridValues[i * stride + j] / maxValue * 0.5 + 0.5
                 );
                 // получаем размер квадрата коннкетора
                 Vector2d quadPos = Vector2d.sum(renderSensorGridCS.getCoords(
@@ -201,7 +205,9 @@ public abstract class RealTime3DWorld extends RealTimeWorld {
         // задаём OpenGL трансформацию
         getCreatureStandAloneTransform().apply(gl2);
 
-        getWorldStory().getSelectedCreature().getCreatureModel().render(gl2);
+        Creature selectedCreature = getFrame().getSelectedCreature();
+        if (selectedCreature != null)
+            selectedCreature.getCreatureModel().render(gl2);
 
         //renderStandAloneCreatureConnectors(gl2);
 
@@ -217,6 +223,7 @@ public abstract class RealTime3DWorld extends RealTimeWorld {
         getInitCreaturesList().set(0, Objects.requireNonNull(creature));
         creature.getCamera().setPos(getWorldStory().getCreatures().get(0).getCamera().getPos());
         getWorldStory().getCreatures().set(0, creature);
+        publishFrame();
     }
 
     /**
@@ -252,7 +259,9 @@ public abstract class RealTime3DWorld extends RealTimeWorld {
     @Override
     public void onChangeStoryPosByScroller() {
         super.onChangeStoryPosByScroller();
-        calculateCreaturesSensorGrid();
+        // во время перестройки истории существами владеет поток перестройки
+        if (!isRebuilding())
+            calculateCreaturesSensorGrid();
     }
 
     /**
@@ -269,10 +278,12 @@ public abstract class RealTime3DWorld extends RealTimeWorld {
     }
 
     /**
-     * рассчёт сетки сенсоров существ
+     * рассчёт сетки сенсоров существ и публикация снимка мира с новыми значениями сенсоров
+     * (вызывается после изменения существ пользователем)
      */
     public void calculateCreaturesSensorGrid() {
         calculateCreaturesSensorGrid(getWorldStory().getStatesList().getActual());
+        publishFrame();
     }
 
     /**
@@ -36,6 +36,10 @@ public class Life3DWorldParams extends RealTime3DWorldParams {
      * @param max                              максимальные координаты мира
      * @param resourceFieldPath                путь к описанию ресурсного поля
      * @param saveInterval                     раз в сколько тактов надо сохранять мир
+     * @param storyKeyframeInterval            раз в сколько кадров истории сохранять опорный кадр целиком
+     *                                         (0 - хранить все кадры целиком)
+     * @param prefetchStateCnt                 сколько состояний истории рассчитывать заранее,
+     *                                         пока мир приостановлен (0 - не рассчитывать)
      * @param statesListName                   название списка состояний
      * @param flgOverrideStory                 флаг, нужно ли перезаписывать историю в базе
      */
@@ -50,14 +54,16 @@ public class Life3DWorldParams extends RealTime3DWorldParams {
             @NotNull @JsonProperty("storyScrollerParams") SimpleScrollerParams storyScrollerParams,
             @JsonProperty("recordStory") boolean recordStory, @NotNull @JsonProperty("statesListName") String statesListName,
             @JsonProperty("saveInterval") int saveInterval,
+            @JsonProperty("storyKeyframeInterval") int storyKeyframeInterval,
+            @JsonProperty("prefetchStateCnt") int prefetchStateCnt,
             @NotNull @JsonProperty("min") Vector3d min, @NotNull @JsonProperty("max") Vector3d max,
             @NotNull @JsonProperty("resourceFieldPath") String resourceFieldPath,
             @JsonProperty("flgOverrideStory") boolean flgOverrideStory
     ) {
         super(
                 type, name, creatureInWorldPlaceInstructions, captionParamsMap, maxConsoleLinesCnt, renderConsoleTickCnt,
-                initStoryPath, storyScrollerParams, recordStory, statesListName, saveInterval,
-                min, max, resourceFieldPath
+                initStoryPath, storyScrollerParams, recordStory, statesListName, saveInterval, storyKeyframeInterval,
+                prefetchStateCnt, min, max, resourceFieldPath
         );
         this.flgOverrideStory = flgOverrideStory;
     }
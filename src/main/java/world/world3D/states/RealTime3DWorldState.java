@@ -4,22 +4,21 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
 import creature.base.CreatureState;
-import creature.creature3D.Creature3DState;
 import field.base.InfluenceFieldState;
-import field.field3D.state.Food3DFieldState;
 import field.field3D.state.Objects3DFieldState;
 import world.params.WorldParams;
 import world.states.RealTimeWorldState;
+import world.states.StoryWorldState;
 import world.world3D.RealTime3DWorld;
-import world.worldStory.actualList.RealTime3DWorldStateActualList;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 
 /**
- * Состояние трёхмерного мира реального времени
+ * Состояние трёхмерного мира реального времени.
+ * Состояния существ и поля не изменяются после попадания в состояние мира, поэтому они не копируются,
+ * а используются совместно: копия состояния мира разделяет их с оригиналом, а соседние кадры истории -
+ * друг с другом, если существо или поле между ними не изменилось
  */
 public class RealTime3DWorldState extends RealTimeWorldState {
     /**
@@ -87,25 +86,55 @@ public class RealTime3DWorldState extends RealTimeWorldState {
     }
 
     /**
-     * Задать состояния существ
+     * Задать состояния существ: состояния не копируются, неизменяемый список
+     * другого состояния мира используется без копирования
      *
      * @param creatureStates список состояний существ
      */
     public void setCreatureStates(@NotNull List<CreatureState> creatureStates) {
-        this.creatureStates = new ArrayList<>();
-        for (CreatureState creatureState : creatureStates) {
-            Creature3DState newCreatureState = new Creature3DState((Creature3DState) creatureState);
-            this.creatureStates.add(newCreatureState);
-        }
+        this.creatureStates = List.copyOf(creatureStates);
+        invalidateCreatureStateIndex();
     }
 
     /**
-     * Задать состояние ресурсного поля
+     * Задать состояние ресурсного поля (состояние не копируется)
      *
      * @param resourceFieldState состояние ресурсного поля
      */
     public void setResourceFieldState(@NotNull InfluenceFieldState resourceFieldState) {
-        this.resourceFieldState = new Food3DFieldState(resourceFieldState.getFood3DFieldState());
+        this.resourceFieldState = resourceFieldState.getFood3DFieldState();
+    }
+
+    /**
+     * Заменить состояния существ и поля, совпадающие с состояниями предыдущего кадра,
+     * ссылками на состояния предыдущего кадра (позиции существ при этом не меняются,
+     * поэтому индекс по id остаётся верным)
+     *
+     * @param previous предыдущий кадр
+     */
+    @Override
+    public void shareUnchanged(@NotNull StoryWorldState previous) {
+        if (!(previous instanceof RealTime3DWorldState))
+            return;
+        RealTime3DWorldState that = (RealTime3DWorldState) previous;
+        if (resourceFieldState != that.resourceFieldState && resourceFieldState.equals(that.resourceFieldState))
+            resourceFieldState = that.resourceFieldState;
+        if (creatureStates == that.creatureStates || creatureStates.size() != that.creatureStates.size())
+            return;
+        CreatureState[] shared = null;
+        for (int i = 0; i < creatureStates.size(); i++) {
+            CreatureState previousState = that.creatureStates.get(i);
+            if (creatureStates.get(i) != previousState && creatureStates.get(i).equals(previousState)) {
+                if (shared == null)
+                    shared = creatureStates.toArray(new CreatureState[0]);
+                shared[i] = previousState;
+            }
+        }
+        if (shared != null)
+            creatureStates = List.of(shared);
+        // если не изменилось ни одно существо, используем сам список предыдущего кадра
+        if (creatureStates.equals(that.creatureStates))
+            creatureStates = that.creatureStates;
     }
 
     /**
@@ -6,17 +6,22 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
 import creature.CreatureFactory;
 import creature.base.Creature;
+import creature.base.CreatureList;
 import creature.base.CreatureState;
 import world.WorldFactory;
 import world.params.CreatureInWorldParams;
 import world.states.StoryWorldState;
-import world.worldStory.actualList.LinkedActualList;
+import world.worldStory.actualList.ChunkedActualList;
+import world.worldStory.actualList.DeltaActualList;
+import world.worldStory.actualList.StoryFileActualList;
+import world.worldStory.storyFile.StoryFileReader;
+import world.worldStory.storyFile.StoryFileWriter;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 
@@ -33,12 +38,12 @@ public class WorldStory {
      */
     @NotNull
     @JsonIgnore
-    private final LinkedActualList<StoryWorldState> statesList;
+    private final ChunkedActualList<StoryWorldState> statesList;
     /**
-     * существа
+     * существа с индексом по id
      */
     @NotNull
-    private List<Creature> creatures;
+    private CreatureList creatures;
     /**
      * индекс выделенного существа
      */
@@ -48,6 +53,19 @@ public class WorldStory {
      */
     @NotNull
     private String listName;
+    /**
+     * потоковая запись истории в бинарный файл (null, если запись не ведётся)
+     */
+    @Nullable
+    @JsonIgnore
+    private StoryFileWriter storyFileWriter;
+    /**
+     * последнее добавленное состояние, с которым новые состояния разделяют неизменившиеся
+     * вложенные состояния (null, если состояния ещё не добавлялись)
+     */
+    @Nullable
+    @JsonIgnore
+    private StoryWorldState lastAddedState;
 
 
     /**
@@ -59,13 +77,16 @@ public class WorldStory {
      * @param listName           название списка
      */
     private WorldStory(
-            @NotNull List<Creature> creatures, @NotNull LinkedActualList<StoryWorldState> statesList,
+            @NotNull List<Creature> creatures, @NotNull ChunkedActualList<StoryWorldState> statesList,
             int selectedCreatureId, @NotNull String listName
     ) {
-        this.creatures = new LinkedList<>(creatures);
+        this.creatures = new CreatureList(creatures);
         this.selectedCreatureId = selectedCreatureId;
         this.listName = Objects.requireNonNull(listName);
-        this.statesList = new LinkedActualList<>(statesList, WorldFactory::clone);
+        if (statesList instanceof DeltaActualList)
+            this.statesList = new DeltaActualList((DeltaActualList) statesList);
+        else
+            this.statesList = new ChunkedActualList<>(statesList, WorldFactory::clone);
     }
 
     /**
@@ -81,7 +102,7 @@ public class WorldStory {
      * Конструктор истории мира
      */
     public WorldStory() {
-        statesList = new LinkedActualList<>();
+        statesList = new ChunkedActualList<>();
     }
 
     /**
@@ -90,10 +111,38 @@ public class WorldStory {
      * @param listName название списка
      */
     public WorldStory(@NotNull String listName) {
-        this.creatures = new LinkedList<>();
+        this(listName, 0);
+    }
+
+    /**
+     * Конструктор истории мира
+     *
+     * @param listName         название списка
+     * @param keyframeInterval раз в сколько кадров сохранять опорный кадр целиком,
+     *                         остальные кадры хранятся в виде изменений относительно него
+     *                         (0 - хранить все кадры целиком)
+     */
+    public WorldStory(@NotNull String listName, int keyframeInterval) {
+        this.creatures = new CreatureList();
         this.selectedCreatureId = -1;
         this.listName = Objects.requireNonNull(listName);
-        this.statesList = new LinkedActualList<>();
+        if (keyframeInterval > 0)
+            this.statesList = new DeltaActualList(keyframeInterval);
+        else
+            this.statesList = new ChunkedActualList<>();
+    }
+
+    /**
+     * Конструктор истории мира, загруженной из бинарного файла
+     *
+     * @param storyFileReader чтение файла истории
+     */
+    private WorldStory(@NotNull StoryFileReader storyFileReader) {
+        this.creatures = new CreatureList(storyFileReader.getCreatures().stream().map(CreatureFactory::getCreature)
+                .collect(toList()));
+        this.selectedCreatureId = storyFileReader.getSelectedCreatureId();
+        this.listName = storyFileReader.getListName();
+        this.statesList = new StoryFileActualList(storyFileReader);
     }
 
     /**
@@ -111,7 +160,7 @@ public class WorldStory {
      *
      * @return список состояний
      */
-    public synchronized LinkedActualList<StoryWorldState> getStatesList() {
+    public synchronized ChunkedActualList<StoryWorldState> getStatesList() {
         return statesList;
     }
 
@@ -130,7 +179,7 @@ public class WorldStory {
      * @param creatures список существ
      */
     public void setCreatures(@NotNull List<Creature> creatures) {
-        this.creatures = Objects.requireNonNull(creatures);
+        this.creatures = new CreatureList(Objects.requireNonNull(creatures));
     }
 
     /**
@@ -151,8 +200,8 @@ public class WorldStory {
      */
     @JsonSetter("creatures")
     public void setCreaturesInWorldParams(@NotNull List<CreatureInWorldParams> creatureInWorldParamsList) {
-        creatures = creatureInWorldParamsList.stream().map(CreatureFactory::getCreature)
-                .collect(toList());
+        creatures = new CreatureList(creatureInWorldParamsList.stream().map(CreatureFactory::getCreature)
+                .collect(toList()));
     }
 
     /**
@@ -179,6 +228,70 @@ public class WorldStory {
     }
 
 
+    /**
+     * Добавить состояние в конец истории, если ведётся запись в бинарный файл,
+     * то состояние сразу дописывается в него
+     *
+     * @param storyWorldState состояние мира
+     */
+    public void addState(@NotNull StoryWorldState storyWorldState) {
+        Objects.requireNonNull(storyWorldState);
+        // ссылка на прошлое состояние могла устареть после перемотки, но разделяются
+        // только равные вложенные состояния, поэтому это влияет лишь на экономию памяти
+        if (lastAddedState != null)
+            storyWorldState.shareUnchanged(lastAddedState);
+        lastAddedState = storyWorldState;
+        statesList.add(storyWorldState);
+        if (storyFileWriter != null)
+            syncStoryFile();
+    }
+
+    /**
+     * Начать потоковую запись истории в бинарный файл, уже накопленные состояния
+     * записываются сразу, новые - по мере добавления
+     *
+     * @param path путь к файлу истории
+     */
+    public void startStoryFile(@NotNull String path) {
+        closeStoryFile();
+        try {
+            storyFileWriter = new StoryFileWriter(path, listName, selectedCreatureId, getCreaturesInWorldParams());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("can not create story file " + path + "\n" + e);
+        }
+        syncStoryFile();
+    }
+
+    /**
+     * Закончить потоковую запись истории в бинарный файл
+     */
+    public void closeStoryFile() {
+        if (storyFileWriter == null)
+            return;
+        try {
+            storyFileWriter.close();
+        } catch (IOException e) {
+            throw new AssertionError("can not close story file " + storyFileWriter.getPath() + "\n" + e);
+        }
+        storyFileWriter = null;
+    }
+
+    /**
+     * Привести бинарный файл истории в соответствие со списком состояний:
+     * записи, начиная с первого изменённого состояния, отбрасываются, недостающие дописываются
+     */
+    private void syncStoryFile() {
+        try {
+            int changedFrom = statesList.takeChangedFrom();
+            if (storyFileWriter.size() > changedFrom)
+                storyFileWriter.truncate(changedFrom);
+            for (int i = storyFileWriter.size(); i < statesList.size(); i++)
+                storyFileWriter.append(statesList.get(i));
+        } catch (IOException e) {
+            throw new AssertionError("can not write story file " + storyFileWriter.getPath() + "\n" + e);
+        }
+    }
+
     /**
      * Добавить состояния в историю
      *
@@ -190,12 +303,19 @@ public class WorldStory {
 
 
     /**
-     * Загрузить историю из файла
+     * Загрузить историю из файла (бинарного или json)
      *
      * @param path путь к истории
      * @return история мира
      */
     public static WorldStory loadStory(@NotNull String path) {
+        if (StoryFileReader.isStoryFile(path)) {
+            try {
+                return new WorldStory(new StoryFileReader(path));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("can not load story from " + path + "\n" + e);
+            }
+        }
         try {
             ObjectMapper objectMapper = new ObjectMapper();
             return objectMapper.readValue(new File(path), WorldStory.class);
@@ -224,32 +344,30 @@ public class WorldStory {
         }
     }
 
-
     /**
-     * Получить существо по его id
+     * Найти существо по его id
      *
      * @param id id существа
-     * @return объект сущетсваили null, если существа с таким id нету
+     * @return существо или null, если существа с таким id нету
      */
-    @NotNull
-    @JsonIgnore
-    public Creature getCreatureById(int id) {
-        for (Creature creature : creatures)
-            if (creature.getId() == id)
-                return creature;
-        throw new IllegalArgumentException("can not find selected creature with id " + id);
+    @Nullable
+    public Creature findCreatureById(int id) {
+        return creatures.getById(id);
     }
 
     /**
-     * Получить состояния существ из состояния мира
+     * Получить существо по его id
      *
-     * @param storyPos номер состояния мира
-     * @return список состояний существ
+     * @param id id существа
+     * @return объект сущетсваили null, если существа с таким id нету
      */
     @NotNull
     @JsonIgnore
-    private List<CreatureState> getCreatureStates(int storyPos) {
-        return statesList.get(storyPos).getCreatureStates();
+    public Creature getCreatureById(int id) {
+        Creature creature = creatures.getById(id);
+        if (creature != null)
+            return creature;
+        throw new IllegalArgumentException("can not find selected creature with id " + id);
     }
 
     /**
@@ -303,10 +421,9 @@ public class WorldStory {
     @NotNull
     @JsonIgnore
     private CreatureState getSelectedCreatureState(int storyPos) {
-        for (CreatureState creatureState : getCreatureStates(storyPos))
-            if (creatureState.getCreatureID() == selectedCreatureId)
-                return creatureState;
-
+        CreatureState creatureState = statesList.get(storyPos).findCreatureStateById(selectedCreatureId);
+        if (creatureState != null)
+            return creatureState;
         throw new IllegalArgumentException("can not get selected creature state with id " + selectedCreatureId);
     }
 
@@ -340,6 +457,7 @@ public class WorldStory {
     public void clear() {
         //System.out.println("clear");
         statesList.clear();
+        lastAddedState = null;
         for (Creature creature : creatures)
             creature.clear();
     }
@@ -362,11 +480,7 @@ public class WorldStory {
      * @return флаг: да/нет
      */
     private boolean checkCreatureIdInWorldState(int creatureId, int storyPos) {
-        for (CreatureState creatureState : getCreatureStates(storyPos))
-            if (creatureState.getCreatureID() == creatureId)
-                return true;
-
-        return false;
+        return statesList.get(storyPos).findCreatureStateById(creatureId) != null;
     }
 
     /**
@@ -374,6 +488,9 @@ public class WorldStory {
      */
     public void close() {
         //System.out.println("close " + listName);
+        closeStoryFile();
+        if (statesList instanceof StoryFileActualList)
+            ((StoryFileActualList) statesList).close();
     }
 
     /**
@@ -424,15 +541,8 @@ public class WorldStory {
             // выбираем первое из них
             selectedCreatureId = 0;
         getStatesList().remove(
-                (StoryWorldState ws) -> {
-                    boolean flgFounded = false;
-                    for (CreatureState creatureState : ws.getCreatureStates())
-                        if (creatureState.getCreatureID() == selectedCreatureId) {
-                            flgFounded = true;
-                            break;
-                        }
-                    return flgFounded;
-                });
+                (StoryWorldState ws) -> ws.findCreatureStateById(selectedCreatureId) != null
+        );
 
     }
 
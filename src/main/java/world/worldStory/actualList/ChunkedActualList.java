@@ -0,0 +1,763 @@
+package world.worldStory.actualList;
+
+import com.sun.istack.NotNull;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Список с выбранным элементом, основанный на массиве блоков фиксированного размера.
+ * В отличие от {@link LinkedActualList} доступ к элементу по номеру выполняется за O(1),
+ * а добавление в конец не копирует уже сохранённые элементы: при росте списка
+ * выделяется только новый блок и расширяется массив ссылок на блоки
+ */
+public class ChunkedActualList<T> extends AbstractList<T> implements RandomAccess {
+    /**
+     * Степень двойки размера блока
+     */
+    private static final int CHUNK_SHIFT = 12;
+    /**
+     * Размер блока
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    /**
+     * Маска номера элемента внутри блока
+     */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * текущее положение в истории мира, используется также как объект синхронизации
+     */
+    private final int[] actualPos;
+    /**
+     * Блоки элементов списка
+     */
+    @NotNull
+    private Object[][] chunks;
+    /**
+     * Кол-во элементов в списке
+     */
+    private int size;
+    /**
+     * Номер первого элемента, изменённого или удалённого после последнего вызова takeChangedFrom()
+     * (добавления в конец списка изменением не считаются)
+     */
+    private int changedFrom;
+
+    /**
+     * Конструктор списка с выбранным элементом, основанного на массиве блоков
+     */
+    public ChunkedActualList() {
+        this.actualPos = new int[]{0};
+        this.chunks = new Object[1][];
+        this.size = 0;
+    }
+
+    /**
+     * Конструктор списка с выбранным элементом, основанного на массиве блоков
+     *
+     * @param actualList список с выбранным элементом
+     * @param copy       функция копирования элементов списка
+     */
+    public ChunkedActualList(@NotNull ChunkedActualList<T> actualList, @NotNull Function<T, T> copy) {
+        this();
+        synchronized (actualList.actualPos) {
+            ensureCapacity(actualList.size);
+            for (int i = 0; i < actualList.size; i++)
+                append(copy.apply(actualList.elementAt(i)));
+            this.actualPos[0] = actualList.actualPos[0];
+        }
+    }
+
+    /**
+     * Конструктор списка с выбранным элементом, основанного на массиве блоков.
+     * Копирует хранимые представления элементов без их преобразования, поэтому
+     * может использоваться только наследниками, у которых хранимые представления неизменяемы
+     *
+     * @param actualList список с выбранным элементом
+     */
+    protected ChunkedActualList(@NotNull ChunkedActualList<T> actualList) {
+        this();
+        synchronized (actualList.actualPos) {
+            ensureCapacity(actualList.size);
+            for (int i = 0; i < actualList.size; i++)
+                appendRaw(actualList.rawAt(i));
+            this.actualPos[0] = actualList.actualPos[0];
+        }
+    }
+
+    /**
+     * Конструктор списка с выбранным элементом, основанного на массиве блоков
+     *
+     * @param actualList список с выбранным элементом
+     * @param actualPos  актуальное положение
+     */
+    public ChunkedActualList(@NotNull List<T> actualList, int actualPos) {
+        this();
+        ensureCapacity(actualList.size());
+        for (T object : actualList)
+            append(object);
+        this.actualPos[0] = actualPos;
+    }
+
+    /**
+     * Получить хранимое представление элемента по номеру без проверки границ
+     *
+     * @param index индекс
+     * @return хранимое представление элемента
+     */
+    protected Object rawAt(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Задать хранимое представление элемента по номеру без проверки границ
+     *
+     * @param index  индекс
+     * @param stored хранимое представление элемента
+     */
+    private void setRaw(int index, Object stored) {
+        chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = stored;
+    }
+
+    /**
+     * Получить элемент по номеру без проверки границ
+     *
+     * @param index индекс
+     * @return элемент
+     */
+    private T elementAt(int index) {
+        return decode(rawAt(index));
+    }
+
+    /**
+     * Преобразовать элемент в хранимое представление.
+     * Наследники могут хранить элементы в сжатом виде, по умолчанию элемент хранится как есть
+     *
+     * @param object элемент
+     * @param index  номер, под которым будет храниться элемент (равен размеру списка при добавлении в конец)
+     * @return хранимое представление элемента
+     */
+    protected Object encode(T object, int index) {
+        return object;
+    }
+
+    /**
+     * Восстановить элемент по хранимому представлению
+     *
+     * @param stored хранимое представление элемента
+     * @return элемент
+     */
+    @SuppressWarnings("unchecked")
+    protected T decode(Object stored) {
+        return (T) stored;
+    }
+
+    /**
+     * Вызывается после удаления элементов из списка
+     */
+    protected void onRemove() {
+    }
+
+    /**
+     * Проверить, что индекс лежит в пределах списка
+     *
+     * @param index индекс
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    /**
+     * Выделить блоки, достаточные для хранения заданного кол-ва элементов
+     *
+     * @param capacity необходимая вместимость
+     */
+    private void ensureCapacity(int capacity) {
+        int chunkCnt = (capacity + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (chunkCnt > chunks.length)
+            chunks = Arrays.copyOf(chunks, Math.max(chunkCnt, chunks.length * 2));
+        for (int i = 0; i < chunkCnt; i++)
+            if (chunks[i] == null)
+                chunks[i] = new Object[CHUNK_SIZE];
+    }
+
+    /**
+     * Добавить элемент в конец списка, не меняя выбранный элемент
+     *
+     * @param object элемент
+     */
+    private void append(T object) {
+        appendRaw(encode(object, size));
+    }
+
+    /**
+     * Добавить хранимое представление элемента в конец списка, не меняя выбранный элемент
+     *
+     * @param stored хранимое представление элемента
+     */
+    protected void appendRaw(Object stored) {
+        if ((size & CHUNK_MASK) == 0)
+            ensureCapacity(size + 1);
+        setRaw(size, stored);
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Отбросить хвост списка, начиная с заданного номера, и освободить ненужные блоки
+     *
+     * @param newSize новый размер списка
+     */
+    private void truncate(int newSize) {
+        for (int i = newSize; i < size; i++)
+            setRaw(i, null);
+        // полностью освободившиеся блоки отдаём сборщику мусора
+        int usedChunkCnt = Math.max(1, (newSize + CHUNK_MASK) >>> CHUNK_SHIFT);
+        for (int i = usedChunkCnt; i < chunks.length; i++)
+            chunks[i] = null;
+        changedFrom = Math.min(changedFrom, newSize);
+        size = newSize;
+        modCount++;
+        onRemove();
+    }
+
+    /**
+     * Ограничить номер выбранного элемента размером списка
+     */
+    private void clampActualPos() {
+        if (actualPos[0] > size - 1)
+            actualPos[0] = size - 1;
+        if (actualPos[0] < 0)
+            actualPos[0] = 0;
+    }
+
+    /**
+     * Размер списка
+     *
+     * @return размер списка
+     */
+    @Override
+    public int size() {
+        synchronized (actualPos) {
+            return size;
+        }
+    }
+
+    /**
+     * Получить объекты списка
+     *
+     * @return объекты списка
+     */
+    public List<T> getObjects() {
+        return this;
+    }
+
+    /**
+     * Задать объекты списка
+     *
+     * @param objects объекты списка
+     */
+    public void setObjects(@NotNull List<T> objects) {
+        synchronized (actualPos) {
+            truncate(0);
+            ensureCapacity(objects.size());
+            for (T object : objects)
+                append(object);
+            clampActualPos();
+        }
+    }
+
+    /**
+     * Получить элемент по номеру
+     *
+     * @param index индекс
+     * @return элемент
+     */
+    @Override
+    public T get(int index) {
+        synchronized (actualPos) {
+            checkIndex(index);
+            return elementAt(index);
+        }
+    }
+
+    /**
+     * Задать элемент по номеру
+     *
+     * @param index   индекс
+     * @param element элемент
+     * @return предыдущий элемент
+     */
+    @Override
+    public T set(int index, T element) {
+        synchronized (actualPos) {
+            checkIndex(index);
+            T prev = elementAt(index);
+            setRaw(index, encode(element, index));
+            changedFrom = Math.min(changedFrom, index);
+            return prev;
+        }
+    }
+
+    /**
+     * Добавить элемент в список
+     *
+     * @param object элемент, который нужно добавить
+     * @return получилось ли добавить элемент
+     */
+    @Override
+    public boolean add(T object) {
+        synchronized (actualPos) {
+            append(object);
+            incActualPos();
+            return true;
+        }
+    }
+
+    /**
+     * Добавить элемент
+     *
+     * @param index   индекс
+     * @param element элемент
+     */
+    @Override
+    public void add(int index, T element) {
+        synchronized (actualPos) {
+            if (index < 0 || index > size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            Object stored = encode(element, index);
+            appendRaw(stored);
+            for (int i = size - 1; i > index; i--)
+                setRaw(i, rawAt(i - 1));
+            setRaw(index, stored);
+            changedFrom = Math.min(changedFrom, index);
+        }
+    }
+
+    /**
+     * Добавить элементы в список
+     *
+     * @param c элементы
+     * @return получилось ли добавить элементы в список
+     */
+    @Override
+    public boolean addAll(@NotNull Collection<? extends T> c) {
+        synchronized (actualPos) {
+            ensureCapacity(size + c.size());
+            for (T object : c)
+                append(object);
+            return !c.isEmpty();
+        }
+    }
+
+    /**
+     * Добавить все элементы из другого списка
+     *
+     * @param actualList список-образец
+     * @param copy       функция копирования элементов списка
+     */
+    public void addAll(@NotNull List<T> actualList, @NotNull Function<T, T> copy) {
+        for (T elem : actualList)
+            this.add(copy.apply(elem));
+    }
+
+    /**
+     * Удалить элемент по номеру
+     *
+     * @param index индекс
+     * @return элемент
+     */
+    @Override
+    public T remove(int index) {
+        synchronized (actualPos) {
+            checkIndex(index);
+            decActualPos();
+            T result = elementAt(index);
+            for (int i = index; i < size - 1; i++)
+                setRaw(i, rawAt(i + 1));
+            changedFrom = Math.min(changedFrom, index);
+            truncate(size - 1);
+            return result;
+        }
+    }
+
+    /**
+     * Удалить элемент из списка
+     *
+     * @param o элемент
+     * @return получилось ли удалить
+     */
+    @Override
+    public boolean remove(Object o) {
+        synchronized (actualPos) {
+            int index = indexOf(o);
+            if (index < 0) {
+                decActualPos();
+                return false;
+            }
+            remove(index);
+            return true;
+        }
+    }
+
+    /**
+     * Удалить элементы из списка
+     *
+     * @param c элементы
+     * @return получилось ли удалить элементы из списка
+     */
+    @Override
+    public boolean removeAll(@NotNull Collection<?> c) {
+        synchronized (actualPos) {
+            boolean flgRemoved = removeIf(c::contains);
+            setActualPosToLast();
+            return flgRemoved;
+        }
+    }
+
+    /**
+     * Оставить в списке только заданные элементы
+     *
+     * @param c элементы
+     * @return изменился ли список
+     */
+    @Override
+    public boolean retainAll(@NotNull Collection<?> c) {
+        synchronized (actualPos) {
+            boolean flgRetain = removeIf(o -> !c.contains(o));
+            setActualPosToLast();
+            return flgRetain;
+        }
+    }
+
+    /**
+     * Удалить все элементы, удовлетворяющие условию (за один проход по списку)
+     *
+     * @param filter условие удаления
+     * @return был ли удалён хотя бы один элемент
+     */
+    @Override
+    public boolean removeIf(@NotNull Predicate<? super T> filter) {
+        synchronized (actualPos) {
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                Object stored = rawAt(i);
+                if (!filter.test(decode(stored))) {
+                    setRaw(newSize, stored);
+                    newSize++;
+                } else
+                    changedFrom = Math.min(changedFrom, newSize);
+            }
+            if (newSize == size)
+                return false;
+            truncate(newSize);
+            return true;
+        }
+    }
+
+    /**
+     * Оставить в списке только подходящие элементы
+     *
+     * @param checkState предикат проверки элементов
+     */
+    public void remove(@NotNull Predicate<T> checkState) {
+        synchronized (actualPos) {
+            removeIf(checkState);
+            // убираем из истории все состояния, полученные из главного потока
+            setActualPosToLast();
+        }
+    }
+
+    /**
+     * Очистить список
+     */
+    @Override
+    public void clear() {
+        synchronized (actualPos) {
+            truncate(0);
+            actualPos[0] = 0;
+        }
+    }
+
+    /**
+     * Очистить список и задать начальный объект
+     *
+     * @param object объект
+     */
+    public void clear(T object) {
+        synchronized (actualPos) {
+            clear();
+            add(object);
+        }
+    }
+
+    /**
+     * Получить подсписок
+     *
+     * @param fromIndex начальный индекс
+     * @param toIndex   конечный индекс
+     * @return подсписок
+     */
+    @NotNull
+    @Override
+    public List<T> subList(int fromIndex, int toIndex) {
+        synchronized (actualPos) {
+            return new ChunkedActualList<>(super.subList(fromIndex, toIndex), toIndex - fromIndex);
+        }
+    }
+
+    /**
+     * Получить номер первого элемента, изменённого или удалённого после предыдущего вызова,
+     * и начать отслеживание изменений заново. Позволяет синхронизировать с этим списком
+     * копию, которая пополняется только добавлением в конец
+     *
+     * @return номер первого изменённого элемента (не больше размера списка)
+     */
+    public int takeChangedFrom() {
+        synchronized (actualPos) {
+            int result = Math.min(changedFrom, size);
+            changedFrom = size;
+            return result;
+        }
+    }
+
+    /**
+     * Получить текущий объект списка
+     *
+     * @return текущий объект списка
+     */
+    public T getActual() {
+        synchronized (actualPos) {
+            return get(actualPos[0]);
+        }
+    }
+
+    /**
+     * Получить последний элемент
+     *
+     * @return элемент
+     */
+    public T getLast() {
+        synchronized (actualPos) {
+            if (size == 0)
+                throw new AssertionError("list is empty");
+            return elementAt(size - 1);
+        }
+    }
+
+    /**
+     * Сделать актуальным последний объект
+     */
+    public void setActualPosToLast() {
+        synchronized (actualPos) {
+            actualPos[0] = size - 1;
+            if (actualPos[0] < 0)
+                actualPos[0] = 0;
+        }
+    }
+
+    /**
+     * Удалить первый объект из списка
+     *
+     * @return первый объект
+     */
+    public T popFirst() {
+        synchronized (actualPos) {
+            if (size == 0)
+                throw new AssertionError("list is empty");
+            T res = remove(0);
+            // задаём текущее состояние как последнее в истории
+            setActualPosToLast();
+            return res;
+        }
+    }
+
+    /**
+     * Обрезать список(если выбранный объект не последний)
+     *
+     * @return обрезался ли список
+     */
+    public boolean truncByActualPos() {
+        synchronized (actualPos) {
+            //обрезать все кадры истории мира, если после паузы старт произошёл не с последнего карта
+            if (actualPos[0] < size - 1) {
+                truncate(actualPos[0]);
+                setActualPosToLast();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Обрезать список после выбранного объекта, сам выбранный объект остаётся последним
+     *
+     * @return обрезался ли список
+     */
+    public boolean truncAfterActualPos() {
+        synchronized (actualPos) {
+            if (actualPos[0] < size - 1) {
+                truncate(actualPos[0] + 1);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Удалить последний объект списка
+     *
+     * @return последний объект списка
+     */
+    public T popLast() {
+        synchronized (actualPos) {
+            if (size == 0)
+                throw new AssertionError("list size is one or less");
+            T result = elementAt(size - 1);
+            truncate(size - 1);
+            // меняем номер состояния на последний допустимый
+            clampActualPos();
+            return result;
+        }
+    }
+
+    /**
+     * Удалить последний объект списка
+     */
+    public void removeLast() {
+        synchronized (actualPos) {
+            if (size <= 1)
+                return;
+            truncate(size - 1);
+            // меняем номер состояния на последний допустимый
+            clampActualPos();
+        }
+    }
+
+    /**
+     * Поменять выбранный объект
+     *
+     * @param object объект
+     */
+    public void setToActual(T object) {
+        synchronized (actualPos) {
+            set(actualPos[0], object);
+        }
+    }
+
+    /**
+     * Получить положение выбранного объекта
+     *
+     * @return положение выбранного объекта
+     */
+    public int getActualPos() {
+        synchronized (actualPos) {
+            return actualPos[0];
+        }
+    }
+
+    /**
+     * Задать выбранный объект
+     *
+     * @param newPos новый номер выбранного объекта
+     * @return сколько объектов не хватает, чтобы задать новый выбранный объект
+     */
+    public int setActualPos(int newPos) {
+        synchronized (actualPos) {
+            int delta = newPos - (size - 1);
+            if (delta < 0)
+                delta = 0;
+            actualPos[0] = newPos;
+            clampActualPos();
+            return delta;
+        }
+    }
+
+    /**
+     * Выбрать следующий объект
+     *
+     * @return получилось ли выбрать следующий объект
+     */
+    public boolean incActualPos() {
+        synchronized (actualPos) {
+            actualPos[0]++;
+            if (actualPos[0] >= size) {
+                actualPos[0] = size - 1;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Выбрать предыдущий объект
+     *
+     * @return получилось ли выбрать предыдущий объект
+     */
+    public boolean decActualPos() {
+        synchronized (actualPos) {
+            actualPos[0]--;
+            if (actualPos[0] < 0) {
+                actualPos[0] = 0;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Перейти к началу истории
+     */
+    public void moveToStart() {
+        synchronized (actualPos) {
+            actualPos[0] = 0;
+        }
+    }
+
+    /**
+     * Перейти к концу истории
+     */
+    public void moveToEnd() {
+        synchronized (actualPos) {
+            setActualPosToLast();
+        }
+    }
+
+    /**
+     * Дублировать последний объект
+     *
+     * @param copy функция копирования
+     */
+    public void duplicateLast(@NotNull Function<T, T> copy) {
+        synchronized (actualPos) {
+            add(copy.apply(getLast()));
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (actualPos) {
+            return "ChunkedActualList{" +
+                    "actualPos=" + actualPos[0] +
+                    ", objects=" + super.toString() +
+                    '}';
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChunkedActualList<?> that = (ChunkedActualList<?>) o;
+        return getActualPos() == that.getActualPos() && super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + getActualPos();
+    }
+
+}
@@ -0,0 +1,139 @@
+package world.worldStory.actualList;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import world.WorldFactory;
+import world.states.StoryWorldState;
+import world.states.StoryWorldStateDelta;
+
+/**
+ * Список состояний мира с выбранным элементом, хранящий целиком только опорные кадры,
+ * а остальные состояния - в виде изменений относительно ближайшего предыдущего опорного кадра.
+ * Хранимые представления неизменяемы: при записи сохраняется копия состояния,
+ * а при чтении всегда возвращается новая копия
+ */
+public class DeltaActualList extends ChunkedActualList<StoryWorldState> {
+    /**
+     * Раз в сколько кадров сохранять опорный кадр целиком
+     */
+    private final int keyframeInterval;
+    /**
+     * Последний опорный кадр
+     */
+    @Nullable
+    private StoryWorldState lastKeyframe;
+    /**
+     * Кол-во кадров, добавленных после последнего опорного кадра
+     */
+    private int sinceKeyframeCnt;
+    /**
+     * Хранимое представление последнего восстановленного состояния
+     */
+    @Nullable
+    private Object lastDecodedStored;
+    /**
+     * Последнее восстановленное состояние
+     */
+    @Nullable
+    private StoryWorldState lastDecoded;
+
+    /**
+     * Конструктор списка состояний мира с опорными кадрами
+     *
+     * @param keyframeInterval раз в сколько кадров сохранять опорный кадр целиком
+     */
+    public DeltaActualList(int keyframeInterval) {
+        super();
+        if (keyframeInterval < 1)
+            throw new IllegalArgumentException("keyframe interval must be positive: " + keyframeInterval);
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Конструктор списка состояний мира с опорными кадрами.
+     * Опорные кадры и изменения не копируются, а используются совместно,
+     * т.к. они не меняются после добавления в список
+     *
+     * @param deltaActualList список состояний мира с опорными кадрами
+     */
+    public DeltaActualList(@NotNull DeltaActualList deltaActualList) {
+        super(deltaActualList);
+        this.keyframeInterval = deltaActualList.keyframeInterval;
+    }
+
+    /**
+     * Преобразовать состояние мира в хранимое представление. Опорные кадры выбираются только
+     * при добавлении в конец, поэтому замена состояния в середине списка не сдвигает их:
+     * заменённое состояние хранится так же, как и прежнее (целиком или изменениями
+     * относительно того же опорного кадра)
+     *
+     * @param object состояние мира
+     * @param index  номер, под которым будет храниться состояние
+     * @return опорный кадр или изменения относительно опорного кадра
+     */
+    @Override
+    protected Object encode(@NotNull StoryWorldState object, int index) {
+        // вызывающий может изменить переданное состояние после записи, поэтому храним копию
+        StoryWorldState copy = WorldFactory.clone(object);
+        if (index < size()) {
+            Object prevStored = rawAt(index);
+            // изменения, ссылающиеся на заменяемый опорный кадр, остаются верными: они хранят ссылку на него
+            if (prevStored instanceof StoryWorldStateDelta)
+                return new StoryWorldStateDelta(((StoryWorldStateDelta) prevStored).getKeyframe(), copy);
+            return copy;
+        }
+        if (lastKeyframe == null || sinceKeyframeCnt >= keyframeInterval - 1) {
+            lastKeyframe = copy;
+            sinceKeyframeCnt = 0;
+            return copy;
+        }
+        sinceKeyframeCnt++;
+        return new StoryWorldStateDelta(lastKeyframe, copy);
+    }
+
+    /**
+     * Восстановить состояние мира по хранимому представлению
+     *
+     * @param stored опорный кадр или изменения относительно опорного кадра
+     * @return новая копия состояния мира
+     */
+    @Override
+    protected StoryWorldState decode(@NotNull Object stored) {
+        // последнее восстановленное состояние кэшируется, а наружу отдаётся его копия,
+        // чтобы изменения у одного вызывающего не были видны другим
+        if (stored != lastDecodedStored) {
+            if (stored instanceof StoryWorldStateDelta)
+                lastDecoded = WorldFactory.fromDelta((StoryWorldStateDelta) stored);
+            else
+                lastDecoded = (StoryWorldState) stored;
+            lastDecodedStored = stored;
+        }
+        return WorldFactory.clone(lastDecoded);
+    }
+
+    /**
+     * После удаления состояний следующее добавленное состояние становится опорным кадром
+     */
+    @Override
+    protected void onRemove() {
+        lastKeyframe = null;
+        sinceKeyframeCnt = 0;
+        lastDecodedStored = null;
+        lastDecoded = null;
+    }
+
+    /**
+     * Получить, раз в сколько кадров сохраняется опорный кадр
+     *
+     * @return раз в сколько кадров сохраняется опорный кадр
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    @Override
+    public String toString() {
+        return "DeltaActualList{" + keyframeInterval + ", " + super.toString() + '}';
+    }
+
+}
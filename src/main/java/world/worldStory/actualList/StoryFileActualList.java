@@ -0,0 +1,79 @@
+package world.worldStory.actualList;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import world.WorldFactory;
+import world.states.StoryWorldState;
+import world.worldStory.storyFile.StoryFileReader;
+
+import java.io.IOException;
+
+/**
+ * Список состояний мира с выбранным элементом, загруженный из бинарного файла истории.
+ * Состояния из файла хранятся только в виде номеров записей и декодируются по запросу,
+ * состояния, добавленные после загрузки, хранятся в памяти как есть
+ */
+public class StoryFileActualList extends ChunkedActualList<StoryWorldState> {
+    /**
+     * Чтение файла истории
+     */
+    @NotNull
+    private final StoryFileReader storyFileReader;
+    /**
+     * Номер последней прочитанной записи
+     */
+    @Nullable
+    private Integer lastDecodedRecord;
+    /**
+     * Последнее прочитанное состояние
+     */
+    @Nullable
+    private StoryWorldState lastDecoded;
+
+    /**
+     * Конструктор списка состояний мира, загруженного из файла истории
+     *
+     * @param storyFileReader чтение файла истории
+     */
+    public StoryFileActualList(@NotNull StoryFileReader storyFileReader) {
+        super();
+        this.storyFileReader = storyFileReader;
+        for (int i = 0; i < storyFileReader.size(); i++)
+            appendRaw(i);
+    }
+
+    /**
+     * Восстановить состояние мира по хранимому представлению
+     *
+     * @param stored номер записи в файле или само состояние
+     * @return состояние мира
+     */
+    @Override
+    protected StoryWorldState decode(@NotNull Object stored) {
+        if (!(stored instanceof Integer))
+            return (StoryWorldState) stored;
+        // последнее прочитанное состояние кэшируется, а наружу отдаётся его копия,
+        // чтобы изменения у одного вызывающего не были видны другим
+        if (!stored.equals(lastDecodedRecord)) {
+            lastDecoded = storyFileReader.get((Integer) stored);
+            lastDecodedRecord = (Integer) stored;
+        }
+        return WorldFactory.clone(lastDecoded);
+    }
+
+    /**
+     * Закрыть файл истории
+     */
+    public void close() {
+        try {
+            storyFileReader.close();
+        } catch (IOException e) {
+            throw new AssertionError("can not close story file " + storyFileReader.getPath() + "\n" + e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StoryFileActualList{" + storyFileReader + ", " + super.toString() + '}';
+    }
+}
@@ -0,0 +1,54 @@
+package world.worldStory.storyFile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Описание бинарного формата файла истории мира.
+ * <p>
+ * Заголовок: MAGIC (int), VERSION (int), длина названия списка (int), название списка (UTF-8),
+ * id выбранного существа (int), длина описания существ (int), описание существ (JSON).
+ * <p>
+ * Далее идут записи состояний мира, добавляемые по мере записи истории:
+ * номер такта (int), длина состояния (int), состояние (JSON).
+ * <p>
+ * При закрытии файла дописывается индекс: смещения записей (long на каждую запись),
+ * кол-во записей (int), смещение начала индекса (long), FOOTER_MAGIC (int).
+ * Если файл не был закрыт (например, процесс аварийно завершился), индекс восстанавливается
+ * последовательным проходом по записям
+ */
+public class StoryFileFormat {
+    /**
+     * Сигнатура файла истории
+     */
+    public static final int MAGIC = 0x4A53544F;
+    /**
+     * Версия формата
+     */
+    public static final int VERSION = 1;
+    /**
+     * Сигнатура конца индекса
+     */
+    public static final int FOOTER_MAGIC = 0x4A534958;
+    /**
+     * Размер заголовка записи состояния: номер такта и длина состояния
+     */
+    public static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+    /**
+     * Размер хвоста индекса: кол-во записей, смещение начала индекса и сигнатура
+     */
+    public static final int FOOTER_TAIL_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    /**
+     * Маппер, используемый для кодирования состояний внутри записей
+     */
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Конструктор для запрета наследования
+     */
+    private StoryFileFormat() {
+        // Подавление создания конструктора по умолчанию
+        // для достижения неинстанцируемости
+        throw new AssertionError("constructor is disabled");
+    }
+}
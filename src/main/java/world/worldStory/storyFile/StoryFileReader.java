@@ -0,0 +1,309 @@
+package world.worldStory.storyFile;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.sun.istack.NotNull;
+import world.params.CreatureInWorldParams;
+import world.states.StoryWorldState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Чтение бинарного файла истории мира через отображение файла в память.
+ * При открытии читаются только заголовок и индекс записей, сами состояния
+ * декодируются по запросу, поэтому переход к любому состоянию не требует загрузки всей истории
+ */
+public class StoryFileReader implements AutoCloseable {
+    /**
+     * Размер отображаемого в память сегмента файла
+     */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    /**
+     * Канал файла
+     */
+    @NotNull
+    private final FileChannel channel;
+    /**
+     * Путь к файлу
+     */
+    @NotNull
+    private final String path;
+    /**
+     * Отображённые в память сегменты файла
+     */
+    @NotNull
+    private final MappedByteBuffer[] segments;
+    /**
+     * Название списка состояний
+     */
+    @NotNull
+    private final String listName;
+    /**
+     * id выбранного существа
+     */
+    private final int selectedCreatureId;
+    /**
+     * Параметры существ в мире
+     */
+    @NotNull
+    private final List<CreatureInWorldParams> creatures;
+    /**
+     * Смещения записей в файле
+     */
+    @NotNull
+    private long[] offsets;
+    /**
+     * Кол-во записей
+     */
+    private int recordCnt;
+
+    /**
+     * Конструктор чтения файла истории
+     *
+     * @param path путь к файлу
+     * @throws IOException ошибка чтения
+     */
+    public StoryFileReader(@NotNull String path) throws IOException {
+        this.path = Objects.requireNonNull(path);
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        long fileSize = channel.size();
+        segments = new MappedByteBuffer[(int) ((fileSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, fileSize - start));
+        }
+
+        if (fileSize < Integer.BYTES * 2 || getInt(0) != StoryFileFormat.MAGIC) {
+            channel.close();
+            throw new IllegalArgumentException(path + " is not a story file");
+        }
+        int version = getInt(Integer.BYTES);
+        if (version != StoryFileFormat.VERSION) {
+            channel.close();
+            throw new IllegalArgumentException("unsupported story file version " + version + " in " + path);
+        }
+        long pos = Integer.BYTES * 2;
+        int listNameLength = getInt(pos);
+        pos += Integer.BYTES;
+        listName = new String(getBytes(pos, listNameLength), StandardCharsets.UTF_8);
+        pos += listNameLength;
+        selectedCreatureId = getInt(pos);
+        pos += Integer.BYTES;
+        int creaturesLength = getInt(pos);
+        pos += Integer.BYTES;
+        creatures = StoryFileFormat.OBJECT_MAPPER.readValue(
+                getBytes(pos, creaturesLength), new TypeReference<List<CreatureInWorldParams>>() {
+                }
+        );
+        pos += creaturesLength;
+
+        if (!readIndex(fileSize))
+            scanRecords(pos, fileSize);
+    }
+
+    /**
+     * Проверка, является ли файл файлом истории в бинарном формате
+     *
+     * @param path путь к файлу
+     * @return является ли файл файлом истории в бинарном формате
+     */
+    public static boolean isStoryFile(@NotNull String path) {
+        try (FileChannel fileChannel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining())
+                if (fileChannel.read(magic) < 0)
+                    return false;
+            magic.flip();
+            return magic.getInt() == StoryFileFormat.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Прочитать индекс из конца файла
+     *
+     * @param fileSize размер файла
+     * @return получилось ли прочитать индекс
+     */
+    private boolean readIndex(long fileSize) {
+        if (fileSize < StoryFileFormat.FOOTER_TAIL_SIZE)
+            return false;
+        long tailPos = fileSize - StoryFileFormat.FOOTER_TAIL_SIZE;
+        if (getInt(tailPos + Integer.BYTES + Long.BYTES) != StoryFileFormat.FOOTER_MAGIC)
+            return false;
+        recordCnt = getInt(tailPos);
+        long indexPos = getLong(tailPos + Integer.BYTES);
+        if (recordCnt < 0 || indexPos + (long) recordCnt * Long.BYTES != tailPos)
+            return false;
+        offsets = new long[recordCnt];
+        for (int i = 0; i < recordCnt; i++)
+            offsets[i] = getLong(indexPos + (long) i * Long.BYTES);
+        return true;
+    }
+
+    /**
+     * Восстановить индекс последовательным проходом по записям
+     * (если файл не был закрыт, последняя неполная запись отбрасывается)
+     *
+     * @param pos      смещение первой записи
+     * @param fileSize размер файла
+     */
+    private void scanRecords(long pos, long fileSize) {
+        offsets = new long[1024];
+        recordCnt = 0;
+        while (pos + StoryFileFormat.RECORD_HEADER_SIZE <= fileSize) {
+            int payloadLength = getInt(pos + Integer.BYTES);
+            long next = pos + StoryFileFormat.RECORD_HEADER_SIZE + payloadLength;
+            if (payloadLength < 0 || next > fileSize)
+                break;
+            if (recordCnt == offsets.length)
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            offsets[recordCnt] = pos;
+            recordCnt++;
+            pos = next;
+        }
+    }
+
+    /**
+     * Получить кол-во состояний в файле
+     *
+     * @return кол-во состояний
+     */
+    public int size() {
+        return recordCnt;
+    }
+
+    /**
+     * Прочитать состояние мира
+     *
+     * @param index номер состояния
+     * @return состояние мира
+     */
+    @NotNull
+    public StoryWorldState get(int index) {
+        Objects.checkIndex(index, recordCnt);
+        long offset = offsets[index];
+        int payloadLength = getInt(offset + Integer.BYTES);
+        try {
+            return StoryFileFormat.OBJECT_MAPPER.readValue(
+                    getBytes(offset + StoryFileFormat.RECORD_HEADER_SIZE, payloadLength), StoryWorldState.class
+            );
+        } catch (IOException e) {
+            throw new IllegalArgumentException("can not read state " + index + " from " + path + "\n" + e);
+        }
+    }
+
+    /**
+     * Получить название списка состояний
+     *
+     * @return название списка состояний
+     */
+    @NotNull
+    public String getListName() {
+        return listName;
+    }
+
+    /**
+     * Получить id выбранного существа
+     *
+     * @return id выбранного существа
+     */
+    public int getSelectedCreatureId() {
+        return selectedCreatureId;
+    }
+
+    /**
+     * Получить параметры существ в мире
+     *
+     * @return параметры существ в мире
+     */
+    @NotNull
+    public List<CreatureInWorldParams> getCreatures() {
+        return creatures;
+    }
+
+    /**
+     * Получить путь к файлу
+     *
+     * @return путь к файлу
+     */
+    @NotNull
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Закрыть файл
+     *
+     * @throws IOException ошибка закрытия
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Прочитать int по смещению в файле
+     *
+     * @param pos смещение
+     * @return значение
+     */
+    private int getInt(long pos) {
+        int segment = (int) (pos / SEGMENT_SIZE);
+        int segmentPos = (int) (pos % SEGMENT_SIZE);
+        if (segmentPos + Integer.BYTES <= segments[segment].limit())
+            return segments[segment].getInt(segmentPos);
+        return ByteBuffer.wrap(getBytes(pos, Integer.BYTES)).getInt();
+    }
+
+    /**
+     * Прочитать long по смещению в файле
+     *
+     * @param pos смещение
+     * @return значение
+     */
+    private long getLong(long pos) {
+        int segment = (int) (pos / SEGMENT_SIZE);
+        int segmentPos = (int) (pos % SEGMENT_SIZE);
+        if (segmentPos + Long.BYTES <= segments[segment].limit())
+            return segments[segment].getLong(segmentPos);
+        return ByteBuffer.wrap(getBytes(pos, Long.BYTES)).getLong();
+    }
+
+    /**
+     * Прочитать байты по смещению в файле (с учётом границ сегментов)
+     *
+     * @param pos    смещение
+     * @param length кол-во байт
+     * @return прочитанные байты
+     */
+    @NotNull
+    private byte[] getBytes(long pos, int length) {
+        byte[] result = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            int segment = (int) (pos / SEGMENT_SIZE);
+            int segmentPos = (int) (pos % SEGMENT_SIZE);
+            int cnt = Math.min(length - copied, segments[segment].limit() - segmentPos);
+            segments[segment].get(segmentPos, result, copied, cnt);
+            copied += cnt;
+            pos += cnt;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StoryFileReader{'" + path + "', " + recordCnt + '}';
+    }
+}
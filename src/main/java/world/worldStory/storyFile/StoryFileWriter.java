@@ -0,0 +1,187 @@
+package world.worldStory.storyFile;
+
+import com.sun.istack.NotNull;
+import world.params.CreatureInWorldParams;
+import world.states.StoryWorldState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Потоковая запись истории мира в бинарный файл.
+ * Состояния дописываются в конец файла по одному, индекс записей держится в памяти
+ * и сохраняется в конец файла при закрытии
+ */
+public class StoryFileWriter implements AutoCloseable {
+    /**
+     * Канал файла
+     */
+    @NotNull
+    private final FileChannel channel;
+    /**
+     * Путь к файлу
+     */
+    @NotNull
+    private final String path;
+    /**
+     * Буфер заголовка записи
+     */
+    @NotNull
+    private final ByteBuffer recordHeader;
+    /**
+     * Смещения записей в файле
+     */
+    @NotNull
+    private long[] offsets;
+    /**
+     * Кол-во записей
+     */
+    private int recordCnt;
+    /**
+     * Смещение конца последней записи
+     */
+    private long dataEnd;
+
+    /**
+     * Конструктор потоковой записи истории мира, файл создаётся заново
+     *
+     * @param path               путь к файлу
+     * @param listName           название списка состояний
+     * @param selectedCreatureId id выбранного существа
+     * @param creatures          параметры существ в мире
+     * @throws IOException ошибка записи
+     */
+    public StoryFileWriter(
+            @NotNull String path, @NotNull String listName, int selectedCreatureId,
+            @NotNull List<CreatureInWorldParams> creatures
+    ) throws IOException {
+        this.path = Objects.requireNonNull(path);
+        this.channel = FileChannel.open(
+                Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        );
+        this.recordHeader = ByteBuffer.allocate(StoryFileFormat.RECORD_HEADER_SIZE);
+        this.offsets = new long[1024];
+        this.recordCnt = 0;
+
+        byte[] listNameBytes = listName.getBytes(StandardCharsets.UTF_8);
+        byte[] creaturesBytes = StoryFileFormat.OBJECT_MAPPER.writeValueAsBytes(creatures);
+        ByteBuffer header = ByteBuffer.allocate(
+                Integer.BYTES * 5 + listNameBytes.length + creaturesBytes.length
+        );
+        header.putInt(StoryFileFormat.MAGIC);
+        header.putInt(StoryFileFormat.VERSION);
+        header.putInt(listNameBytes.length);
+        header.put(listNameBytes);
+        header.putInt(selectedCreatureId);
+        header.putInt(creaturesBytes.length);
+        header.put(creaturesBytes);
+        header.flip();
+        writeFully(header, 0);
+        dataEnd = header.capacity();
+    }
+
+    /**
+     * Дописать состояние мира в конец файла
+     *
+     * @param storyWorldState состояние мира
+     * @throws IOException ошибка записи
+     */
+    public void append(@NotNull StoryWorldState storyWorldState) throws IOException {
+        byte[] payload = StoryFileFormat.OBJECT_MAPPER.writeValueAsBytes(Objects.requireNonNull(storyWorldState));
+        if (recordCnt == offsets.length)
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        offsets[recordCnt] = dataEnd;
+
+        recordHeader.clear();
+        recordHeader.putInt(storyWorldState.getTickCnt());
+        recordHeader.putInt(payload.length);
+        recordHeader.flip();
+        writeFully(recordHeader, dataEnd);
+        writeFully(ByteBuffer.wrap(payload), dataEnd + StoryFileFormat.RECORD_HEADER_SIZE);
+
+        dataEnd += StoryFileFormat.RECORD_HEADER_SIZE + payload.length;
+        recordCnt++;
+    }
+
+    /**
+     * Оставить в файле только первые записи
+     *
+     * @param newRecordCnt кол-во записей, которые нужно оставить
+     * @throws IOException ошибка записи
+     */
+    public void truncate(int newRecordCnt) throws IOException {
+        if (newRecordCnt < 0 || newRecordCnt > recordCnt)
+            throw new IllegalArgumentException("can not truncate story file " + path + " to " + newRecordCnt +
+                    " records, records cnt " + recordCnt);
+        if (newRecordCnt == recordCnt)
+            return;
+        dataEnd = offsets[newRecordCnt];
+        recordCnt = newRecordCnt;
+        channel.truncate(dataEnd);
+    }
+
+    /**
+     * Получить кол-во записанных состояний
+     *
+     * @return кол-во записанных состояний
+     */
+    public int size() {
+        return recordCnt;
+    }
+
+    /**
+     * Получить путь к файлу
+     *
+     * @return путь к файлу
+     */
+    @NotNull
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Записать индекс в конец файла и закрыть его
+     *
+     * @throws IOException ошибка записи
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen())
+            return;
+        ByteBuffer footer = ByteBuffer.allocate(recordCnt * Long.BYTES + StoryFileFormat.FOOTER_TAIL_SIZE);
+        for (int i = 0; i < recordCnt; i++)
+            footer.putLong(offsets[i]);
+        footer.putInt(recordCnt);
+        footer.putLong(dataEnd);
+        footer.putInt(StoryFileFormat.FOOTER_MAGIC);
+        footer.flip();
+        writeFully(footer, dataEnd);
+        channel.force(true);
+        channel.close();
+    }
+
+    /**
+     * Записать буфер целиком начиная с заданного смещения
+     *
+     * @param buffer   буфер
+     * @param position смещение в файле
+     * @throws IOException ошибка записи
+     */
+    private void writeFully(@NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    @Override
+    public String toString() {
+        return "StoryFileWriter{'" + path + "', " + recordCnt + '}';
+    }
+}
@@ -1,7 +1,8 @@
 package worldController;
 
-
+import cache.ParamsCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.istack.NotNull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import worldController.base.WorldControllerParams;
@@ -10,8 +11,7 @@ import worldController.realTime.RealTimeWorldControllerParams;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
 
 /**
  * Фабрика параметров  контроллера мира
@@ -25,15 +25,17 @@ public class WorldControllerParamsFactory {
             .getLogger(WorldControllerParamsFactory.class);
 
     /**
-     * словарь загруженных параметров мира
+     * кэш загруженных параметров контроллеров мира
      */
-    private static final Map<String, WorldControllerParams> pathDict = new HashMap<>();
+    private static final ParamsCache<WorldControllerParams> paramsCache = new ParamsCache<>(
+            WorldControllerParamsFactory::readParams, WorldControllerParamsFactory::clone
+    );
 
     /**
      * Очистить словарь путей
      */
     public static void clearPathDict() {
-        pathDict.clear();
+        paramsCache.clear();
     }
 
     /**
@@ -42,7 +44,17 @@ public class WorldControllerParamsFactory {
      * @param path путь
      */
     public static void removeWorldControllerParams(String path) {
-        pathDict.remove(path);
+        paramsCache.invalidate(path);
+    }
+
+    /**
+     * Получить кэш загруженных параметров (для счётчиков попаданий и промахов)
+     *
+     * @return кэш загруженных параметров
+     */
+    @NotNull
+    public static ParamsCache<WorldControllerParams> getParamsCache() {
+        return paramsCache;
     }
 
     /**
@@ -52,16 +64,19 @@ public class WorldControllerParamsFactory {
      * @return созданный мир
      */
     public static WorldControllerParams fromFile(String path) {
-        WorldControllerParams worldControllerParams = pathDict.get(path);
-        if (worldControllerParams != null)
-            return WorldControllerParamsFactory.clone(worldControllerParams);
+        return paramsCache.get(Objects.requireNonNull(path));
+    }
 
+    /**
+     * Разобрать параметры из json-файла
+     *
+     * @param path путь к файлу
+     * @return параметры
+     */
+    private static WorldControllerParams readParams(@NotNull String path) {
         ObjectMapper objectMapper = new ObjectMapper();
         try {
-            WorldControllerParams loadedWorldControllerParams =
-                    objectMapper.readValue(new File(path), WorldControllerParams.class);
-            pathDict.put(path, loadedWorldControllerParams);
-            return loadedWorldControllerParams;
+            return objectMapper.readValue(new File(path), WorldControllerParams.class);
         } catch (IOException e) {
             throw new AssertionError("Error load worldControllerParams from JSON: " + path + "\n" + e);
         }
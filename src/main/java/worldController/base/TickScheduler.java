@@ -0,0 +1,304 @@
+package worldController.base;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Планировщик тактов обработки мира с фиксированным шагом по времени.
+ * Такты выполняются в отдельном потоке, ожидание до очередного такта делается через
+ * {@link LockSupport#parkNanos(Object, long)}, а не через активное ожидание.
+ * Если поток отстал от расписания, пропущенные такты догоняются подряд, но не больше
+ * {@code maxCatchUpTicks} за одно пробуждение, остальные такты отбрасываются.
+ * При нулевом периоде такты выполняются так быстро, как это возможно.
+ * Между тактами и пока мир приостановлен, не реже одного раза в {@link #IDLE_PERIOD} наносекунд
+ * вызывается обработка простоя
+ */
+public class TickScheduler {
+    /**
+     * логгер
+     */
+    private static final Logger logger = LogManager.getLogger(TickScheduler.class);
+    /**
+     * максимальный период вызова обработки простоя в наносекундах
+     */
+    public static final long IDLE_PERIOD = 10_000_000L;
+    /**
+     * максимальное кол-во тактов, догоняемых за одно пробуждение, по умолчанию
+     */
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+    /**
+     * коэффициент сглаживания средней задержки тактов
+     */
+    private static final double JITTER_SMOOTHING = 0.05;
+    /**
+     * период тактов в наносекундах (0 - такты выполняются так быстро, как это возможно)
+     */
+    private final long tickPeriod;
+    /**
+     * максимальное кол-во тактов, догоняемых за одно пробуждение
+     */
+    private final int maxCatchUpTicks;
+    /**
+     * поток тактов
+     */
+    @Nullable
+    private Thread thread;
+    /**
+     * флаг, работает ли поток тактов
+     */
+    private volatile boolean running;
+    /**
+     * флаг, выполняются ли такты (если нет, вызывается только обработка простоя)
+     */
+    private volatile boolean active;
+    /**
+     * время начала последнего такта
+     */
+    private long lastTickTime;
+    /**
+     * последний интервал между тактами в наносекундах
+     */
+    private volatile long lastTickInterval;
+    /**
+     * сглаженная задержка начала такта относительно расписания в наносекундах
+     */
+    private volatile double meanJitter;
+    /**
+     * максимальная задержка начала такта относительно расписания в наносекундах
+     */
+    private volatile long maxJitter;
+    /**
+     * кол-во выполненных тактов
+     */
+    private volatile long tickCnt;
+    /**
+     * кол-во отброшенных тактов
+     */
+    private volatile long droppedTickCnt;
+
+    /**
+     * Конструктор планировщика тактов
+     *
+     * @param tickPeriod      период тактов в наносекундах (0 - так быстро, как это возможно)
+     * @param maxCatchUpTicks максимальное кол-во тактов, догоняемых за одно пробуждение
+     */
+    public TickScheduler(long tickPeriod, int maxCatchUpTicks) {
+        if (tickPeriod < 0)
+            throw new IllegalArgumentException("tick period must be non-negative: " + tickPeriod);
+        if (maxCatchUpTicks < 1)
+            throw new IllegalArgumentException("max catch up ticks must be positive: " + maxCatchUpTicks);
+        this.tickPeriod = tickPeriod;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+        this.running = false;
+        this.active = false;
+    }
+
+    /**
+     * Запустить поток тактов, если предыдущий поток ещё не завершился, дожидаемся его завершения
+     *
+     * @param init инициализация, выполняется в потоке тактов перед первым тактом
+     * @param tick такт
+     * @param idle обработка простоя
+     */
+    public synchronized void start(@NotNull Runnable init, @NotNull Runnable tick, @NotNull Runnable idle) {
+        Objects.requireNonNull(init);
+        Objects.requireNonNull(tick);
+        Objects.requireNonNull(idle);
+        stop();
+        running = true;
+        thread = new Thread(() -> {
+            init.run();
+            loop(tick, idle);
+        }, "tickScheduler");
+        thread.start();
+    }
+
+    /**
+     * Остановить поток тактов и дождаться его завершения
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread == null)
+            return;
+        LockSupport.unpark(thread);
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                logger.error("interrupted while waiting for tick thread");
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+    }
+
+    /**
+     * Задать, выполняются ли такты
+     *
+     * @param active флаг, выполняются ли такты
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+        Thread tickThread = thread;
+        if (tickThread != null)
+            LockSupport.unpark(tickThread);
+    }
+
+    /**
+     * Цикл потока тактов
+     *
+     * @param tick такт
+     * @param idle обработка простоя
+     */
+    private void loop(@NotNull Runnable tick, @NotNull Runnable idle) {
+        long nextTickTime = System.nanoTime();
+        lastTickTime = 0;
+        while (running) {
+            if (!active) {
+                idle.run();
+                LockSupport.parkNanos(this, IDLE_PERIOD);
+                // после паузы расписание начинается заново, а не догоняется
+                nextTickTime = System.nanoTime();
+                lastTickTime = 0;
+                continue;
+            }
+            if (tickPeriod == 0) {
+                runTick(tick, System.nanoTime(), 0);
+                idle.run();
+                continue;
+            }
+            long now = System.nanoTime();
+            if (now < nextTickTime) {
+                LockSupport.parkNanos(this, Math.min(nextTickTime - now, IDLE_PERIOD));
+                idle.run();
+                continue;
+            }
+            int steps = 0;
+            while (running && active && now >= nextTickTime && steps < maxCatchUpTicks) {
+                runTick(tick, now, now - nextTickTime);
+                nextTickTime += tickPeriod;
+                steps++;
+                now = System.nanoTime();
+            }
+            // оставшееся отставание не догоняем, а отбрасываем
+            if (now >= nextTickTime && active) {
+                long behind = (now - nextTickTime) / tickPeriod + 1;
+                droppedTickCnt += behind;
+                nextTickTime += behind * tickPeriod;
+            }
+            idle.run();
+        }
+    }
+
+    /**
+     * Выполнить такт и обновить статистику
+     *
+     * @param tick   такт
+     * @param now    время начала такта
+     * @param jitter задержка начала такта относительно расписания
+     */
+    private void runTick(@NotNull Runnable tick, long now, long jitter) {
+        if (lastTickTime != 0)
+            lastTickInterval = now - lastTickTime;
+        lastTickTime = now;
+        meanJitter += (jitter - meanJitter) * JITTER_SMOOTHING;
+        if (jitter > maxJitter)
+            maxJitter = jitter;
+        tickCnt++;
+        tick.run();
+    }
+
+    /**
+     * Сбросить статистику тактов
+     */
+    public void resetStatistics() {
+        meanJitter = 0;
+        maxJitter = 0;
+        tickCnt = 0;
+        droppedTickCnt = 0;
+    }
+
+    /**
+     * Получить реальную частоту тактов
+     *
+     * @return реальная частота тактов (0, если тактов ещё не было)
+     */
+    public long getRealTickFrequency() {
+        long interval = lastTickInterval;
+        return interval == 0 ? 0 : 1_000_000_000L / interval;
+    }
+
+    /**
+     * Получить сглаженную задержку начала такта относительно расписания
+     *
+     * @return сглаженная задержка начала такта в наносекундах
+     */
+    public long getMeanJitter() {
+        return (long) meanJitter;
+    }
+
+    /**
+     * Получить максимальную задержку начала такта относительно расписания
+     *
+     * @return максимальная задержка начала такта в наносекундах
+     */
+    public long getMaxJitter() {
+        return maxJitter;
+    }
+
+    /**
+     * Получить кол-во выполненных тактов
+     *
+     * @return кол-во выполненных тактов
+     */
+    public long getTickCnt() {
+        return tickCnt;
+    }
+
+    /**
+     * Получить кол-во отброшенных тактов
+     *
+     * @return кол-во отброшенных тактов
+     */
+    public long getDroppedTickCnt() {
+        return droppedTickCnt;
+    }
+
+    /**
+     * Получить период тактов
+     *
+     * @return период тактов в наносекундах
+     */
+    public long getTickPeriod() {
+        return tickPeriod;
+    }
+
+    /**
+     * Получить флаг, работает ли поток тактов
+     *
+     * @return работает ли поток тактов
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "TickScheduler{tickPeriod, maxCatchUpTicks, running, active, tickCnt, droppedTickCnt}"
+     */
+    @Override
+    public String toString() {
+        return "TickScheduler{" + tickPeriod +
+                ", " + maxCatchUpTicks +
+                ", " + running +
+                ", " + active +
+                ", " + tickCnt +
+                ", " + droppedTickCnt + '}';
+    }
+}
@@ -7,6 +7,7 @@ import com.jogamp.opengl.awt.GLCanvas;
 import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
 import gui.GUIApplication;
+import profiler.WorldProfiler;
 import world.WorldFactory;
 import world.base.World;
 
@@ -164,8 +165,12 @@ public abstract class WorldController implements GLEventListener, AutoCloseable
     public void display(GLAutoDrawable drawable) {
         GL2 gl2 = drawable.getGL().getGL2();
         gl2.glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
-        if (worldLoaded)
+        if (worldLoaded) {
+            WorldProfiler worldProfiler = getWorld().getWorldInfo().getWorldProfiler();
+            long frameStart = worldProfiler.now();
             display(gl2);
+            worldProfiler.record(WorldProfiler.Phase.FRAME, frameStart);
+        }
 
         if (!terminated) {
             getWorld().getWorldInfo().setRealRenderFrequency(1_000_000_000L / glController.delayForRender());
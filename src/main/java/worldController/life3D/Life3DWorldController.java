@@ -11,7 +11,9 @@ import gui.GUIApplication;
 import jMath.aoklyunin.github.com.coordinateSystem.CoordinateSystem2i;
 import jMath.aoklyunin.github.com.vector.Vector2d;
 import jMath.aoklyunin.github.com.vector.Vector2i;
+import profiler.WorldProfiler;
 import world.base.World;
+import world.base.WorldFrame;
 import worldController.base.GLController;
 import worldController.life.LifeWorldController;
 
@@ -90,9 +92,15 @@ public class Life3DWorldController extends LifeWorldController {
                 45.0, (double) getWorldCS().getSize().x / getWorldCS().getSize().y, 0.1, 500.0
         );
 
+        // состояние и камеру выбранного существа берём из одного снимка мира
+        WorldFrame frame = getWorld().getStoryWorld().getFrame();
+        Camera selectedCamera = frame.getSelectedCamera();
         switch (getWorld().getRealTime3DWorld().getCameraMode()) {
             case OBSERVER -> camera.gluLookAt(getGlController().getGLU());
-            case SELECTED_CREATURE -> getSelectedCreature().getCamera().gluLookAt(getGlController().getGLU());
+            case SELECTED_CREATURE -> {
+                if (selectedCamera != null)
+                    selectedCamera.gluLookAt(getGlController().getGLU());
+            }
         }
 
         // разрешаем проверку глубины
@@ -101,7 +109,10 @@ public class Life3DWorldController extends LifeWorldController {
         //gl2.glEnable(GL_LIGHTING);
         //gl2.glEnable(GL_LIGHT0);
         // рисование выделенного в мире существа
-        getWorld().render(gl2, getGlRenderWorldCS(), getActualWorldState());
+        WorldProfiler worldProfiler = getWorld().getWorldInfo().getWorldProfiler();
+        long renderStart = worldProfiler.now();
+        getWorld().render(gl2, getGlRenderWorldCS(), frame.getWorldState());
+        worldProfiler.record(WorldProfiler.Phase.RENDER_WORLD, renderStart);
         //gl2.glDisable(GL_LIGHTING);
 
         // запрещаем проверку глубины
@@ -119,7 +130,7 @@ public class Life3DWorldController extends LifeWorldController {
             getWorldStoryScroller().renderScroller(gl2);
 
         if (getWorld().getRealTimeWorld().isRenderLogInfo())
-            getWorld().getRealTimeWorld().renderLog(gl2, getActualWorldState());
+            getWorld().getRealTimeWorld().renderLog(gl2, frame.getWorldState());
 
     }
 
@@ -151,7 +162,11 @@ public class Life3DWorldController extends LifeWorldController {
         getGlController().getGLU().gluOrtho2D(0.0f, 1.0f, 0.0f, 1.0f);
 
         // вызываем метод рисования мира
-        getWorld().getRealTime3DWorld().renderConnectorGrid(gl2, getSelectedCreature());
+        WorldFrame frame = getWorld().getStoryWorld().getFrame();
+        Creature selectedCreature = frame.getSelectedCreature();
+        short[] sensorGridValues = frame.getSelectedSensorGridValues();
+        if (selectedCreature != null && sensorGridValues != null)
+            getWorld().getRealTime3DWorld().renderConnectorGrid(gl2, selectedCreature, sensorGridValues);
 
     }
 
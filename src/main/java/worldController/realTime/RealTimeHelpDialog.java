@@ -42,6 +42,8 @@ public class RealTimeHelpDialog extends BaseHelpDialog {
                         {"Клавиша влево", "Уменьшить номер выделенного кадра истории"},
                         {"Ctrl+C", "Настройки существа"},
                         {"L", "Выводить/не выводить лог на экран"},
+                        {"P", "Сохранить статистику профилировщика в profile.csv"},
+                        {"Ctrl+P", "Сбросить статистику профилировщика"},
                         {"Space", "Остановить/Запустить обработку мира"},
                         {"Ctrl+Space", "Перезапустить мир"},
                         {"T", "Рисовать мир во весь экран/Рисовать мир в своём блоке"}
@@ -13,16 +13,17 @@ import jMath.aoklyunin.github.com.vector.Vector2i;
 import jMath.aoklyunin.github.com.vector.Vector3d;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import profiler.WorldProfiler;
 import world.base.World;
 import world.states.WorldState;
 import worldController.base.GLController;
 import worldController.base.MouseControlled;
+import worldController.base.TickScheduler;
 import worldController.base.WorldController;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 
 import static com.jogamp.opengl.GL.GL_DEPTH_TEST;
 import static com.jogamp.opengl.fixedfunc.GLMatrixFunc.GL_MODELVIEW;
@@ -37,6 +38,14 @@ public class RealTimeWorldController extends WorldController implements MouseCon
      */
     private static final Logger logger = LogManager
             .getLogger(RealTimeWorldController.class);
+    /**
+     * время на упреждающий расчёт истории за одну обработку между тактами в наносекундах
+     */
+    private static final long PREFETCH_TIME_BUDGET = TickScheduler.IDLE_PERIOD / 2;
+    /**
+     * путь к csv-файлу, в который сохраняется статистика профилировщика
+     */
+    private static final String PROFILE_PATH = "profile.csv";
     /**
      * экранная СК мира
      */
@@ -70,11 +79,12 @@ public class RealTimeWorldController extends WorldController implements MouseCon
     /**
      * флаг, запущен мир, или нет
      */
-    private boolean active;
+    private volatile boolean active;
     /**
-     * время выполнения последних вычислений
+     * планировщик тактов обработки мира
      */
-    private long lastProcessTime;
+    @NotNull
+    private final TickScheduler tickScheduler;
     /**
      * экранная система координат существа
      */
@@ -103,7 +113,7 @@ public class RealTimeWorldController extends WorldController implements MouseCon
         super(worldControllerParams, glCanvas);
         active = false;
         fullScreenWorld = false;
-        lastProcessTime = System.nanoTime();
+        tickScheduler = new TickScheduler(getProcessDelay(), TickScheduler.DEFAULT_MAX_CATCH_UP_TICKS);
 
         sourceFullScreenWorldCS = new CoordinateSystem2i(
                 0,
@@ -148,38 +158,46 @@ public class RealTimeWorldController extends WorldController implements MouseCon
     }
 
     /**
-     * Обработка мира
+     * Такт мира
+     *
+     * @param world мир, который нужно обработать
+     */
+    protected void tick(@NotNull World world) {
+        // пока история перестраивается в фоне, мир не продвигается
+        if (world.getStoryWorld().isRebuilding())
+            return;
+        world.getStoryWorld().tick();
+        world.getWorldInfo().setRealTickFrequency(tickScheduler.getRealTickFrequency());
+        world.getWorldInfo().setTickJitter(tickScheduler.getMeanJitter());
+    }
+
+    /**
+     * Обработка мира между тактами, вызывается планировщиком тактов при каждом пробуждении,
+     * в том числе когда мир приостановлен
      *
      * @param world мир, который нужно обработать
      */
     public void process(@NotNull World world) {
-        long delta = System.nanoTime() - lastProcessTime;
+    }
+
+    /**
+     * Обработка между тактами в потоке тактов: пока мир приостановлен, свободное время
+     * отдаётся упреждающему расчёту истории
+     *
+     * @param world мир
+     */
+    protected void idle(@NotNull World world) {
         if (!active)
-            try {
-                TimeUnit.MICROSECONDS.sleep(10_000L);
-            } catch (InterruptedException e) {
-                logger.error("error making delay in mainLoop method");
-            }
-        else {
-            if (delta > getProcessDelay()) {
-                //System.out.println("tick");
-                lastProcessTime = System.nanoTime();
-                world.getWorldInfo().setRealTickFrequency(1_000_000_000L / delta);
-                world.getStoryWorld().tick();
-            }
-        }
+            world.getStoryWorld().prefetch(PREFETCH_TIME_BUDGET);
+        process(world);
     }
 
     /**
      * Запускаем потоки обработки
      */
     public void startProcessThreads() {
-        new Thread(() -> {
-            init();
-            while (!isTerminated()) {
-                process(getWorld());
-            }
-        }).start();
+        tickScheduler.setActive(active);
+        tickScheduler.start(this::init, () -> tick(getWorld()), () -> idle(getWorld()));
     }
 
     @Override
@@ -188,12 +206,18 @@ public class RealTimeWorldController extends WorldController implements MouseCon
         startProcessThreads();
     }
 
+    @Override
+    public void pause() {
+        super.pause();
+        tickScheduler.stop();
+    }
 
     /**
      * Приостановить мир
      */
     protected void pauseWorld() {
         active = false;
+        tickScheduler.setActive(false);
     }
 
     /**
@@ -201,6 +225,8 @@ public class RealTimeWorldController extends WorldController implements MouseCon
      */
     public void runWorld() {
         active = true;
+        tickScheduler.resetStatistics();
+        tickScheduler.setActive(true);
     }
 
     /**
@@ -241,20 +267,23 @@ public class RealTimeWorldController extends WorldController implements MouseCon
         getGlController().getGLU().gluOrtho2D(0.0f, 1.0f, 0.0f, 1.0f);
 
         // вызываем метод рисования мира
+        WorldProfiler worldProfiler = getWorld().getWorldInfo().getWorldProfiler();
+        long renderStart = worldProfiler.now();
         getWorld().render(gl2, glRenderWorldCS, getActualWorldState());
+        worldProfiler.record(WorldProfiler.Phase.RENDER_WORLD, renderStart);
 
         if (!active && getWorld().getWorldParams().getStoryWorldParams().isRecordStory())
             getWorldStoryScroller().renderScroller(gl2);
     }
 
     /**
-     * Получить текущее состояние мира
+     * Получить текущее состояние мира из последнего опубликованного снимка мира
      *
      * @return текущее состояние мира
      */
     @NotNull
     protected WorldState getActualWorldState() {
-        return getWorld().getStoryWorld().getActualWorldState();
+        return getWorld().getStoryWorld().getFrame().getWorldState();
     }
 
     /**
@@ -484,6 +513,14 @@ public class RealTimeWorldController extends WorldController implements MouseCon
             case KeyEvent.VK_L:
                 getWorld().getRealTimeWorld().switchRenderLogInfoMode();
                 break;
+            case KeyEvent.VK_P:
+                if (GUIApplication.flgCtrl) {
+                    getWorld().getWorldInfo().getWorldProfiler().reset();
+                } else {
+                    getWorld().getWorldInfo().getWorldProfiler().saveCsv(PROFILE_PATH);
+                    logger.info("profile is saved to " + PROFILE_PATH);
+                }
+                break;
             default:
                 //System.out.println(keyCode);
                 break;
@@ -577,6 +614,16 @@ public class RealTimeWorldController extends WorldController implements MouseCon
         return fullScreenWorld;
     }
 
+    /**
+     * Получить планировщик тактов обработки мира
+     *
+     * @return планировщик тактов обработки мира
+     */
+    @NotNull
+    public TickScheduler getTickScheduler() {
+        return tickScheduler;
+    }
+
     /**
      * Получить СК существа
      *
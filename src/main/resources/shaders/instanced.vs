@@ -0,0 +1,9 @@
+#version 120
+
+attribute vec3 inPosition;
+attribute mat4 inModel;
+
+void main()
+{
+    gl_Position = gl_ModelViewProjectionMatrix * inModel * vec4(inPosition, 1.0);
+}